@@ -24,9 +24,12 @@ import com.google.appengine.api.datastore.Query;
 import com.google.appengine.api.datastore.Query.Filter;
 import com.google.appengine.api.datastore.Query.FilterOperator;
 import com.google.appengine.api.datastore.Query.FilterPredicate;
+import com.google.appengine.api.datastore.Transaction;
+import com.google.appengine.api.datastore.TransactionOptions;
 import com.google.gson.Gson;
 import com.google.sps.data.Comment;
 import com.google.sps.utility.CommentConstants;
+import com.google.sps.utility.CommentCounter;
 import com.google.sps.utility.ValidateInput;
 import java.io.IOException;
 import java.util.*;
@@ -41,6 +44,10 @@ import javax.servlet.http.HttpServletResponse;
 @WebServlet("/delete-comment")
 public class DeleteCommentServlet extends HttpServlet {
 
+  // Comments per transaction; with the counter shard that is 21 entity 
+  //    groups, within the limit of 25 for a cross-group transaction.
+  static final int DELETE_BATCH_SIZE = 20;
+
   /**
    * Deletes comments from that Datastore based on the blog post the button the 
    *    user pressed is associated with.
@@ -65,9 +72,11 @@ public class DeleteCommentServlet extends HttpServlet {
     // Retrieve Comments from Datastore for the given blog post
     FilterPredicate filterBlogComments = new FilterPredicate("blogNumber", 
         FilterOperator.EQUAL, blogNumber);
-    Query query = new Query("Comment").setFilter(filterBlogComments);
+    Query query = new Query("Comment").setFilter(filterBlogComments)
+        .setKeysOnly();
     
     DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+    CommentCounter.seedIfMissing(datastore, blogNumber);
     PreparedQuery results = datastore.prepare(query);
 
     List<Key> commentKeys = new ArrayList<> ();
@@ -75,12 +84,52 @@ public class DeleteCommentServlet extends HttpServlet {
       Key commentEntityKey = entity.getKey();
       commentKeys.add(commentEntityKey);
     }
-    
-    datastore.delete(commentKeys);
+
+    // Every comment is its own entity group and a transaction can only touch
+    //    a few groups, so the comments are deleted and uncounted in batches.
+    for (int i = 0; i < commentKeys.size(); i += DELETE_BATCH_SIZE) {
+      List<Key> batch = commentKeys.subList(i, 
+          Math.min(i + DELETE_BATCH_SIZE, commentKeys.size()));
+      deleteAndUncount(datastore, blogNumber, batch);
+    }
 
     // return a message saying that this function call was successful
     response.setContentType("application/json;");
     String jsonStatus = new Gson().toJson(CommentConstants.SUCCESS);
     response.getWriter().println(jsonStatus);
   }
+
+  /**
+   * Deletes the comments that still exist out of commentKeys and subtracts
+   *    them from the count of the blog post, in one transaction. Comments that
+   *    a concurrent delete already removed aren't subtracted again.
+   *
+   * @param datastore the datastore holding the comments
+   * @param blogNumber the blog post the comments belong to
+   * @param commentKeys the keys of at most DELETE_BATCH_SIZE comments
+   */
+  private static void deleteAndUncount(DatastoreService datastore, 
+      int blogNumber, List<Key> commentKeys) {
+    for (int attempt = 1; ; attempt++) {
+      Transaction txn = datastore.beginTransaction(
+          TransactionOptions.Builder.withXG(true));
+      try {
+        Set<Key> existing = datastore.get(txn, commentKeys).keySet();
+        if (!existing.isEmpty()) {
+          datastore.delete(txn, existing);
+          CommentCounter.add(datastore, txn, blogNumber, -existing.size());
+        }
+        txn.commit();
+        return;
+      } catch (ConcurrentModificationException e) {
+        if (attempt == CommentCounter.MAX_ATTEMPTS) {
+          throw e;
+        }
+      } finally {
+        if (txn.isActive()) {
+          txn.rollback();
+        }
+      }
+    }
+  }
 }
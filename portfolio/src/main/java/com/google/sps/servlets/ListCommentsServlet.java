@@ -15,44 +15,45 @@
 package com.google.sps.servlets;
 
 import java.io.IOException;
-import java.lang.Math;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.util.*;
 import com.google.gson.Gson;
+import com.google.appengine.api.datastore.Cursor;
 import com.google.appengine.api.datastore.DatastoreService;
 import com.google.appengine.api.datastore.DatastoreServiceFactory;
 import com.google.appengine.api.datastore.Entity;
 import com.google.appengine.api.datastore.FetchOptions;
 import com.google.appengine.api.datastore.PreparedQuery;
 import com.google.appengine.api.datastore.Query;
-import com.google.appengine.api.datastore.Query.Filter;
 import com.google.appengine.api.datastore.Query.FilterOperator;
 import com.google.appengine.api.datastore.Query.FilterPredicate;
 import com.google.appengine.api.datastore.Query.SortDirection;
+import com.google.appengine.api.datastore.QueryResultIterator;
 import com.google.sps.data.Comment;
+import com.google.sps.data.CommentPage;
 import com.google.sps.utility.CommentConstants;
 import com.google.sps.utility.ValidateInput;
 
 /** 
- * Servlet that creates comment objects from entities and returns the list of 
- *    comment entities.
+ * Servlet that creates comment objects from entities and returns one page of
+ *    comment entities, newest first.
  */
 @WebServlet("/list-comments")
 public class ListCommentsServlet extends HttpServlet {
 
-  static final int COMMENT_LIMIT = 30;
-
   /** 
-   * Will only show the 30 most recent comments.
-   * Returns the comments associated with the page the user is on, which 
-   *    is found based on their input.
+   * Returns one page of the comments of a blog post. Without a page-token 
+   *    the page holds the most recent comments; with one it holds the ones
+   *    right after the page that returned the token. Each request reads just
+   *    the comments of its page, however far back it is.
    *
    * @param request which contains data to retrieve comments
    * @param response
-   * @return comments in the form of json (List<Comment>)
+   * @return a page of comments and the token of the next page in the form of
+   *    json (CommentPage)
    */
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
@@ -76,6 +77,20 @@ public class ListCommentsServlet extends HttpServlet {
       return;
     }    
 
+    // Fetch one comment more than the page holds to find out whether there
+    //    is a next page.
+    FetchOptions pageOptions = FetchOptions.Builder.withLimit(numComments + 1);
+    String pageToken = request.getParameter("page-token");
+    if (pageToken != null && !pageToken.isEmpty()) {
+      try {
+        pageOptions.startCursor(Cursor.fromWebSafeString(pageToken));
+      } catch (IllegalArgumentException e) {
+        ValidateInput.createErrorMessage(
+            new Exception("Parameter page-token is not valid"), response);
+        return;
+      }
+    }
+
     // Retrieve Comments from Datastore for the given blog post
     FilterPredicate filterBlogComments = new FilterPredicate("blogNumber", 
         FilterOperator.EQUAL, blogNumber);
@@ -85,43 +100,40 @@ public class ListCommentsServlet extends HttpServlet {
     DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
     PreparedQuery results = datastore.prepare(query);
 
-    // Receive input from the pagination to see which comments to show
-    FetchOptions entitiesLimit = FetchOptions.Builder.withLimit(COMMENT_LIMIT);
-    double totalComments = results.countEntities(entitiesLimit);
+    // A page-token of another blog post is well formed, so Datastore only
+    //    rejects it once the query runs, when the first comments are fetched.
+    QueryResultIterator<Entity> entities;
+    try {
+      entities = results.asQueryResultIterator(pageOptions);
+      entities.hasNext();
+    } catch (IllegalArgumentException e) {
+      ValidateInput.createErrorMessage(
+          new Exception("Parameter page-token is not valid"), response);
+      return;
+    }
 
-    // If there are comments then return a list of comments
     List<Comment> comments = new ArrayList<> ();
-    if (totalComments > 0) {
-      int maxPageNum = (int) Math.ceil(totalComments / numComments);
-      int pageNum;
-      try {
-        pageNum = ValidateInput.getUserNum(request, "page-number", 0,      
-            maxPageNum);
-      } catch (Exception e) {
-        ValidateInput.createErrorMessage(e, response);
-        return;
-      }
-      
-      int commentStartIndex = (pageNum - 1) * numComments;
-      int commentEndIndex = commentStartIndex + numComments;
-      int lastComment = Math.min(commentEndIndex, (int) totalComments);
+    while (comments.size() < numComments && entities.hasNext()) {
+      Entity entity = entities.next();
+      long id = entity.getKey().getId();
+      String content = (String) entity.getProperty("content");
+      long timestamp = (long) entity.getProperty("timestamp");
+      String name = (String) entity.getProperty("name");
+      String imageURL = (String) entity.getProperty("image");
 
-      // Turn prepared query into a list
-      List<Entity> entitiesList = results.asList(entitiesLimit);
-      for (int i = commentStartIndex; i < lastComment; i++) {
-        Entity entity = entitiesList.get(i);
-        long id = entity.getKey().getId();
-        String content = (String) entity.getProperty("content");
-        long timestamp = (long) entity.getProperty("timestamp");
-        String name = (String) entity.getProperty("name");
-        String imageURL = (String) entity.getProperty("image");
+      Comment comment = new Comment(id, content, timestamp, name, imageURL);
+      comments.add(comment);
+    }
 
-        Comment comment = new Comment(id, content, timestamp, name, imageURL);
-        comments.add(comment);
-      }
+    // The cursor points right after the last comment of this page.
+    String nextPageToken = null;
+    Cursor nextPage = entities.getCursor();
+    if (entities.hasNext() && nextPage != null) {
+      nextPageToken = nextPage.toWebSafeString();
     }
 
-    String jsonComments = new Gson().toJson(comments);
+    String jsonComments = new Gson().toJson(
+        new CommentPage(comments, nextPageToken));
     response.setContentType("application/json;");
     response.getWriter().println(jsonComments);
   }
@@ -27,7 +27,10 @@ import com.google.appengine.api.datastore.Entity;
 import com.google.appengine.api.datastore.PreparedQuery;
 import com.google.appengine.api.datastore.Query;
 import com.google.appengine.api.datastore.Query.SortDirection;
+import com.google.appengine.api.datastore.Transaction;
+import com.google.appengine.api.datastore.TransactionOptions;
 import com.google.sps.utility.CommentConstants;
+import com.google.sps.utility.CommentCounter;
 import com.google.sps.utility.ValidateInput;
 
 
@@ -103,8 +106,28 @@ public class NewCommentServlet extends HttpServlet {
     commentEntity.setProperty("name", name);
     commentEntity.setProperty("image", imageURL);
 
+    // Store the comment and count it in the same transaction, so the count
+    //    never misses or double counts a comment.
     DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
-        datastore.put(commentEntity);
+    CommentCounter.seedIfMissing(datastore, blogNumber);
+    for (int attempt = 1; ; attempt++) {
+      Transaction txn = datastore.beginTransaction(
+          TransactionOptions.Builder.withXG(true));
+      try {
+        datastore.put(txn, commentEntity);
+        CommentCounter.add(datastore, txn, blogNumber, 1);
+        txn.commit();
+        break;
+      } catch (ConcurrentModificationException e) {
+        if (attempt == CommentCounter.MAX_ATTEMPTS) {
+          throw e;
+        }
+      } finally {
+        if (txn.isActive()) {
+          txn.rollback();
+        }
+      }
+    }
 
     // return a message saying that this function call was successful
     response.setContentType("application/json;");
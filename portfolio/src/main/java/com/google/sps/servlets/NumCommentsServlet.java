@@ -15,10 +15,7 @@
 package com.google.sps.servlets;
 
 import java.io.IOException;
-import java.lang.Math;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
@@ -27,52 +24,34 @@ import javax.servlet.http.HttpServletResponse;
 import com.google.gson.Gson;
 import com.google.appengine.api.datastore.DatastoreService;
 import com.google.appengine.api.datastore.DatastoreServiceFactory;
-import com.google.appengine.api.datastore.Entity;
-import com.google.appengine.api.datastore.FetchOptions;
-import com.google.appengine.api.datastore.PreparedQuery;
-import com.google.appengine.api.datastore.Query;
-import com.google.appengine.api.datastore.Query.SortDirection;
+import com.google.sps.utility.CommentConstants;
+import com.google.sps.utility.CommentCounter;
 
 /** Servlet that returns the number of comments stored */
 @WebServlet("/num-comments")
 public class NumCommentsServlet extends HttpServlet {
 
-  static final int COMMENT_LIMIT = 30;
-
   /** 
    * Returns the number of comments associated with different blog posts.
+   *    The counts are read from the counter shards that NewCommentServlet and
+   *    DeleteCommentServlet keep up to date, so no comment is read.
    *
    * @param request which contains data to retrieve comments
    * @param response
-   * @return a list of the number of comments per blog post in the form of json 
-   *    (ArrayList<Comment>)
+   * @return a map from blog number to its number of comments in the form of
+   *    json, leaving out blog posts without comments
    */
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    // Retrieve Comments from Datastore for the given blog post
-    Query query = new Query("Comment").addSort("blogNumber", 
-        SortDirection.ASCENDING);
-    
     DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
-    PreparedQuery results = datastore.prepare(query);
-    
-    // key is the blogNumber and value is the number of comments for that blog
-    Map<Integer, Integer> numComments = new HashMap<Integer, Integer> ();
+    long[] counts = CommentCounter.getCounts(datastore, 
+        CommentConstants.MAX_NUM_BLOGS);
 
-    // Receive input from the pagination to see which comments to show
-    FetchOptions entitiesLimit = FetchOptions.Builder.withLimit(COMMENT_LIMIT);
-    double totalComments = results.countEntities(entitiesLimit);
-
-    if (totalComments > 0) {
-      Iterable<Entity> commentsList = results.asIterable();
-      for (Entity comment : commentsList) {
-        Integer blogNumber = Math.toIntExact((long) comment.getProperty("blogNumber"));
-        if (numComments.containsKey(blogNumber)) {
-          Integer count = numComments.get(blogNumber) + 1;
-          numComments.put(blogNumber, count);
-        } else {
-          numComments.put(blogNumber, 1);
-        }
+    // key is the blogNumber and value is the number of comments for that blog
+    Map<Integer, Long> numComments = new HashMap<Integer, Long> ();
+    for (int i = 0; i < counts.length; i++) {
+      if (counts[i] > 0) {
+        numComments.put(i + 1, counts[i]);
       }
     }
 
@@ -0,0 +1,178 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utility;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.Query.FilterOperator;
+import com.google.appengine.api.datastore.Query.FilterPredicate;
+import com.google.appengine.api.datastore.Transaction;
+import com.google.appengine.api.datastore.TransactionOptions;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/** 
+ * Keeps the number of comments on each blog post in a few counter shards, so
+ *    the counts can be read with one batch get instead of a scan over every 
+ *    comment. A write picks a shard at random, so comments posted at the same
+ *    time rarely contend for the same entity. The count of a blog post is the
+ *    sum of its shards.
+ */
+public final class CommentCounter {
+  static final String KIND = "CommentCounterShard";
+  static final String COUNT = "count";
+  static final int NUM_SHARDS = 4;
+
+  /** How many times a transaction is tried before giving up on contention */
+  public static final int MAX_ATTEMPTS = 3;
+
+  private static final Random random = new Random();
+
+  private CommentCounter() {}
+
+  /** 
+   * Adds delta to the count of a blog post as part of a transaction. The
+   *    transaction must allow cross-group writes, since the shard is in an
+   *    entity group of its own.
+   *
+   * @param datastore the datastore holding the counters
+   * @param txn the transaction that also writes or deletes the comments
+   * @param blogNumber the blog post whose count changes
+   * @param delta how many comments were added, or minus how many were deleted
+   */
+  public static void add(DatastoreService datastore, Transaction txn, 
+      int blogNumber, long delta) {
+    Key shardKey = shardKey(blogNumber, random.nextInt(NUM_SHARDS));
+    Entity shard;
+    try {
+      shard = datastore.get(txn, shardKey);
+    } catch (EntityNotFoundException e) {
+      shard = new Entity(shardKey);
+      shard.setProperty(COUNT, 0L);
+    }
+    // A single shard can go below zero after deletes, but the sum never does.
+    shard.setProperty(COUNT, (long) shard.getProperty(COUNT) + delta);
+    datastore.put(txn, shard);
+  }
+
+  /** 
+   * Returns the number of comments on each blog post from 1 to numBlogs with
+   *    a single batch get of their shards. Blog posts without any shard are
+   *    counted once first, see seed.
+   *
+   * @param datastore the datastore holding the counters
+   * @param numBlogs the number of blog posts
+   * @return the counts, where counts[i] is the count of blog post i + 1
+   */
+  public static long[] getCounts(DatastoreService datastore, int numBlogs) {
+    List<Key> keys = new ArrayList<> (numBlogs * NUM_SHARDS);
+    for (int blogNumber = 1; blogNumber <= numBlogs; blogNumber++) {
+      for (int shard = 0; shard < NUM_SHARDS; shard++) {
+        keys.add(shardKey(blogNumber, shard));
+      }
+    }
+
+    long[] counts = new long[numBlogs];
+    boolean[] hasShard = new boolean[numBlogs];
+    Map<Key, Entity> shards = datastore.get(keys);
+    for (int i = 0; i < keys.size(); i++) {
+      Entity shard = shards.get(keys.get(i));
+      if (shard != null) {
+        counts[i / NUM_SHARDS] += (long) shard.getProperty(COUNT);
+        hasShard[i / NUM_SHARDS] = true;
+      }
+    }
+
+    for (int i = 0; i < numBlogs; i++) {
+      if (!hasShard[i]) {
+        counts[i] = seed(datastore, i + 1);
+      }
+    }
+    return counts;
+  }
+
+  /** 
+   * Seeds the counter of a blog post if it has no shards yet. Writers call
+   *    this before they change the count, so comments written before they
+   *    were counted are never left out.
+   *
+   * @param datastore the datastore holding the comments and counters
+   * @param blogNumber the blog post about to be written to
+   */
+  public static void seedIfMissing(DatastoreService datastore, 
+      int blogNumber) {
+    List<Key> keys = new ArrayList<> (NUM_SHARDS);
+    for (int shard = 0; shard < NUM_SHARDS; shard++) {
+      keys.add(shardKey(blogNumber, shard));
+    }
+    if (datastore.get(keys).isEmpty()) {
+      seed(datastore, blogNumber);
+    }
+  }
+
+  /** 
+   * Counts the comments of a blog post that has no shards yet, e.g. one whose
+   *    comments were written before they were counted, and stores the count
+   *    in its first shard. This happens once per blog post, even if it has no
+   *    comments.
+   *
+   * @param datastore the datastore holding the comments and counters
+   * @param blogNumber the blog post to count
+   * @return the number of comments of the blog post
+   */
+  private static long seed(DatastoreService datastore, int blogNumber) {
+    Query query = new Query("Comment").setFilter(new FilterPredicate(
+        "blogNumber", FilterOperator.EQUAL, blogNumber)).setKeysOnly();
+    long count = datastore.prepare(query).countEntities(
+        FetchOptions.Builder.withDefaults());
+
+    List<Key> keys = new ArrayList<> (NUM_SHARDS);
+    for (int shard = 0; shard < NUM_SHARDS; shard++) {
+      keys.add(shardKey(blogNumber, shard));
+    }
+    Transaction txn = datastore.beginTransaction(
+        TransactionOptions.Builder.withXG(true));
+    try {
+      // A comment posted meanwhile created a shard, so it has been counted
+      //    already; reading every shard here makes that commit conflict 
+      //    with this one otherwise.
+      if (datastore.get(txn, keys).isEmpty()) {
+        Entity shard = new Entity(keys.get(0));
+        shard.setProperty(COUNT, count);
+        datastore.put(txn, shard);
+        txn.commit();
+      }
+    } catch (ConcurrentModificationException e) {
+      // Somebody else seeded it or posted a comment; the next read sees it.
+    } finally {
+      if (txn.isActive()) {
+        txn.rollback();
+      }
+    }
+    return count;
+  }
+
+  static Key shardKey(int blogNumber, int shard) {
+    return KeyFactory.createKey(KIND, "blog-" + blogNumber + "-shard-" + shard);
+  }
+}
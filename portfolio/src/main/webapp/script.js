@@ -45,24 +45,30 @@ function addRandomFact() {
   factContainer.innerText = fact;
 }
 
+// The page tokens of the pages of comments viewed on each blog post, the 
+// current page last. The first page has no token.
+const commentPageTokens = {};
+
 /** 
- * Retrieves a number of comments after and including the first comment shown. 
+ * Retrieves one page of comments, newest first. 
  *
  * @param numComments the number of comments to display
- * @param pageNumber the page number the user clicked 
+ * @param pageToken the token of the page to show, or null for the first page
  * @param blogNumber the blog the comments are assoicated with
  */
-function getComment(numComments, pageNumber, blogNumber) {
+function getComment(numComments, pageToken, blogNumber) {
   let queryString = '/list-comments?num-comments=' + numComments;
-  queryString = queryString + '&page-number=' + pageNumber;
   queryString = queryString + '&blog-number=' + blogNumber;
+  if (pageToken) {
+    queryString = queryString + '&page-token=' + encodeURIComponent(pageToken);
+  }
 
   console.log("Fetching comments for blog post " + blogNumber);
-  fetch(queryString).then(response => response.json()).then((comments) => {
-    const isError = isErrorMessage(comments);
+  fetch(queryString).then(response => response.json()).then((page) => {
+    const isError = isErrorMessage(page);
     if (isError) {
-      console.log("Servlet error: " + comments);
-      window.alert(comments);
+      console.log("Servlet error: " + page);
+      window.alert(page);
     } else {
       const commentListElement = document.getElementById('comment-container-' + 
           blogNumber);
@@ -70,8 +76,8 @@ function getComment(numComments, pageNumber, blogNumber) {
       console.log("Printing comments for blog post " + blogNumber);
       commentListElement.innerHTML = '';
       commentListElement.appendChild(createHElement("Comments", 4));
-      if (comments.length > 0) {
-        comments.forEach((comment) => {
+      if (page.comments.length > 0) {
+        page.comments.forEach((comment) => {
           commentListElement.appendChild(
               createCommentElement(comment.content, comment.name, 
                   comment.imageURL));
@@ -80,6 +86,7 @@ function getComment(numComments, pageNumber, blogNumber) {
         commentListElement.appendChild(
             createPElement("There are no comments", "", ""));
       }
+      loadCommentPagination(numComments, blogNumber, page.nextPageToken);
     }
   });
 }
@@ -186,53 +193,43 @@ function deleteAllComments(blogNumber) {
 }
 
 /** 
- * Creates pagination to go through all comments. 
+ * Creates links to the newer and the older page of comments. 
  * 
  * @param numComments the number of comments displayed per page
  * @param blogNumber the blog this func is creating a pagination for
+ * @param nextPageToken the token of the older page, or null if there is none
  */
-function loadCommentPagination(numComments, blogNumber) {
-  let queryString = '/pagination-comment?num-comments=' + numComments;
-  queryString = queryString + '&blog-number=' + blogNumber;
+function loadCommentPagination(numComments, blogNumber, nextPageToken) {
+  const pageTokens = commentPageTokens[blogNumber];
+  const paginationElement = document.getElementById('comment-pagination-' + 
+      blogNumber);
+  paginationElement.innerHTML = '';
 
-  console.log("Fetching pagination for blog post " + blogNumber);
-  fetch(queryString).then(response => response.json()).then((maxPageNum) => {
-    const isError = isErrorMessage(maxPageNum);
-    if (isError) {
-      // if it doesn't return a success then it is an error
-      console.log(response);
-      window.alert(response);
-    } else {
-      const paginationElement = document.getElementById('comment-pagination-' + 
-          blogNumber);
-      console.log("Loading pagination w/ " + numComments + " comments per page");
-      paginationElement.innerHTML = '';
-      for (let i = 1; i < maxPageNum + 1; i++) {
-        paginationElement.appendChild(
-            createPageElement(i, numComments, blogNumber));
-      }
-    }
-  });
+  if (pageTokens.length > 1) {
+    paginationElement.appendChild(createPageElement("Newer", () => {
+      pageTokens.pop();
+      getComment(numComments, pageTokens[pageTokens.length - 1], blogNumber);
+    }));
+  }
+  if (nextPageToken) {
+    paginationElement.appendChild(createPageElement("Older", () => {
+      pageTokens.push(nextPageToken);
+      getComment(numComments, nextPageToken, blogNumber);
+    }));
+  }
 }
       
 /** 
- * Creates an elemet that represents a page. 
+ * Creates an elemet that moves to another page. 
  *
- * @param pageNumber the page number that this element represents
- * @param numComments the number of comments displayed per page
- * @param blogNumber the blog that this page element is relateed to 
- * @return returns an <a> element that represents a page number in the 
- * pagination
+ * @param text the text of the link
+ * @param onclick what to do when the link is clicked
+ * @return returns an <a> element that represents a page in the pagination
  */
-function createPageElement(pageNumber, numComments, blogNumber) {
-  console.log("Creating page number " + pageNumber + " for blog post " + 
-      blogNumber);
+function createPageElement(text, onclick) {
   const pageElement = document.createElement('a');
-  pageElement.innerText = pageNumber;
-  pageElement.addEventListener('click', () => {
-    console.log("Loading comments for page: " + pageNumber);
-    getComment(numComments, pageNumber, blogNumber);
-  });
+  pageElement.innerText = text;
+  pageElement.addEventListener('click', onclick);
   return pageElement;
 }
 
@@ -246,8 +243,8 @@ function loadCommentSection(blogNumber) {
   console.log("Loading blog " + blogNumber + "'s comment section.");
   const numComments = document.getElementById("num-comments-" + blogNumber).value;
   drawChart();
-  getComment(numComments, 1, blogNumber);
-  loadCommentPagination(numComments, blogNumber);
+  commentPageTokens[blogNumber] = [null];
+  getComment(numComments, null, blogNumber);
 }
 
 /** 
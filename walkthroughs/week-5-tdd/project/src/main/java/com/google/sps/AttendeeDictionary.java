@@ -0,0 +1,168 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns every attendee name a small integer ID and pools identical groups of attendees, so
+ *     that {@code CompactEvent}s can share one sorted {@code int[]} per distinct group instead of
+ *     each keeping a set of strings. Lookups never block; assigning new IDs is synchronized.
+ */
+public final class AttendeeDictionary {
+  private static final int[] NO_IDS = new int[0];
+
+  private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Group, Group> groups = new ConcurrentHashMap<>();
+
+  // Names by ID. The array is replaced, never shrunk, when it fills up, so any array read after an
+  //     ID was handed out contains that ID's name.
+  private volatile String[] names = new String[16];
+  private int size = 0;
+
+  /**
+   * Returns the ID of {@code name}, assigning the next free ID if it has none yet.
+   * Time Complexity: O(1) amortized
+   */
+  public int intern(String name) {
+    Integer id = ids.get(name);
+    return id != null ? id : assign(name);
+  }
+
+  private synchronized int assign(String name) {
+    Integer id = ids.get(name);
+    if (id != null) {
+      return id;
+    }
+    if (size == names.length) {
+      names = Arrays.copyOf(names, 2 * size);
+    }
+    names[size] = name;
+    ids.put(name, size);
+    return size++;
+  }
+
+  /**
+   * Returns the ID of {@code name}, or -1 if it was never interned.
+   * Time Complexity: O(1)
+   */
+  public int lookup(String name) {
+    Integer id = ids.get(name);
+    return id == null ? -1 : id;
+  }
+
+  /**
+   * Returns the name with ID {@code id}.
+   *
+   * @throws IllegalArgumentException if no name has that ID
+   */
+  public String nameOf(int id) {
+    String[] current = names;
+    if (id < 0 || id >= current.length || current[id] == null) {
+      throw new IllegalArgumentException("unknown attendee id: " + id);
+    }
+    return current[id];
+  }
+
+  /**
+   * Returns the number of distinct names interned so far.
+   */
+  public int size() {
+    return ids.size();
+  }
+
+  /**
+   * Returns the number of distinct groups pooled so far.
+   */
+  public int numGroups() {
+    return groups.size();
+  }
+
+  /**
+   * Interns every one of {@code attendees} and returns their IDs in ascending order. Identical
+   *     groups get the very same array back, so callers must not modify it.
+   * Time Complexity: O(k*ln(k)) where k is the number of attendees
+   */
+  public int[] internGroup(Collection<String> attendees) {
+    if (attendees.isEmpty()) {
+      return NO_IDS;
+    }
+    int[] group = new int[attendees.size()];
+    int count = 0;
+    for (String attendee : attendees) {
+      group[count++] = intern(attendee);
+    }
+    return pool(sortedDistinct(group, count));
+  }
+
+  /**
+   * Returns the IDs of those of {@code attendees} that were interned, in ascending order. Names
+   *     that were never interned are left out, since no event can include them.
+   * Time Complexity: O(k*ln(k)) where k is the number of attendees
+   */
+  public int[] lookupAll(Collection<String> attendees) {
+    int[] found = new int[attendees.size()];
+    int count = 0;
+    for (String attendee : attendees) {
+      int id = lookup(attendee);
+      if (id >= 0) {
+        found[count++] = id;
+      }
+    }
+    return sortedDistinct(found, count);
+  }
+
+  private int[] pool(int[] group) {
+    Group key = new Group(group);
+    Group pooled = groups.putIfAbsent(key, key);
+    return pooled == null ? group : pooled.ids;
+  }
+
+  private static int[] sortedDistinct(int[] values, int count) {
+    Arrays.sort(values, 0, count);
+    int distinct = 0;
+    for (int i = 0; i < count; i++) {
+      if (distinct == 0 || values[distinct - 1] != values[i]) {
+        values[distinct++] = values[i];
+      }
+    }
+    return distinct == values.length ? values : Arrays.copyOf(values, distinct);
+  }
+
+  /**
+   * A pooled group of IDs compared by content.
+   */
+  private static final class Group {
+    private final int[] ids;
+    private final int hash;
+
+    Group(int[] ids) {
+      this.ids = ids;
+      this.hash = Arrays.hashCode(ids);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Group && Arrays.equals(ids, ((Group) other).ids);
+    }
+  }
+}
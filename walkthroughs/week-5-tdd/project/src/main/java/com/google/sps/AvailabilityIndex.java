@@ -0,0 +1,240 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * An in-memory index from each attendee to the times they are busy. Every attendee's busy times
+ *     are kept as a sorted list of disjoint {start, end} arrays in minutes, so slots can be
+ *     reserved and released incrementally without rebuilding the index.
+ */
+public final class AvailabilityIndex {
+  private final Map<String, ArrayList<int[]>> busyTimes = new HashMap<>();
+
+  /**
+   * Builds an index from every attendee of {@code events}.
+   * Time Complexity: O(n*ln(n))
+   *
+   * @param events the events that make their attendees busy
+   * @return an index of the busy times of every attendee
+   */
+  public static AvailabilityIndex build(Collection<Event> events) {
+    return build(events, attendee -> true);
+  }
+
+  /**
+   * Builds an index from the attendees of {@code events} that {@code includeAttendee} accepts,
+   *     e.g. the attendees owned by one shard.
+   * Time Complexity: O(n*ln(n))
+   *
+   * @param events the events that make their attendees busy
+   * @param includeAttendee which attendees to index
+   * @return an index of the busy times of the accepted attendees
+   */
+  public static AvailabilityIndex build(Collection<Event> events,
+      Predicate<String> includeAttendee) {
+    AvailabilityIndex index = new AvailabilityIndex();
+    for (Event event : events) {
+      TimeRange when = event.getWhen();
+      if (when.duration() <= 0) {
+        continue;
+      }
+      for (String attendee : event.getAttendees()) {
+        if (!includeAttendee.test(attendee)) {
+          continue;
+        }
+        index.busyTimes.computeIfAbsent(attendee, key -> new ArrayList<>())
+            .add(new int[] {when.start(), when.end()});
+      }
+    }
+
+    for (Map.Entry<String, ArrayList<int[]>> entry : index.busyTimes.entrySet()) {
+      ArrayList<int[]> times = entry.getValue();
+      times.sort((a, b) -> Integer.compare(a[0], b[0]));
+      entry.setValue(IntervalSet.fromSortedTimes(times).toTimes());
+    }
+    return index;
+  }
+
+  /**
+   * Returns an index of busy times that are already sorted and disjoint, e.g. ones read back from
+   *     a {@code SchedulerSnapshot}. The lists are taken over, not copied.
+   * Time Complexity: O(k) where k is the number of attendees
+   */
+  static AvailabilityIndex fromSortedBusyTimes(Map<String, ArrayList<int[]>> busyTimes) {
+    AvailabilityIndex index = new AvailabilityIndex();
+    index.busyTimes.putAll(busyTimes);
+    return index;
+  }
+
+  /**
+   * Returns a deep copy of this index so reservations on the copy don't affect this index.
+   */
+  public AvailabilityIndex copy() {
+    AvailabilityIndex copy = new AvailabilityIndex();
+    for (Map.Entry<String, ArrayList<int[]>> entry : busyTimes.entrySet()) {
+      ArrayList<int[]> times = new ArrayList<>(entry.getValue().size());
+      for (int[] time : entry.getValue()) {
+        times.add(time.clone());
+      }
+      copy.busyTimes.put(entry.getKey(), times);
+    }
+    return copy;
+  }
+
+  /**
+   * Returns every attendee that is busy at least once.
+   */
+  public Set<String> getAttendees() {
+    return Collections.unmodifiableSet(busyTimes.keySet());
+  }
+
+  /**
+   * Returns a read-only view of the sorted and disjoint busy times of one attendee.
+   */
+  public List<int[]> getBusyTimes(String attendee) {
+    ArrayList<int[]> times = busyTimes.get(attendee);
+    if (times == null) {
+      return Collections.emptyList();
+    }
+    return Collections.unmodifiableList(times);
+  }
+
+  /**
+   * Returns the busy times of one attendee as a set.
+   * Time Complexity: O(n)
+   */
+  public IntervalSet getBusySet(String attendee) {
+    ArrayList<int[]> times = busyTimes.get(attendee);
+    return times == null ? IntervalSet.EMPTY : IntervalSet.fromSortedTimes(times);
+  }
+
+  /**
+   * Returns the times when at least one of {@code attendees} is busy. Thousands of attendees are
+   *     merged in parallel, see {@code ParallelUnion}.
+   * Time Complexity: O(n*ln(k)) where n is the number of busy times of the k attendees
+   */
+  public IntervalSet getBusySet(Collection<String> attendees) {
+    List<IntervalSet> sets = new ArrayList<>(attendees.size());
+    for (String attendee : attendees) {
+      sets.add(getBusySet(attendee));
+    }
+    return ParallelUnion.union(sets);
+  }
+
+  /**
+   * Returns the sorted and disjoint times when at least one of {@code attendees} is busy.
+   * Time Complexity: O(n*ln(k)) where n is the number of busy times of the k attendees
+   */
+  public ArrayList<int[]> getBusyTimes(Collection<String> attendees) {
+    return getBusySet(attendees).toTimes();
+  }
+
+  /**
+   * Returns the times of at least {@code durationMinutes} when all of {@code attendees} are free.
+   * Time Complexity: O(n*ln(k)) where n is the number of busy times of the k attendees
+   */
+  public TimeRanges getFreeTimes(Collection<String> attendees, int durationMinutes) {
+    return getBusySet(attendees).gaps(durationMinutes);
+  }
+
+  /**
+   * Marks every one of {@code attendees} as busy during {@code when}.
+   * Time Complexity: O(ln(n) + k) per attendee, where k is the number of busy times merged
+   */
+  public void reserve(Collection<String> attendees, TimeRange when) {
+    if (when.duration() <= 0) {
+      return;
+    }
+    for (String attendee : attendees) {
+      ArrayList<int[]> times = busyTimes.computeIfAbsent(attendee, key -> new ArrayList<>());
+      int start = when.start();
+      int end = when.end();
+
+      // Find the first busy time that ends at or after the new start; everything from there on
+      //     that starts at or before the new end touches the new time and is merged into it.
+      int first = firstEndingAtOrAfter(times, start);
+      int last = first;
+      while (last < times.size() && times.get(last)[0] <= end) {
+        start = Math.min(start, times.get(last)[0]);
+        end = Math.max(end, times.get(last)[1]);
+        last++;
+      }
+      times.subList(first, last).clear();
+      times.add(first, new int[] {start, end});
+    }
+  }
+
+  /**
+   * Marks every one of {@code attendees} as free during {@code when}. This undoes a
+   *     {@code reserve} of the same range.
+   * Time Complexity: O(ln(n) + k) per attendee, where k is the number of busy times touched
+   */
+  public void release(Collection<String> attendees, TimeRange when) {
+    if (when.duration() <= 0) {
+      return;
+    }
+    for (String attendee : attendees) {
+      ArrayList<int[]> times = busyTimes.get(attendee);
+      if (times == null) {
+        continue;
+      }
+      int start = when.start();
+      int end = when.end();
+
+      int first = firstEndingAtOrAfter(times, start + 1);
+      int last = first;
+      ArrayList<int[]> leftovers = new ArrayList<>(2);
+      while (last < times.size() && times.get(last)[0] < end) {
+        int[] time = times.get(last);
+        if (time[0] < start) {
+          leftovers.add(new int[] {time[0], start});
+        }
+        if (time[1] > end) {
+          leftovers.add(new int[] {end, time[1]});
+        }
+        last++;
+      }
+      times.subList(first, last).clear();
+      times.addAll(first, leftovers);
+    }
+  }
+
+  /**
+   * Returns the index of the first busy time that ends at or after {@code point}.
+   * Time Complexity: O(ln(n))
+   */
+  private static int firstEndingAtOrAfter(ArrayList<int[]> times, int point) {
+    int left = 0;
+    int right = times.size();
+    while (left < right) {
+      int mid = left + (right - left) / 2;
+      if (times.get(mid)[1] < point) {
+        left = mid + 1;
+      } else {
+        right = mid;
+      }
+    }
+    return left;
+  }
+}
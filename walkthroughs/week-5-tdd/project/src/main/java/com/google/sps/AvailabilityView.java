@@ -0,0 +1,514 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A materialised view of the merged busy times of each attendee on each day: the times of their
+ *     events together with the minutes they are off work. The most recently used entries are
+ *     kept in memory; older ones spill to files in a local directory and are read back on their
+ *     next use. When the store changes, the entries of the attendees whose events changed are
+ *     retired and computed again from the store's index the next time they are asked for, so
+ *     queries against the current events never filter them.
+ *
+ * <p>The view's lock only guards its maps. Files are read and written, and the store's index is
+ *     built, outside of it, so lookups from many threads only wait for each other briefly.
+ *
+ * <p>The files only live as long as the view: they are deleted by {@code close} and nothing is
+ *     read from a directory the view didn't write itself.
+ */
+public final class AvailabilityView implements EventStore.Listener, AutoCloseable {
+  private final EventStore store;
+  private final WorkingHoursProfiles profiles;
+  private final Path spillDirectory;
+  private final int maxEntries;
+  private final int maxSpilledEntries;
+  // How many attendees' last changes are remembered before the older half is forgotten.
+  private final int maxChangedAttendees;
+
+  // Everything below is guarded by this.
+  private final LinkedHashMap<Key, DayEntry> entries;
+  private final LinkedHashMap<Key, Spilled> spilled;
+  // Entries pushed out of memory and files pushed off disk, waiting to be written or deleted
+  //     once the lock is released.
+  private final List<Map.Entry<Key, DayEntry>> toSpill = new ArrayList<>();
+  private final List<Spilled> toDelete = new ArrayList<>();
+  // The version of the store at the last change of each attendee's events. Entries computed
+  //     from an older version of the store are retired.
+  private final Map<String, Long> changedAt = new HashMap<>();
+  // Entries computed before this version are retired too; it stands in for the last changes
+  //     that were forgotten to keep changedAt small.
+  private long retiredBefore = 0;
+  // The store version every change up to which has been applied, the changes after it that have
+  //     been applied out of order, and the events of the store at that version, or null while
+  //     the store is ahead of the view.
+  private long appliedVersion;
+  private final TreeSet<Long> appliedAhead = new TreeSet<>();
+  private List<Event> currentEvents;
+  private boolean closed = false;
+  private long nextFileNumber = 0;
+  private long hits = 0;
+  private long diskHits = 0;
+  private long misses = 0;
+
+  /**
+   * Starts maintaining a view of {@code store}.
+   *
+   * @param store the events that make attendees busy
+   * @param profiles the working hours of the attendees, or null to only use events
+   * @param maxEntries how many entries to keep in memory
+   * @param spillDirectory an existing directory for the entries that don't fit in memory, or
+   *     null if {@code maxSpilledEntries} is 0
+   * @param maxSpilledEntries how many entries to keep on disk
+   */
+  public AvailabilityView(EventStore store, WorkingHoursProfiles profiles, int maxEntries,
+      Path spillDirectory, int maxSpilledEntries) {
+    if (maxEntries <= 0 || maxSpilledEntries < 0) {
+      throw new IllegalArgumentException("maxEntries must be positive and maxSpilledEntries "
+          + "cannot be negative");
+    }
+    if (spillDirectory == null && maxSpilledEntries > 0) {
+      throw new IllegalArgumentException("spillDirectory cannot be null when entries spill");
+    }
+    this.store = store;
+    this.profiles = profiles;
+    this.spillDirectory = spillDirectory;
+    this.maxEntries = maxEntries;
+    this.maxSpilledEntries = maxSpilledEntries;
+    this.maxChangedAttendees = Math.max(1024, 2 * (maxEntries + maxSpilledEntries));
+    this.entries = new LinkedHashMap<Key, DayEntry>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, DayEntry> eldest) {
+        if (size() <= AvailabilityView.this.maxEntries) {
+          return false;
+        }
+        if (AvailabilityView.this.maxSpilledEntries > 0) {
+          toSpill.add(eldest);
+        }
+        return true;
+      }
+    };
+    this.spilled = new LinkedHashMap<Key, Spilled>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Spilled> eldest) {
+        if (size() <= AvailabilityView.this.maxSpilledEntries) {
+          return false;
+        }
+        toDelete.add(eldest.getValue());
+        return true;
+      }
+    };
+
+    synchronized (this) {
+      // Changes made after this point are heard about, and the ones before it are in the events.
+      store.addListener(this);
+      appliedVersion = store.getVersion();
+      currentEvents = store.getEventsAt(appliedVersion);
+    }
+  }
+
+  public WorkingHoursProfiles getProfiles() {
+    return profiles;
+  }
+
+  /**
+   * Returns the minutes of {@code day} that each of {@code attendees} is busy or off work, in
+   *     the order of {@code attendees}, as of {@code events}. Returns null if {@code events}
+   *     aren't the events of the store that the view is up to date with, e.g. because the store
+   *     changed since they were read; the caller then has to work from the events themselves.
+   * Time Complexity: O(k) for k attendees whose entries are in memory, plus O(b) to read an
+   *     entry back from disk or to compute it from the store's index, where b is the number of
+   *     busy times of the attendee
+   */
+  public List<IntervalSet> getBusySets(Collection<Event> events,
+      Collection<String> attendees, LocalDate day) {
+    List<String> names = new ArrayList<>(attendees);
+    IntervalSet[] sets = new IntervalSet[names.size()];
+    WorkingHours[] hours = new WorkingHours[names.size()];
+    Spilled[] onDisk = new Spilled[names.size()];
+    long version;
+
+    // Answer what's in memory and claim the files of the rest.
+    synchronized (this) {
+      if (events == null || events != currentEvents) {
+        return null;
+      }
+      version = appliedVersion;
+      for (int i = 0; i < names.size(); i++) {
+        String attendee = names.get(i);
+        hours[i] = profiles == null ? null : profiles.get(attendee);
+        Key key = new Key(attendee, day);
+        DayEntry entry = entries.get(key);
+        if (entry != null && isCurrent(attendee, entry.computedAt, entry.hours, hours[i])) {
+          hits++;
+          sets[i] = entry.busy;
+          continue;
+        }
+        Spilled file = spilled.remove(key);
+        if (file != null) {
+          if (isCurrent(attendee, file.computedAt, file.hours, hours[i])) {
+            onDisk[i] = file;
+          } else {
+            toDelete.add(file);
+          }
+        }
+      }
+    }
+
+    // Read back or compute the rest without holding the lock.
+    long[] computedAt = new long[names.size()];
+    boolean[] found = new boolean[names.size()];
+    boolean[] fromDisk = new boolean[names.size()];
+    AvailabilityIndex index = null;
+    boolean complete = true;
+    for (int i = 0; i < names.size() && complete; i++) {
+      if (sets[i] != null) {
+        continue;
+      }
+      if (onDisk[i] != null) {
+        sets[i] = read(onDisk[i]);
+        computedAt[i] = onDisk[i].computedAt;
+        deleteQuietly(onDisk[i].file);
+        onDisk[i] = null;
+        if (sets[i] != null) {
+          found[i] = true;
+          fromDisk[i] = true;
+          continue;
+        }
+      }
+      if (index == null) {
+        index = store.getAvailabilityIndexAt(version);
+        if (index == null) {
+          // The store has moved on; the caller works from its events instead.
+          complete = false;
+          break;
+        }
+      }
+      IntervalSet busy = index.getBusySet(names.get(i));
+      if (hours[i] != null) {
+        busy = busy.union(profiles.offHours(names.get(i), day));
+      }
+      sets[i] = busy;
+      computedAt[i] = version;
+      found[i] = true;
+    }
+    for (Spilled file : onDisk) {
+      if (file != null) {
+        deleteQuietly(file.file);
+      }
+    }
+
+    // Keep what was read or computed, unless the attendee changed meanwhile.
+    synchronized (this) {
+      for (int i = 0; i < names.size(); i++) {
+        if (!found[i]) {
+          continue;
+        }
+        if (fromDisk[i]) {
+          diskHits++;
+        } else {
+          misses++;
+        }
+        String attendee = names.get(i);
+        WorkingHours currentHours = profiles == null ? null : profiles.get(attendee);
+        if (!closed && isCurrent(attendee, computedAt[i], hours[i], currentHours)) {
+          entries.put(new Key(attendee, day), new DayEntry(sets[i], computedAt[i], hours[i]));
+        }
+      }
+    }
+    flush();
+    return complete ? Arrays.asList(sets) : null;
+  }
+
+  /**
+   * Retires the entries of {@code attendees}. Entries remember the version of the store they
+   *     were computed from, so retiring them is one map update per attendee.
+   */
+  @Override
+  public synchronized void eventsChanged(long version, Set<String> attendees) {
+    if (version <= appliedVersion) {
+      return;
+    }
+    for (String attendee : attendees) {
+      changedAt.merge(attendee, version, Math::max);
+    }
+    if (changedAt.size() > maxChangedAttendees) {
+      forgetOlderChanges();
+    }
+
+    // Listeners can be called out of order by concurrent changes; the view only claims to be
+    //     current once every change up to the store's version has been applied.
+    appliedAhead.add(version);
+    while (!appliedAhead.isEmpty() && appliedAhead.first() == appliedVersion + 1) {
+      appliedVersion = appliedAhead.pollFirst();
+    }
+    currentEvents = store.getEventsAt(appliedVersion);
+  }
+
+  /**
+   * Returns the number of entries in memory.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns the number of entries on disk.
+   */
+  public synchronized int spilledSize() {
+    return spilled.size();
+  }
+
+  /**
+   * Returns the number of attendees whose last change the view remembers.
+   */
+  synchronized int changedAttendees() {
+    return changedAt.size();
+  }
+
+  /**
+   * Returns how many lookups were answered from memory, from disk, and by computing the entry,
+   *     in that order.
+   */
+  public synchronized long[] getLookupCounts() {
+    return new long[] {hits, diskHits, misses};
+  }
+
+  /**
+   * Stops following the store and deletes every file of the view.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      store.removeListener(this);
+      closed = true;
+      toDelete.addAll(spilled.values());
+      spilled.clear();
+      entries.clear();
+      toSpill.clear();
+      currentEvents = null;
+    }
+    flush();
+  }
+
+  /**
+   * Checks whether an entry computed from version {@code computedAt} of the store under
+   *     {@code hours} is still up to date. Profiles are compared by identity since replacing
+   *     one creates a new one.
+   */
+  private boolean isCurrent(String attendee, long computedAt, WorkingHours hours,
+      WorkingHours currentHours) {
+    return hours == currentHours && computedAt >= retiredBefore
+        && computedAt >= changedAt.getOrDefault(attendee, 0L);
+  }
+
+  /**
+   * Forgets the older half of the last changes and retires every entry computed before the
+   *     newest one forgotten. Entries of attendees that didn't change are retired with them,
+   *     which only costs computing them again.
+   */
+  private void forgetOlderChanges() {
+    long[] versions = new long[changedAt.size()];
+    int i = 0;
+    for (long version : changedAt.values()) {
+      versions[i++] = version;
+    }
+    Arrays.sort(versions);
+    long median = versions[versions.length / 2];
+    if (median == versions[0]) {
+      // Too many attendees changed at once to forget half of them; forget them all.
+      median = versions[versions.length - 1] + 1;
+    }
+    for (Iterator<Long> it = changedAt.values().iterator(); it.hasNext(); ) {
+      if (it.next() < median) {
+        it.remove();
+      }
+    }
+    retiredBefore = Math.max(retiredBefore, median);
+  }
+
+  /**
+   * Writes the entries pushed out of memory and deletes the files pushed off disk, outside of
+   *     the lock.
+   */
+  private void flush() {
+    List<Map.Entry<Key, DayEntry>> spilling;
+    List<Spilled> deleting;
+    long firstFileNumber;
+    synchronized (this) {
+      if (toSpill.isEmpty() && toDelete.isEmpty()) {
+        return;
+      }
+      spilling = new ArrayList<>(toSpill);
+      deleting = new ArrayList<>(toDelete);
+      toSpill.clear();
+      toDelete.clear();
+      firstFileNumber = nextFileNumber;
+      nextFileNumber += spilling.size();
+    }
+
+    for (Spilled file : deleting) {
+      deleteQuietly(file.file);
+    }
+    List<Map.Entry<Key, Spilled>> written = new ArrayList<>(spilling.size());
+    for (int i = 0; i < spilling.size(); i++) {
+      DayEntry entry = spilling.get(i).getValue();
+      Path file = spillDirectory.resolve("busy-" + (firstFileNumber + i) + ".bin");
+      if (write(file, entry.busy)) {
+        written.add(new HashMap.SimpleEntry<>(spilling.get(i).getKey(),
+            new Spilled(file, entry.computedAt, entry.hours)));
+      }
+    }
+
+    if (written.isEmpty()) {
+      return;
+    }
+    synchronized (this) {
+      for (Map.Entry<Key, Spilled> file : written) {
+        // A newer entry may have been computed while the file was written, or the view closed.
+        if (closed || entries.containsKey(file.getKey())) {
+          toDelete.add(file.getValue());
+        } else {
+          Spilled replaced = spilled.put(file.getKey(), file.getValue());
+          if (replaced != null) {
+            toDelete.add(replaced);
+          }
+        }
+      }
+    }
+    flush();
+  }
+
+  /**
+   * Writes busy times to {@code file}, or returns false if they couldn't be written; the entry
+   *     is computed again if it's needed.
+   */
+  private static boolean write(Path file, IntervalSet busy) {
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(file)))) {
+      out.writeInt(busy.size());
+      for (int i = 0; i < busy.size(); i++) {
+        out.writeShort(busy.start(i));
+        out.writeShort(busy.end(i));
+      }
+      return true;
+    } catch (IOException e) {
+      deleteQuietly(file);
+      return false;
+    }
+  }
+
+  /**
+   * Reads a spilled entry back, or returns null if its file can't be read.
+   */
+  private static IntervalSet read(Spilled onDisk) {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(onDisk.file)))) {
+      int size = in.readInt();
+      IntervalSet.Builder builder = new IntervalSet.Builder(size);
+      for (int i = 0; i < size; i++) {
+        builder.add(in.readUnsignedShort(), in.readUnsignedShort());
+      }
+      return builder.build();
+    } catch (IOException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      // Left behind in the spill directory; it is never read again.
+    }
+  }
+
+  /**
+   * Identifies the busy times of one attendee on one day.
+   */
+  private static final class Key {
+    private final String attendee;
+    private final LocalDate day;
+
+    Key(String attendee, LocalDate day) {
+      this.attendee = attendee;
+      this.day = day;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) other;
+      return attendee.equals(key.attendee) && day.equals(key.day);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(attendee, day);
+    }
+  }
+
+  /**
+   * Busy times in memory, with the version of the store and the working hours they were
+   *     computed from.
+   */
+  private static final class DayEntry {
+    private final IntervalSet busy;
+    private final long computedAt;
+    private final WorkingHours hours;
+
+    DayEntry(IntervalSet busy, long computedAt, WorkingHours hours) {
+      this.busy = busy;
+      this.computedAt = computedAt;
+      this.hours = hours;
+    }
+  }
+
+  /**
+   * Busy times on disk, with what they were computed from.
+   */
+  private static final class Spilled {
+    private final Path file;
+    private final long computedAt;
+    private final WorkingHours hours;
+
+    Spilled(Path file, long computedAt, WorkingHours hours) {
+      this.file = file;
+      this.computedAt = computedAt;
+      this.hours = hours;
+    }
+  }
+}
@@ -0,0 +1,98 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Counts how many people of a group are busy at every minute of the day. Each busy time adds one
+ *     at its start and removes one at its end in a difference array, and a single prefix sum then
+ *     gives the count of every minute.
+ */
+public final class BusyDensity {
+  private static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+
+  private BusyDensity() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns how many of {@code attendees} are busy at each minute of the day.
+   * Time Complexity: O(n + 1440) where n is the number of busy times of the attendees
+   *
+   * @param index the busy times of every attendee
+   * @param attendees the group to count; a person listed twice is counted once
+   * @return an array of 1440 counts, one per minute
+   */
+  public static int[] perMinute(AvailabilityIndex index, Collection<String> attendees) {
+    return perMinute(index, attendees, null, null);
+  }
+
+  /**
+   * Returns how many of {@code attendees} are busy at each minute of the day like
+   *     {@code perMinute(index, attendees)}, counting attendees as busy outside their working
+   *     hours on {@code date}.
+   *
+   * @param profiles the working hours of the attendees, or null for none
+   * @param date the day being counted; only used with {@code profiles}
+   */
+  public static int[] perMinute(AvailabilityIndex index, Collection<String> attendees,
+      WorkingHoursProfiles profiles, LocalDate date) {
+    boolean masked = profiles != null && !profiles.isEmpty();
+    int[] difference = new int[MINUTES_PER_DAY + 1];
+    for (String attendee : new LinkedHashSet<>(attendees)) {
+      List<int[]> busyTimes = masked
+          ? index.getBusySet(attendee).union(profiles.offHours(attendee, date)).toTimes()
+          : index.getBusyTimes(attendee);
+      // An attendee's busy times are disjoint, so they add at most one to any minute.
+      for (int[] busyTime : busyTimes) {
+        difference[busyTime[0]]++;
+        difference[busyTime[1]]--;
+      }
+    }
+
+    int[] counts = new int[MINUTES_PER_DAY];
+    int busy = 0;
+    for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+      busy += difference[minute];
+      counts[minute] = busy;
+    }
+    return counts;
+  }
+
+  /**
+   * Groups per-minute counts into buckets, keeping the highest count of each bucket.
+   * Time Complexity: O(1440)
+   *
+   * @param perMinute the counts returned by {@code perMinute}
+   * @param bucketMinutes the length of a bucket. Must divide the day evenly.
+   * @return one count per bucket
+   */
+  public static int[] bucket(int[] perMinute, int bucketMinutes) {
+    if (bucketMinutes <= 0 || perMinute.length % bucketMinutes != 0) {
+      throw new IllegalArgumentException("bucketMinutes must divide " + perMinute.length);
+    }
+
+    int[] buckets = new int[perMinute.length / bucketMinutes];
+    for (int minute = 0; minute < perMinute.length; minute++) {
+      int bucket = minute / bucketMinutes;
+      buckets[bucket] = Math.max(buckets[bucket], perMinute[minute]);
+    }
+    return buckets;
+  }
+}
@@ -0,0 +1,195 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read-only event that stores its attendees as a sorted array of IDs from an
+ *     {@code AttendeeDictionary} instead of a set of strings. Events with the same group of
+ *     attendees share one array, which keeps calendars of millions of events small.
+ */
+public final class CompactEvent {
+  private final String title;
+  private final TimeRange when;
+  private final int[] attendeeIds;
+  private final AttendeeDictionary dictionary;
+
+  /**
+   * Creates a new event.
+   *
+   * @param title The human-readable name for the event. Must be non-null.
+   * @param when The time when the event takes place. Must be non-null.
+   * @param attendees The collection of people attending the event. Must be non-null.
+   * @param dictionary The dictionary that assigns the IDs of the attendees. Must be non-null.
+   */
+  public CompactEvent(String title, TimeRange when, Collection<String> attendees,
+      AttendeeDictionary dictionary) {
+    if (title == null) {
+      throw new IllegalArgumentException("title cannot be null");
+    }
+
+    if (when == null) {
+      throw new IllegalArgumentException("when cannot be null");
+    }
+
+    if (attendees == null) {
+      throw new IllegalArgumentException("attendees cannot be null. Use empty array instead.");
+    }
+
+    if (dictionary == null) {
+      throw new IllegalArgumentException("dictionary cannot be null");
+    }
+
+    this.title = title;
+    this.when = when;
+    this.attendeeIds = dictionary.internGroup(attendees);
+    this.dictionary = dictionary;
+  }
+
+  /**
+   * Returns a compact copy of {@code event}.
+   */
+  public static CompactEvent of(Event event, AttendeeDictionary dictionary) {
+    return new CompactEvent(event.getTitle(), event.getWhen(), event.getAttendees(), dictionary);
+  }
+
+  /**
+   * Returns an {@code Event} with the same title, time and attendees.
+   */
+  public Event toEvent() {
+    return new Event(title, when, getAttendees());
+  }
+
+  /**
+   * Returns the human-readable name for this event.
+   */
+  public String getTitle() {
+    return title;
+  }
+
+  /**
+   * Returns the {@code TimeRange} for when this event occurs.
+   */
+  public TimeRange getWhen() {
+    return when;
+  }
+
+  /**
+   * Returns the number of attendees of this event.
+   */
+  public int numAttendees() {
+    return attendeeIds.length;
+  }
+
+  /**
+   * Returns the ID of the {@code i}th attendee, in ascending order of ID.
+   */
+  public int attendeeId(int i) {
+    return attendeeIds[i];
+  }
+
+  /**
+   * Checks whether this event shares an attendee with {@code sortedIds}, for example the
+   *     result of {@code AttendeeDictionary.lookupAll}.
+   * Time Complexity: O(n + m)
+   */
+  public boolean attendsAny(int[] sortedIds) {
+    int i = 0;
+    int j = 0;
+    while (i < attendeeIds.length && j < sortedIds.length) {
+      if (attendeeIds[i] == sortedIds[j]) {
+        return true;
+      } else if (attendeeIds[i] < sortedIds[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns a read-only view of the attendees of this event. Names are looked up in the
+   *     dictionary as the view is read, so nothing is copied.
+   */
+  public Set<String> getAttendees() {
+    return new AttendeeView();
+  }
+
+  @Override
+  public int hashCode() {
+    return title.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof CompactEvent)) {
+      return false;
+    }
+    CompactEvent that = (CompactEvent) other;
+    if (!title.equals(that.title) || !when.equals(that.when)) {
+      return false;
+    }
+    // IDs are only comparable within one dictionary.
+    return dictionary == that.dictionary
+        ? Arrays.equals(attendeeIds, that.attendeeIds)
+        : getAttendees().equals(that.getAttendees());
+  }
+
+  /**
+   * The names of the attendees, in ascending order of ID.
+   */
+  private final class AttendeeView extends AbstractSet<String> {
+    @Override
+    public int size() {
+      return attendeeIds.length;
+    }
+
+    @Override
+    public boolean contains(Object name) {
+      if (!(name instanceof String)) {
+        return false;
+      }
+      int id = dictionary.lookup((String) name);
+      return id >= 0 && Arrays.binarySearch(attendeeIds, id) >= 0;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+      return new Iterator<String>() {
+        private int next = 0;
+
+        @Override
+        public boolean hasNext() {
+          return next < attendeeIds.length;
+        }
+
+        @Override
+        public String next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          return dictionary.nameOf(attendeeIds[next++]);
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,229 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Explains who blocks a meeting. Candidate windows of the requested duration are laid on a grid
+ *     across the day and ranked by how many mandatory and then optional attendees are busy during
+ *     them; for the best few it lists those attendees and the events that keep them busy. Every
+ *     attendee has an {@code EventIntervalIndex}, so each window costs O(a*ln(n) + k) for a
+ *     attendees and k conflicting events, without rescanning the calendar. Given working hours,
+ *     attendees are also busy outside them; they are listed without an event for that.
+ */
+public final class ConflictExplainer {
+  public static final int DEFAULT_STEP_MINUTES = 15;
+
+  private static final EventIntervalIndex NO_EVENTS =
+      new EventIntervalIndex(Collections.<Event>emptyList());
+
+  private final Map<String, EventIntervalIndex> indexes = new HashMap<>();
+
+  /**
+   * Indexes the events of every attendee of {@code events}.
+   * Time Complexity: O(n*ln(n))
+   */
+  public ConflictExplainer(Collection<Event> events) {
+    Map<String, List<Event>> eventsByAttendee = new HashMap<>();
+    for (Event event : events) {
+      for (String attendee : event.getAttendees()) {
+        eventsByAttendee.computeIfAbsent(attendee, key -> new ArrayList<>()).add(event);
+      }
+    }
+    for (Map.Entry<String, List<Event>> entry : eventsByAttendee.entrySet()) {
+      indexes.put(entry.getKey(), new EventIntervalIndex(entry.getValue()));
+    }
+  }
+
+  /**
+   * Returns the {@code maxWindows} best windows for {@code request}, the ones with the fewest
+   *     busy mandatory attendees, then the fewest busy optional attendees, then the earliest.
+   *     Windows start every {@code stepMinutes} minutes.
+   * Time Complexity: O(w*(a*ln(n) + k)) to rank the w windows, where k is the number of events
+   *     reported
+   *
+   * @throws IllegalArgumentException if {@code stepMinutes} isn't positive
+   */
+  public List<Conflict> explain(MeetingRequest request, int maxWindows, int stepMinutes) {
+    return explain(request, maxWindows, stepMinutes, null, null);
+  }
+
+  /**
+   * Returns the {@code maxWindows} best windows for {@code request} like
+   *     {@code explain(request, maxWindows, stepMinutes)}, treating attendees as busy outside
+   *     their working hours on {@code date}.
+   *
+   * @param profiles the working hours of the attendees, or null for none
+   * @param date the day being scheduled; only used with {@code profiles}
+   * @throws IllegalArgumentException if {@code stepMinutes} isn't positive
+   */
+  public List<Conflict> explain(MeetingRequest request, int maxWindows, int stepMinutes,
+      WorkingHoursProfiles profiles, LocalDate date) {
+    if (stepMinutes <= 0) {
+      throw new IllegalArgumentException("stepMinutes must be positive");
+    }
+    List<Conflict> conflicts = new ArrayList<>();
+    long duration = request.getDuration();
+    if (duration <= 0 || duration > TimeRange.WHOLE_DAY.duration() || maxWindows <= 0) {
+      return conflicts;
+    }
+    Map<String, IntervalSet> offHours = offHours(request, profiles, date);
+
+    // Rank the windows by counting busy attendees, which needs no event lists.
+    List<int[]> ranked = new ArrayList<>();
+    int lastStart = TimeRange.WHOLE_DAY.end() - (int) duration;
+    for (int start = TimeRange.START_OF_DAY; start <= lastStart; start += stepMinutes) {
+      int end = start + (int) duration;
+      ranked.add(new int[] {start, countBusy(request.getAttendees(), start, end, offHours),
+          countBusy(request.getOptionalAttendees(), start, end, offHours)});
+    }
+    ranked.sort(Comparator.<int[]>comparingInt(window -> window[1])
+        .thenComparingInt(window -> window[2])
+        .thenComparingInt(window -> window[0]));
+
+    // Then list who and what blocks the best windows.
+    for (int[] window : ranked.subList(0, Math.min(maxWindows, ranked.size()))) {
+      conflicts.add(explainWindow(request, window[0], window[0] + (int) duration, offHours));
+    }
+    return conflicts;
+  }
+
+  /**
+   * Returns who is busy during [start, end) among the attendees of {@code request} and why.
+   * Time Complexity: O(a*ln(n) + k)
+   */
+  public Conflict explainWindow(MeetingRequest request, int start, int end) {
+    return explainWindow(request, start, end, Collections.<String, IntervalSet>emptyMap());
+  }
+
+  private Conflict explainWindow(MeetingRequest request, int start, int end,
+      Map<String, IntervalSet> offHours) {
+    Set<Event> events = new LinkedHashSet<>();
+    List<String> busyMandatory =
+        busyAttendees(request.getAttendees(), start, end, offHours, events);
+    List<String> busyOptional =
+        busyAttendees(request.getOptionalAttendees(), start, end, offHours, events);
+    return new Conflict(TimeRange.fromStartEnd(start, end, false), busyMandatory, busyOptional,
+        new ArrayList<>(events));
+  }
+
+  /**
+   * Returns the minutes of {@code date} that each attendee of {@code request} with working hours
+   *     is off work.
+   */
+  private static Map<String, IntervalSet> offHours(MeetingRequest request,
+      WorkingHoursProfiles profiles, LocalDate date) {
+    if (profiles == null || profiles.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Map<String, IntervalSet> offHours = new HashMap<>();
+    for (Collection<String> attendees
+        : Arrays.asList(request.getAttendees(), request.getOptionalAttendees())) {
+      for (String attendee : attendees) {
+        IntervalSet mask = profiles.offHours(attendee, date);
+        if (!mask.isEmpty()) {
+          offHours.put(attendee, mask);
+        }
+      }
+    }
+    return offHours;
+  }
+
+  private boolean isBusy(String attendee, int start, int end,
+      Map<String, IntervalSet> offHours) {
+    IntervalSet mask = offHours.get(attendee);
+    return (mask != null && mask.overlaps(start, end))
+        || indexes.getOrDefault(attendee, NO_EVENTS).isBusy(start, end);
+  }
+
+  private int countBusy(Collection<String> attendees, int start, int end,
+      Map<String, IntervalSet> offHours) {
+    int busy = 0;
+    for (String attendee : attendees) {
+      if (isBusy(attendee, start, end, offHours)) {
+        busy++;
+      }
+    }
+    return busy;
+  }
+
+  private List<String> busyAttendees(Collection<String> attendees, int start, int end,
+      Map<String, IntervalSet> offHours, Set<Event> events) {
+    List<String> busy = new ArrayList<>();
+    for (String attendee : attendees) {
+      List<Event> overlapping = indexes.getOrDefault(attendee, NO_EVENTS).overlapping(start, end);
+      IntervalSet mask = offHours.get(attendee);
+      if (!overlapping.isEmpty() || (mask != null && mask.overlaps(start, end))) {
+        busy.add(attendee);
+        events.addAll(overlapping);
+      }
+    }
+    Collections.sort(busy);
+    return busy;
+  }
+
+  /**
+   * One candidate window and what stands in its way.
+   */
+  public static final class Conflict {
+    private final TimeRange when;
+    private final List<String> mandatory;
+    private final List<String> optional;
+    private final List<Event> events;
+
+    Conflict(TimeRange when, List<String> mandatory, List<String> optional, List<Event> events) {
+      this.when = when;
+      this.mandatory = mandatory;
+      this.optional = optional;
+      this.events = events;
+    }
+
+    public TimeRange getWhen() {
+      return when;
+    }
+
+    /**
+     * Returns the mandatory attendees that are busy during the window, sorted by name.
+     */
+    public List<String> getMandatory() {
+      return Collections.unmodifiableList(mandatory);
+    }
+
+    /**
+     * Returns the optional attendees that are busy during the window, sorted by name.
+     */
+    public List<String> getOptional() {
+      return Collections.unmodifiableList(optional);
+    }
+
+    /**
+     * Returns the events that keep those attendees busy, each listed once.
+     */
+    public List<Event> getEvents() {
+      return Collections.unmodifiableList(events);
+    }
+  }
+}
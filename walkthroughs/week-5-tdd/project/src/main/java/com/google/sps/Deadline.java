@@ -0,0 +1,95 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time by which a query must finish, which can also be cancelled early. Long-running
+ *     work calls {@code check} between phases and stops by throwing
+ *     {@code DeadlineExceededException} once the deadline has passed or been cancelled.
+ */
+public final class Deadline {
+  /**
+   * A deadline that never expires and can't be cancelled.
+   */
+  public static final Deadline NONE = new Deadline(Long.MAX_VALUE);
+
+  private final long deadlineNanos;
+  private volatile boolean cancelled = false;
+
+  private Deadline(long deadlineNanos) {
+    this.deadlineNanos = deadlineNanos;
+  }
+
+  /**
+   * Returns a deadline {@code timeout} from now.
+   *
+   * @throws IllegalArgumentException if {@code timeout} is negative
+   */
+  public static Deadline after(long timeout, TimeUnit unit) {
+    if (timeout < 0) {
+      throw new IllegalArgumentException("timeout cannot be negative");
+    }
+    return new Deadline(System.nanoTime() + unit.toNanos(timeout));
+  }
+
+  /**
+   * Makes every later {@code check} fail, for example because the client went away.
+   */
+  public void cancel() {
+    if (this != NONE) {
+      cancelled = true;
+    }
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Checks whether the deadline has passed or been cancelled.
+   */
+  public boolean isExpired() {
+    return cancelled || (this != NONE && System.nanoTime() - deadlineNanos >= 0);
+  }
+
+  /**
+   * Returns the time left in milliseconds, which is 0 once the deadline has expired.
+   */
+  public long remainingMillis() {
+    if (this == NONE) {
+      return Long.MAX_VALUE;
+    }
+    if (cancelled) {
+      return 0;
+    }
+    return Math.max(TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()), 0);
+  }
+
+  /**
+   * Throws if the deadline has passed or been cancelled.
+   * Time Complexity: O(1)
+   *
+   * @param phase what was about to run, for the exception message
+   * @throws DeadlineExceededException if the work should stop
+   */
+  public void check(String phase) {
+    if (isExpired()) {
+      throw new DeadlineExceededException(
+          (cancelled ? "cancelled" : "deadline exceeded") + " before " + phase);
+    }
+  }
+}
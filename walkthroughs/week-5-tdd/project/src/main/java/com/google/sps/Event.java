@@ -27,6 +27,9 @@ public final class Event {
   private final String title;
   private final TimeRange when;
   private final Set<String> attendees = new HashSet<>();
+  // A read-only view of attendees, created once so getAttendees doesn't allocate. Transient so
+  //     that Gson leaves it out of the JSON.
+  private final transient Set<String> attendeesView = Collections.unmodifiableSet(attendees);
 
   /**
    * Creates a new event.
@@ -73,7 +76,7 @@ public final class Event {
   public Set<String> getAttendees() {
     // Return the attendees as an unmodifiable set so that the caller can't change our
     // internal data.
-    return Collections.unmodifiableSet(attendees);
+    return attendeesView;
   }
 
   @Override
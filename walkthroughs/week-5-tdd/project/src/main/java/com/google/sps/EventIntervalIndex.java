@@ -0,0 +1,185 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A static index of events by time that finds the events overlapping a window in O(log n + k),
+ *     where k is the number of events found. An event [s, e) overlaps a window [start, end)
+ *     either because it is in progress at {@code start}, which a centered interval tree answers,
+ *     or because it starts inside the window, which a binary search over the starts answers. The
+ *     two cases never report the same event.
+ */
+public final class EventIntervalIndex {
+  private final Event[] byStart;
+  private final int[] starts;
+  private final Node root;
+
+  /**
+   * Indexes every event of {@code events} that lasts at least a minute.
+   * Time Complexity: O(n*ln(n))
+   */
+  public EventIntervalIndex(Collection<Event> events) {
+    List<Event> nonEmpty = new ArrayList<>(events.size());
+    for (Event event : events) {
+      if (event.getWhen().duration() > 0) {
+        nonEmpty.add(event);
+      }
+    }
+    byStart = nonEmpty.toArray(new Event[nonEmpty.size()]);
+    Arrays.sort(byStart, Comparator.comparing(Event::getWhen, TimeRange.ORDER_BY_START));
+    starts = new int[byStart.length];
+    for (int i = 0; i < byStart.length; i++) {
+      starts[i] = byStart[i].getWhen().start();
+    }
+    root = Node.build(byStart, 0, byStart.length);
+  }
+
+  public int size() {
+    return byStart.length;
+  }
+
+  /**
+   * Returns the events that take place during at least one minute of [start, end).
+   * Time Complexity: O(ln(n) + k)
+   */
+  public List<Event> overlapping(int start, int end) {
+    List<Event> found = new ArrayList<>();
+    if (start >= end) {
+      return found;
+    }
+    // Events in progress at start: they started at or before it and end after it.
+    for (Node node = root; node != null; ) {
+      if (start < node.center) {
+        for (Event event : node.byStart) {
+          if (event.getWhen().start() > start) {
+            break;
+          }
+          found.add(event);
+        }
+        node = node.left;
+      } else {
+        for (Event event : node.byEndDescending) {
+          if (event.getWhen().end() <= start) {
+            break;
+          }
+          found.add(event);
+        }
+        node = node.right;
+      }
+    }
+    // Events that start inside the window, after its first minute.
+    for (int i = firstStartAfter(start); i < starts.length && starts[i] < end; i++) {
+      found.add(byStart[i]);
+    }
+    return found;
+  }
+
+  /**
+   * Checks whether any event takes place during [start, end).
+   * Time Complexity: O(ln(n))
+   */
+  public boolean isBusy(int start, int end) {
+    if (start >= end) {
+      return false;
+    }
+    int next = firstStartAfter(start);
+    if (next < starts.length && starts[next] < end) {
+      return true;
+    }
+    for (Node node = root; node != null; node = start < node.center ? node.left : node.right) {
+      if (start < node.center
+          ? node.byStart[0].getWhen().start() <= start
+          : node.byEndDescending[0].getWhen().end() > start) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int firstStartAfter(int point) {
+    int left = 0;
+    int right = starts.length;
+    while (left < right) {
+      int mid = left + (right - left) / 2;
+      if (starts[mid] <= point) {
+        left = mid + 1;
+      } else {
+        right = mid;
+      }
+    }
+    return left;
+  }
+
+  /**
+   * A node of the centered interval tree. It keeps the events that are in progress at its
+   *     center; events that end by the center go to the left, events that start after it to the
+   *     right.
+   */
+  private static final class Node {
+    private final int center;
+    private final Event[] byStart;
+    private final Event[] byEndDescending;
+    private final Node left;
+    private final Node right;
+
+    private Node(int center, Event[] byStart, Event[] byEndDescending, Node left, Node right) {
+      this.center = center;
+      this.byStart = byStart;
+      this.byEndDescending = byEndDescending;
+      this.left = left;
+      this.right = right;
+    }
+
+    /**
+     * Builds the tree of {@code sorted[from, to)}, which is sorted by start. The center is the
+     *     start of the median event, so each side gets at most half of the events and the tree
+     *     is O(ln(n)) deep.
+     */
+    static Node build(Event[] sorted, int from, int to) {
+      if (from >= to) {
+        return null;
+      }
+      int center = sorted[from + (to - from) / 2].getWhen().start();
+      List<Event> before = new ArrayList<>();
+      List<Event> during = new ArrayList<>();
+      List<Event> after = new ArrayList<>();
+      for (int i = from; i < to; i++) {
+        TimeRange when = sorted[i].getWhen();
+        if (when.end() <= center) {
+          before.add(sorted[i]);
+        } else if (when.start() > center) {
+          after.add(sorted[i]);
+        } else {
+          during.add(sorted[i]);
+        }
+      }
+
+      Event[] byStart = during.toArray(new Event[during.size()]);
+      Event[] byEndDescending = byStart.clone();
+      Arrays.sort(byEndDescending,
+          Comparator.comparing(Event::getWhen, TimeRange.ORDER_BY_END).reversed());
+      Event[] beforeArray = before.toArray(new Event[before.size()]);
+      Event[] afterArray = after.toArray(new Event[after.size()]);
+      return new Node(center, byStart, byEndDescending,
+          build(beforeArray, 0, beforeArray.length), build(afterArray, 0, afterArray.length));
+    }
+  }
+}
@@ -0,0 +1,264 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The events the scheduler answers queries against. The store is safe to use from many threads.
+ *     Readers get an immutable snapshot that is only rebuilt after the store changes, so queries
+ *     between changes all see the same collection. Listeners are told which attendees every
+ *     change affects.
+ */
+public final class EventStore {
+  /**
+   * Hears about every change to a store.
+   */
+  public interface Listener {
+    /**
+     * Called after the store changed, outside of its lock, with every attendee of the events
+     *     that were added or removed. Listeners must return quickly since the change that caused
+     *     the call waits for them.
+     *
+     * @param version the version of the store right after the change
+     * @param attendees the attendees whose busy times may have changed
+     */
+    void eventsChanged(long version, Set<String> attendees);
+  }
+
+  /**
+   * The events of a store together with the version they are the events of.
+   */
+  public static final class VersionedEvents {
+    private final long version;
+    private final List<Event> events;
+
+    private VersionedEvents(long version, List<Event> events) {
+      this.version = version;
+      this.events = events;
+    }
+
+    public long getVersion() {
+      return version;
+    }
+
+    /**
+     * Returns the same immutable snapshot {@code getEvents()} returned at this version.
+     */
+    public List<Event> getEvents() {
+      return events;
+    }
+  }
+
+  private static final EventStore INSTANCE = new EventStore(Arrays.asList(Events.events));
+
+  private final ArrayList<Event> events = new ArrayList<>();
+  private long version = 0;
+  private List<Event> snapshot = null;
+  private AvailabilityIndex index = null;
+  private ConflictExplainer explainer = null;
+  private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+  public EventStore() {}
+
+  public EventStore(Collection<Event> events) {
+    this.events.addAll(events);
+  }
+
+  /**
+   * Returns the store used by the servlets, which starts out with {@code Events.events}.
+   */
+  public static EventStore getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Adds one event to the store.
+   */
+  public void add(Event event) {
+    addAll(Collections.singletonList(event));
+  }
+
+  /**
+   * Adds a batch of events to the store at once.
+   * Time Complexity: O(k) where k is the number of events added
+   */
+  public void addAll(Collection<Event> newEvents) {
+    long newVersion;
+    synchronized (this) {
+      if (newEvents.isEmpty()) {
+        return;
+      }
+      events.addAll(newEvents);
+      changed();
+      newVersion = version;
+    }
+    notifyListeners(newVersion, newEvents);
+  }
+
+  /**
+   * Removes one event from the store.
+   * Time Complexity: O(n)
+   *
+   * @return whether the event was in the store
+   */
+  public boolean remove(Event event) {
+    long newVersion;
+    synchronized (this) {
+      if (!events.remove(event)) {
+        return false;
+      }
+      changed();
+      newVersion = version;
+    }
+    notifyListeners(newVersion, Collections.singletonList(event));
+    return true;
+  }
+
+  /**
+   * Returns an immutable snapshot of every event in the store.
+   * Time Complexity: O(1) if the store hasn't changed since the last call, otherwise O(n)
+   */
+  public synchronized List<Event> getEvents() {
+    if (snapshot == null) {
+      snapshot = Collections.unmodifiableList(new ArrayList<>(events));
+    }
+    return snapshot;
+  }
+
+  /**
+   * Returns the events in the store and the version they belong to, read together so that a
+   *     change can't slip in between reading one and the other.
+   * Time Complexity: same as {@code getEvents()}
+   */
+  public synchronized VersionedEvents getVersionedEvents() {
+    return new VersionedEvents(version, getEvents());
+  }
+
+  /**
+   * Returns an index of the busy times of every attendee in the store. The index is shared, so
+   *     callers that want to reserve times in it must {@code copy()} it first.
+   * Time Complexity: O(1) if the store hasn't changed since the last call, otherwise O(n*ln(n))
+   */
+  public synchronized AvailabilityIndex getAvailabilityIndex() {
+    if (index == null) {
+      index = AvailabilityIndex.build(getEvents());
+    }
+    return index;
+  }
+
+  /**
+   * Returns the events of the store if it is still at {@code expectedVersion}, otherwise null.
+   */
+  synchronized List<Event> getEventsAt(long expectedVersion) {
+    return version == expectedVersion ? getEvents() : null;
+  }
+
+  /**
+   * Returns the index of the store if it is still at {@code expectedVersion}, otherwise null.
+   */
+  synchronized AvailabilityIndex getAvailabilityIndexAt(long expectedVersion) {
+    return version == expectedVersion ? getAvailabilityIndex() : null;
+  }
+
+  /**
+   * Returns a per-attendee interval index of the events in the store.
+   * Time Complexity: O(1) if the store hasn't changed since the last call, otherwise O(n*ln(n))
+   */
+  public synchronized ConflictExplainer getConflictExplainer() {
+    if (explainer == null) {
+      explainer = new ConflictExplainer(getEvents());
+    }
+    return explainer;
+  }
+
+  /**
+   * Captures the events in the store and their index so they can be saved.
+   * Time Complexity: O(n) plus building the index if the store changed since it was last built
+   */
+  public synchronized SchedulerSnapshot snapshot() {
+    return SchedulerSnapshot.of(version, getEvents(), getAvailabilityIndex());
+  }
+
+  /**
+   * Replaces every event in the store with the ones in {@code saved} and adopts its index
+   *     instead of building a new one.
+   * Time Complexity: O(n)
+   */
+  public void restore(SchedulerSnapshot saved) {
+    List<Event> replaced;
+    long newVersion;
+    synchronized (this) {
+      replaced = new ArrayList<>(events);
+      events.clear();
+      events.addAll(saved.getEvents());
+      changed();
+      snapshot = saved.getEvents();
+      index = saved.getIndex();
+      newVersion = version;
+    }
+    replaced.addAll(saved.getEvents());
+    notifyListeners(newVersion, replaced);
+  }
+
+  /**
+   * Calls {@code listener} after every change from now on.
+   */
+  public void addListener(Listener listener) {
+    listeners.add(listener);
+  }
+
+  public void removeListener(Listener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Returns a number that changes every time the store changes.
+   */
+  public synchronized long getVersion() {
+    return version;
+  }
+
+  public synchronized int size() {
+    return events.size();
+  }
+
+  private void notifyListeners(long newVersion, Collection<Event> changedEvents) {
+    if (listeners.isEmpty()) {
+      return;
+    }
+    Set<String> attendees = new HashSet<>();
+    for (Event event : changedEvents) {
+      attendees.addAll(event.getAttendees());
+    }
+    for (Listener listener : listeners) {
+      listener.eventsChanged(newVersion, attendees);
+    }
+  }
+
+  private void changed() {
+    version++;
+    snapshot = null;
+    index = null;
+    explainer = null;
+  }
+}
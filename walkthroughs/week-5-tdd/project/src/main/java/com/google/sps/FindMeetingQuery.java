@@ -20,20 +20,73 @@ import com.google.sps.comparator.SortEventsByTime;
 import com.google.sps.comparator.SortEventsByNumAttendees;
 import com.google.sps.comparator.SortTimesAscending;
 import com.google.sps.filterAndSort.FilterAndSort;
+import com.google.sps.metrics.SchedulerMetrics;
+import com.google.sps.metrics.SchedulerMetrics.Phase;
 import com.google.sps.predicate.IncludeIf;
 import com.google.sps.predicate.IsIntersection;
 import com.google.sps.TimeRange;
 import java.lang.Math;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator; 
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Predicate;
 
-public final class FindMeetingQuery {
+public final class FindMeetingQuery implements MeetingQueryEngine {
+  // When attendees work, or null to treat the whole day as free for everyone.
+  private final WorkingHoursProfiles profiles;
+  private final LocalDate date;
+  // Where to read merged busy times from instead of the events, or null.
+  private final AvailabilityView view;
+
+  /**
+   * Creates a query that treats the whole day as free for every attendee 
+   *     outside their events.
+   */
+  public FindMeetingQuery() {
+    this((WorkingHoursProfiles) null, null);
+  }
+
+  /**
+   * Creates a query that also treats attendees as busy outside their working
+   *     hours on {@code date}.
+   *
+   * @param profiles the working hours of the attendees, or null for none
+   * @param date the day being scheduled
+   */
+  public FindMeetingQuery(WorkingHoursProfiles profiles, LocalDate date) {
+    if (profiles != null && date == null) {
+      throw new IllegalArgumentException("date cannot be null when profiles are given");
+    }
+    this.profiles = profiles;
+    this.date = date;
+    this.view = null;
+  }
+
+  /**
+   * Creates a query that reads the busy times of attendees on {@code date}
+   *     from {@code view}, working hours included, whenever it is asked about
+   *     the events the view is up to date with. Other events are filtered as
+   *     usual, with the working hours of the view's profiles.
+   *
+   * @param view the materialised busy times of the attendees
+   * @param date the day being scheduled
+   */
+  public FindMeetingQuery(AvailabilityView view, LocalDate date) {
+    if (view == null || date == null) {
+      throw new IllegalArgumentException("view and date cannot be null");
+    }
+    this.profiles = view.getProfiles();
+    this.date = date;
+    this.view = view;
+  }
+
   /**
    * Turns an ordered Collection of events (by time) into an ArrayList of an 
    *    array that contains the start and end time.
@@ -47,7 +100,9 @@ public final class FindMeetingQuery {
    *     and end time in minutes
    * @return An ArrayList that contains an array of start and end times in 
    *     minutes, and will not have any events with the same start time.
+   * @deprecated Use {@code IntervalSet.fromEvents}, which accepts events in any order.
    */
+  @Deprecated
   public static ArrayList<int[]> eventToFilteredTimeMinutes(ArrayList<Event> 
       eventsArray) throws Exception {
     ArrayList<int[]> eventTimesMinutes = new ArrayList<>();
@@ -140,7 +195,9 @@ public final class FindMeetingQuery {
    * @param duration the duration of time in minutes the meeting request lasts
    * @return an arraylist of times in minutes available whose duration are >= 
    *     duration.
+   * @deprecated Use {@code IntervalSet.gaps}.
    */
+  @Deprecated
   public ArrayList<TimeRange> timeRangeAvailable(ArrayList<int[]> timesMinutes, 
       int durationMinutes) {
     int startTimeMinutes = TimeRange.START_OF_DAY;
@@ -188,23 +245,30 @@ public final class FindMeetingQuery {
    *     are attending events
    * @param durationMeetingMinutes the duration of the meeting request in 
    *     minutes
+   * @deprecated Use {@code IntervalSet.union}, which merges sorted sets without re-sorting.
    */
+  @Deprecated
   public ArrayList<TimeRange> optionalAvailableTimeRanges(
       ArrayList<Event> optionalEvents, ArrayList<int[]> optionalTimesMinutes, 
       ArrayList<int[]> mandatoryTimesMinutes, int durationMeetingMinutes) 
       throws Exception {
+    SchedulerMetrics metrics = SchedulerMetrics.getInstance();
     ArrayList<int[]> allTimes = (ArrayList<int[]>) optionalTimesMinutes.clone();
     
+    long sortStart = metrics.startTimer();
     MergeSort<int[]> merge = new MergeSort<int[]>();
     if (mandatoryTimesMinutes.size() > 0) {
       allTimes.addAll(mandatoryTimesMinutes);
       merge.sort(allTimes, new SortTimesAscending());      
     }
+    metrics.recordPhase(Phase.SORT, sortStart);
 
     // Compare filtered events input to meeting request
     //    Find the time available for this meeting
+    long scanStart = metrics.startTimer();
     ArrayList<TimeRange> availableTimes = timeRangeAvailable(allTimes, 
         durationMeetingMinutes); 
+    metrics.recordPhase(Phase.SCAN, scanStart);
       
     return availableTimes;
   }  
@@ -212,13 +276,142 @@ public final class FindMeetingQuery {
   /**
    * Returns all possible time periods throughout the day when everybody 
    *    attending this meeting is available. 
-   * Time Complexity: O(n^2 * ln(n))
+   * Time Complexity: O(n * ln(n))
    * 
    * @param events All events that are occurring  
    * @param request The meeting that the user wants to create and find time for 
    * @return an array of TimeRange objects
    */
+  @Override
   public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) throws Exception {
+    return query(events, request, Deadline.NONE);
+  }
+
+  /**
+   * Same as {@code query(events, request)}, but gives up between phases once 
+   *     {@code deadline} has passed or been cancelled.
+   * Time Complexity: O(n * ln(n))
+   *
+   * @param events All events that are occurring  
+   * @param request The meeting that the user wants to create and find time for 
+   * @param deadline when to stop working on the request
+   * @return an array of TimeRange objects
+   * @throws DeadlineExceededException if the deadline expires before the query
+   *     finishes
+   */
+  public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request,
+      Deadline deadline) throws Exception {
+    SchedulerMetrics metrics = SchedulerMetrics.getInstance();
+    long queryStart = metrics.startTimer();
+    try {
+      return query(events, request, deadline, metrics);
+    } finally {
+      metrics.recordQuery(queryStart);
+    }
+  }
+
+  /**
+   * Same as {@code query(events, request)}, but reads the events in place 
+   *     from an off-heap store through one flyweight view, so no 
+   *     {@code Event} is created. Only the busy times of matching events are
+   *     copied onto the heap.
+   * Time Complexity: O(n + k * ln(k)) where k is the number of events of the
+   *     attendees
+   *
+   * @param events All events that are occurring
+   * @param request The meeting that the user wants to create and find time for
+   * @return the available time ranges in chronological order
+   */
+  public Collection<TimeRange> query(OffHeapEventStore events, MeetingRequest request) {
+    int durationMeetingMinutes = Math.toIntExact(request.getDuration());
+    if (durationMeetingMinutes > TimeRange.WHOLE_DAY.duration() || durationMeetingMinutes < 0) {
+      return new ArrayList<TimeRange>();
+    }
+    if (durationMeetingMinutes == 0) {
+      return new ArrayList<TimeRange>(Arrays.asList(TimeRange.WHOLE_DAY));
+    }
+
+    SchedulerMetrics metrics = SchedulerMetrics.getInstance();
+    AttendeeDictionary dictionary = events.getDictionary();
+    int[] mandatoryIds = dictionary.lookupAll(request.getAttendees());
+    OffHeapEventStore.EventView view = events.view();
+
+    if (request.getQuorum() > 0) {
+      // One growable list of packed busy times per mandatory attendee, in
+      //     the order of mandatoryIds. Attendees that never appear in the
+      //     store are free all day.
+      long[][] packed = new long[mandatoryIds.length][4];
+      int[] counts = new int[mandatoryIds.length];
+      long filterStart = metrics.startTimer();
+      for (int i = 0; i < view.size(); i++) {
+        view.moveTo(i);
+        if (view.duration() <= 0 || !view.attendsAny(mandatoryIds)) {
+          continue;
+        }
+        for (int j = 0; j < view.numAttendees(); j++) {
+          int k = Arrays.binarySearch(mandatoryIds, view.attendeeId(j));
+          if (k < 0) {
+            continue;
+          }
+          if (counts[k] == packed[k].length) {
+            packed[k] = Arrays.copyOf(packed[k], 2 * counts[k]);
+          }
+          packed[k][counts[k]++] = IntervalSet.pack(view.start(), view.end());
+        }
+      }
+      metrics.recordPhase(Phase.FILTER, filterStart);
+
+      List<IntervalSet> busyPerAttendee = new ArrayList<>(request.getAttendees().size());
+      for (String attendee : request.getAttendees()) {
+        int k = Arrays.binarySearch(mandatoryIds, dictionary.lookup(attendee));
+        IntervalSet busy =
+            k < 0 ? IntervalSet.EMPTY : IntervalSet.fromPacked(packed[k], counts[k]);
+        busyPerAttendee.add(withOffHours(busy, attendee));
+      }
+      return quorumTimeRanges(busyPerAttendee, request.getQuorum(), durationMeetingMinutes);
+    }
+
+    int[] optionalIds = dictionary.lookupAll(request.getOptionalAttendees());
+    long[] mandatoryPacked = new long[16];
+    long[] optionalPacked = new long[16];
+    int numMandatory = 0;
+    int numOptional = 0;
+    long filterStart = metrics.startTimer();
+    for (int i = 0; i < view.size(); i++) {
+      view.moveTo(i);
+      if (view.duration() <= 0) {
+        continue;
+      }
+      if (view.attendsAny(mandatoryIds)) {
+        if (numMandatory == mandatoryPacked.length) {
+          mandatoryPacked = Arrays.copyOf(mandatoryPacked, 2 * numMandatory);
+        }
+        mandatoryPacked[numMandatory++] = IntervalSet.pack(view.start(), view.end());
+      }
+      if (view.attendsAny(optionalIds)) {
+        if (numOptional == optionalPacked.length) {
+          optionalPacked = Arrays.copyOf(optionalPacked, 2 * numOptional);
+        }
+        optionalPacked[numOptional++] = IntervalSet.pack(view.start(), view.end());
+      }
+    }
+    metrics.recordPhase(Phase.FILTER, filterStart);
+    metrics.recordEvents(2 * view.size(), numMandatory + numOptional);
+
+    long convertStart = metrics.startTimer();
+    IntervalSet mandatoryBusy = withOffHours(
+        IntervalSet.fromPacked(mandatoryPacked, numMandatory), request.getAttendees());
+    IntervalSet optionalBusy = withOffHours(
+        IntervalSet.fromPacked(optionalPacked, numOptional), request.getOptionalAttendees());
+    metrics.recordPhase(Phase.CONVERT, convertStart);
+    return availableTimeRanges(mandatoryBusy, optionalBusy, durationMeetingMinutes);
+  }
+
+  /**
+   * Runs the query while recording the time spent in each phase in {@code metrics}.
+   */
+  private Collection<TimeRange> query(Collection<Event> events, MeetingRequest request,
+      Deadline deadline, SchedulerMetrics metrics) throws Exception {
     // Check if duration of meeting in minutes is longer than a day or a 
     //     negative number.
     int durationMeetingMinutes = Math.toIntExact(request.getDuration());
@@ -233,55 +426,268 @@ public final class FindMeetingQuery {
       return new ArrayList<TimeRange>(Arrays.asList(wholeDay));
     }
     
+    if (view != null) {
+      Collection<TimeRange> fromView =
+          viewQuery(events, request, durationMeetingMinutes, deadline, metrics);
+      if (fromView != null) {
+        return fromView;
+      }
+    }
+
     Event[] eventsArray = new Event[events.size()];
     eventsArray = events.toArray(eventsArray);
 
     IncludeIf<Event> includeIf = new IncludeIf<Event>();
-    MergeSort<Event> merge = new MergeSort<Event>();
 
-    // filter and sort the events that mandatory attendees are attending
+    if (request.getQuorum() > 0) {
+      return quorumQuery(eventsArray, request, durationMeetingMinutes, deadline, metrics);
+    }
+
+    deadline.check("filtering mandatory events");
+
+    // Filter the events that mandatory attendees are attending
     Predicate<Event> isMandatoryIntersection = new IsIntersection
         (request.getAttendees());
-    
-    // Filter
+    long filterStart = metrics.startTimer();
     ArrayList<Event> filteredMandatoryEvents = includeIf.includeIf
         (eventsArray, isMandatoryIntersection);
+    metrics.recordPhase(Phase.FILTER, filterStart);
+    metrics.recordEvents(eventsArray.length, filteredMandatoryEvents.size());
 
-    // Sort
-    merge.sort(filteredMandatoryEvents, new SortEventsByTime());
-
-    ArrayList<int[]> mandatoryTimesMinutes = eventToFilteredTimeMinutes(
-        filteredMandatoryEvents);  
+    // Turn them into a sorted set of busy times
+    deadline.check("converting mandatory events");
+    long convertStart = metrics.startTimer();
+    IntervalSet mandatoryBusy = withOffHours(
+        IntervalSet.fromEvents(filteredMandatoryEvents), request.getAttendees());
+    metrics.recordPhase(Phase.CONVERT, convertStart);
     
-    // filter and sort the events that optional attendees are attending  
+    // Filter the events that optional attendees are attending  
     Predicate<Event> isOptionalIntersection = new IsIntersection
         (request.getOptionalAttendees());   
-
-    // Filter
+    deadline.check("filtering optional events");
+    filterStart = metrics.startTimer();
     ArrayList<Event> filteredOptionalEvents = includeIf.includeIf
         (eventsArray, isOptionalIntersection);
+    metrics.recordPhase(Phase.FILTER, filterStart);
+    metrics.recordEvents(eventsArray.length, filteredOptionalEvents.size());
 
-    // Sort
-    merge.sort(filteredOptionalEvents, new SortEventsByTime()); 
-      
-    ArrayList<int[]> optionalTimes = eventToFilteredTimeMinutes(
-        filteredOptionalEvents); 
-
-    ArrayList<TimeRange> availableOptionalTimes = optionalAvailableTimeRanges
-        (filteredOptionalEvents, optionalTimes, mandatoryTimesMinutes, 
-        durationMeetingMinutes);
-
-    // If there are no available times for all mandatory and optional attendees
-    //     then return all of the available times in minutes for mandatory 
-    //     attendees.
-    if (availableOptionalTimes.size() == 0 && mandatoryTimesMinutes.size() > 0) {
-      ArrayList<TimeRange> availableMandatoryTimes = timeRangeAvailable
-          (mandatoryTimesMinutes, durationMeetingMinutes);
-      if (availableMandatoryTimes.size() > 0) {
-        return availableMandatoryTimes;
+    // Turn them into a sorted set of busy times
+    deadline.check("converting optional events");
+    convertStart = metrics.startTimer();
+    IntervalSet optionalBusy = withOffHours(
+        IntervalSet.fromEvents(filteredOptionalEvents), request.getOptionalAttendees());
+    metrics.recordPhase(Phase.CONVERT, convertStart);
+
+    deadline.check("scanning for available times");
+    return availableTimeRanges(mandatoryBusy, optionalBusy, durationMeetingMinutes);
+  }
+
+  /**
+   * Runs a query for a meeting that only a quorum of its attendees need to 
+   *     attend.
+   */
+  private Collection<TimeRange> quorumQuery(Event[] eventsArray, MeetingRequest request,
+      int durationMeetingMinutes, Deadline deadline, SchedulerMetrics metrics) {
+    deadline.check("filtering quorum events");
+    long filterStart = metrics.startTimer();
+    ArrayList<Event> filteredEvents = new IncludeIf<Event>().includeIf(eventsArray, 
+        new IsIntersection(request.getAttendees()));
+    metrics.recordPhase(Phase.FILTER, filterStart);
+    metrics.recordEvents(eventsArray.length, filteredEvents.size());
+
+    // Turn them into the busy times of each attendee
+    deadline.check("converting quorum events");
+    long convertStart = metrics.startTimer();
+    Map<String, List<TimeRange>> timesByAttendee = new HashMap<>();
+    for (String attendee : request.getAttendees()) {
+      timesByAttendee.put(attendee, new ArrayList<TimeRange>());
+    }
+    for (Event event : filteredEvents) {
+      for (String attendee : event.getAttendees()) {
+        List<TimeRange> times = timesByAttendee.get(attendee);
+        if (times != null) {
+          times.add(event.getWhen());
+        }
+      }
+    }
+    List<IntervalSet> busyPerAttendee = new ArrayList<>(timesByAttendee.size());
+    for (Map.Entry<String, List<TimeRange>> entry : timesByAttendee.entrySet()) {
+      busyPerAttendee.add(withOffHours(IntervalSet.of(entry.getValue()), entry.getKey()));
+    }
+    metrics.recordPhase(Phase.CONVERT, convertStart);
+
+    deadline.check("scanning for quorum times");
+    return quorumTimeRanges(busyPerAttendee, request.getQuorum(), durationMeetingMinutes);
+  }
+
+  /**
+   * Answers a request from the busy times in the view without looking at a
+   *     single event, or returns null if the view isn't up to date with
+   *     {@code events}.
+   */
+  private Collection<TimeRange> viewQuery(Collection<Event> events, MeetingRequest request,
+      int durationMeetingMinutes, Deadline deadline, SchedulerMetrics metrics) {
+    deadline.check("reading the availability view");
+    long convertStart = metrics.startTimer();
+    List<IntervalSet> mandatory = view.getBusySets(events, request.getAttendees(), date);
+    if (mandatory == null) {
+      return null;
+    }
+    if (request.getQuorum() > 0) {
+      metrics.recordPhase(Phase.CONVERT, convertStart);
+      deadline.check("scanning for quorum times");
+      return quorumTimeRanges(mandatory, request.getQuorum(), durationMeetingMinutes);
+    }
+    List<IntervalSet> optional =
+        view.getBusySets(events, request.getOptionalAttendees(), date);
+    if (optional == null) {
+      return null;
+    }
+    // All-hands meetings have thousands of attendees, whose sets are merged in parallel.
+    IntervalSet mandatoryBusy = ParallelUnion.union(mandatory);
+    IntervalSet optionalBusy = ParallelUnion.union(optional);
+    metrics.recordPhase(Phase.CONVERT, convertStart);
+
+    deadline.check("scanning for available times");
+    return availableTimeRanges(mandatoryBusy, optionalBusy, durationMeetingMinutes);
+  }
+
+  /**
+   * Adds the minutes that {@code attendee} is off work to {@code busy}.
+   */
+  private IntervalSet withOffHours(IntervalSet busy, String attendee) {
+    if (profiles == null) {
+      return busy;
+    }
+    return busy.union(profiles.offHours(attendee, date));
+  }
+
+  /**
+   * Adds the minutes that any of {@code attendees} is off work to 
+   *     {@code busy}. The masks are cached, so this is one union per query.
+   */
+  private IntervalSet withOffHours(IntervalSet busy, Collection<String> attendees) {
+    if (profiles == null || profiles.isEmpty()) {
+      return busy;
+    }
+    return busy.union(profiles.offHours(attendees, date));
+  }
+
+  /**
+   * Returns every maximal time of at least {@code durationMeetingMinutes} in 
+   *     which at least {@code quorum} of the attendees are free. A single sweep 
+   *     over the sorted starts and ends of every busy time counts how many 
+   *     attendees are busy, so the cost doesn't depend on which attendees make
+   *     up the quorum.
+   * Time Complexity: O(n*ln(n)) where n is the number of busy times
+   *
+   * @param busyPerAttendee the busy times of each attendee, one set per 
+   *     attendee
+   * @param quorum how many attendees must be free
+   * @param durationMeetingMinutes the duration of the meeting request in 
+   *     minutes
+   * @return the available times in chronological order
+   */
+  public static TimeRanges quorumTimeRanges(List<IntervalSet> busyPerAttendee,
+      int quorum, int durationMeetingMinutes) {
+    SchedulerMetrics metrics = SchedulerMetrics.getInstance();
+    long scanStart = metrics.startTimer();
+    TimeRanges availableTimes = new TimeRanges();
+    int maxBusy = busyPerAttendee.size() - quorum;
+    if (maxBusy < 0) {
+      metrics.recordPhase(Phase.SCAN, scanStart);
+      return availableTimes;
+    }
+
+    // Each endpoint is packed as (minute << 1) | 1 for a start and 
+    //     minute << 1 for an end, so one sort orders them all by time.
+    int numEndpoints = 0;
+    for (IntervalSet busy : busyPerAttendee) {
+      numEndpoints += 2 * busy.size();
+    }
+    long[] endpoints = new long[numEndpoints];
+    int count = 0;
+    for (IntervalSet busy : busyPerAttendee) {
+      for (int i = 0; i < busy.size(); i++) {
+        endpoints[count++] = ((long) busy.start(i) << 1) | 1;
+        endpoints[count++] = (long) busy.end(i) << 1;
       }
     }
+    Arrays.sort(endpoints);
+
+    // Nobody is busy at the start of the day.
+    int numBusy = 0;
+    boolean enoughFree = true;
+    int windowStart = TimeRange.START_OF_DAY;
+    int i = 0;
+    while (i < numEndpoints) {
+      int time = (int) (endpoints[i] >> 1);
+      for (; i < numEndpoints && (int) (endpoints[i] >> 1) == time; i++) {
+        numBusy += (endpoints[i] & 1) == 1 ? 1 : -1;
+      }
+
+      if (enoughFree && numBusy > maxBusy) {
+        addWindow(windowStart, time, durationMeetingMinutes, availableTimes);
+        enoughFree = false;
+      } else if (!enoughFree && numBusy <= maxBusy) {
+        windowStart = time;
+        enoughFree = true;
+      }
+    }
+    if (enoughFree) {
+      addWindow(windowStart, TimeRange.END_OF_DAY + 1, durationMeetingMinutes, availableTimes);
+    }
+
+    metrics.recordPhase(Phase.SCAN, scanStart);
+    return availableTimes;
+  }
 
-    return availableOptionalTimes;
+  /**
+   * Adds [start, end) to {@code availableTimes} if it is long enough for the
+   *     meeting.
+   */
+  private static void addWindow(int start, int end, int durationMeetingMinutes,
+      TimeRanges availableTimes) {
+    if (end > start && end - start >= durationMeetingMinutes) {
+      availableTimes.add(start, end);
+    }
+  }
+
+  /**
+   * Returns the times available for a meeting given when its mandatory and 
+   *     optional attendees are busy. If no time works for everybody, the times
+   *     that work for the mandatory attendees are returned instead, as long as
+   *     the mandatory attendees are busy at least once.
+   * Time Complexity: O(n)
+   *
+   * @param mandatoryBusy when at least one mandatory attendee is busy
+   * @param optionalBusy when at least one optional attendee is busy
+   * @param durationMeetingMinutes the duration of the meeting request in 
+   *     minutes
+   * @return the available times in chronological order
+   */
+  public static TimeRanges availableTimeRanges(IntervalSet mandatoryBusy,
+      IntervalSet optionalBusy, int durationMeetingMinutes) {
+    SchedulerMetrics metrics = SchedulerMetrics.getInstance();
+    long scanStart = metrics.startTimer();
+    try {
+      TimeRanges availableOptionalTimes = 
+          mandatoryBusy.union(optionalBusy).gaps(durationMeetingMinutes);
+
+      // If there are no available times for all mandatory and optional 
+      //     attendees then return all of the available times for mandatory 
+      //     attendees.
+      if (availableOptionalTimes.isEmpty() && !mandatoryBusy.isEmpty()) {
+        TimeRanges availableMandatoryTimes = 
+            mandatoryBusy.gaps(durationMeetingMinutes);
+        if (!availableMandatoryTimes.isEmpty()) {
+          return availableMandatoryTimes;
+        }
+      }
+
+      return availableOptionalTimes;
+    } finally {
+      metrics.recordPhase(Phase.SCAN, scanStart);
+    }
   }
 }
@@ -0,0 +1,132 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Compact base64 encodings of the busy times of one attendee for one day, so clients can work out
+ *     availability themselves. Both encodings take sorted and disjoint {start, end} arrays in
+ *     minutes, like the ones kept by {@code AvailabilityIndex}.
+ */
+public final class FreeBusyEncoding {
+  /**
+   * The supported encodings.
+   */
+  public enum Format {
+    // One bit per minute of the day, most significant bit first; always 240 characters.
+    BITMAP,
+    // Alternating lengths of free and busy runs, starting with a free run at the start of the day,
+    //     each written as an unsigned LEB128 varint. The final free run is left out.
+    RLE
+  }
+
+  private static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+
+  private FreeBusyEncoding() {
+    // Disallow instances.
+  }
+
+  /**
+   * Encodes busy times in the given format.
+   * Time Complexity: O(n) for RLE, O(n + 1440) for BITMAP
+   */
+  public static String encode(List<int[]> busyTimes, Format format) {
+    byte[] bytes = format == Format.BITMAP ? toBitmap(busyTimes) : toRunLengths(busyTimes);
+    return Base64.getEncoder().encodeToString(bytes);
+  }
+
+  /**
+   * Decodes busy times written by {@code encode}.
+   * Time Complexity: O(n) for RLE, O(1440) for BITMAP
+   */
+  public static List<int[]> decode(String encoded, Format format) {
+    byte[] bytes = Base64.getDecoder().decode(encoded);
+    return format == Format.BITMAP ? fromBitmap(bytes) : fromRunLengths(bytes);
+  }
+
+  private static byte[] toBitmap(List<int[]> busyTimes) {
+    byte[] bitmap = new byte[MINUTES_PER_DAY / 8];
+    for (int[] busyTime : busyTimes) {
+      for (int minute = busyTime[0]; minute < busyTime[1]; minute++) {
+        bitmap[minute / 8] |= 0x80 >>> (minute % 8);
+      }
+    }
+    return bitmap;
+  }
+
+  private static List<int[]> fromBitmap(byte[] bitmap) {
+    List<int[]> busyTimes = new ArrayList<>();
+    int runStart = -1;
+    for (int minute = 0; minute <= MINUTES_PER_DAY; minute++) {
+      boolean busy =
+          minute < MINUTES_PER_DAY && (bitmap[minute / 8] & (0x80 >>> (minute % 8))) != 0;
+      if (busy && runStart < 0) {
+        runStart = minute;
+      } else if (!busy && runStart >= 0) {
+        busyTimes.add(new int[] {runStart, minute});
+        runStart = -1;
+      }
+    }
+    return busyTimes;
+  }
+
+  private static byte[] toRunLengths(List<int[]> busyTimes) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    int prevEnd = TimeRange.START_OF_DAY;
+    for (int[] busyTime : busyTimes) {
+      writeVarint(bytes, busyTime[0] - prevEnd);
+      writeVarint(bytes, busyTime[1] - busyTime[0]);
+      prevEnd = busyTime[1];
+    }
+    return bytes.toByteArray();
+  }
+
+  private static List<int[]> fromRunLengths(byte[] bytes) {
+    List<int[]> busyTimes = new ArrayList<>();
+    int[] position = {0};
+    int prevEnd = TimeRange.START_OF_DAY;
+    while (position[0] < bytes.length) {
+      int start = prevEnd + readVarint(bytes, position);
+      int end = start + readVarint(bytes, position);
+      busyTimes.add(new int[] {start, end});
+      prevEnd = end;
+    }
+    return busyTimes;
+  }
+
+  private static void writeVarint(ByteArrayOutputStream bytes, int value) {
+    while ((value & ~0x7F) != 0) {
+      bytes.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    bytes.write(value);
+  }
+
+  private static int readVarint(byte[] bytes, int[] position) {
+    int value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = bytes[position[0]++];
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+}
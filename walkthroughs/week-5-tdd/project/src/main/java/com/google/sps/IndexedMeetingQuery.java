@@ -0,0 +1,70 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Answers meeting requests from an {@code AvailabilityIndex} instead of filtering and sorting
+ *     every event for every request. The index is built once per collection of events and reused
+ *     for as long as the same collection is queried.
+ *
+ * <p>Since a collection is recognised by identity, callers must pass snapshots that never
+ *     change, such as the ones {@code EventStore.getEvents()} returns; a store hands out a new
+ *     snapshot after every change. Changes to a collection that was already queried go unseen.
+ */
+public final class IndexedMeetingQuery implements MeetingQueryEngine {
+  private Collection<Event> indexedEvents;
+  private AvailabilityIndex index;
+
+  /**
+   * Returns the same time ranges as {@code FindMeetingQuery.query}, provided {@code events} is
+   *     an immutable snapshot.
+   * Time Complexity: O(k*ln(k)) where k is the number of busy times of the attendees, plus
+   *     O(n*ln(n)) the first time a collection of events is queried
+   */
+  @Override
+  public synchronized Collection<TimeRange> query(Collection<Event> events,
+      MeetingRequest request) {
+    int durationMeetingMinutes = Math.toIntExact(request.getDuration());
+    if (durationMeetingMinutes > TimeRange.WHOLE_DAY.duration() || durationMeetingMinutes < 0) {
+      return new ArrayList<TimeRange>();
+    }
+
+    if (durationMeetingMinutes == 0) {
+      return new ArrayList<TimeRange>(Arrays.asList(TimeRange.WHOLE_DAY));
+    }
+
+    if (events != indexedEvents) {
+      index = AvailabilityIndex.build(events);
+      indexedEvents = events;
+    }
+
+    if (request.getQuorum() > 0) {
+      List<IntervalSet> busyPerAttendee = new ArrayList<>(request.getAttendees().size());
+      for (String attendee : request.getAttendees()) {
+        busyPerAttendee.add(index.getBusySet(attendee));
+      }
+      return FindMeetingQuery.quorumTimeRanges(busyPerAttendee, request.getQuorum(),
+          durationMeetingMinutes);
+    }
+
+    return FindMeetingQuery.availableTimeRanges(index.getBusySet(request.getAttendees()),
+        index.getBusySet(request.getOptionalAttendees()), durationMeetingMinutes);
+  }
+}
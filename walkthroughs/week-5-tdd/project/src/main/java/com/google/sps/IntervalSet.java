@@ -0,0 +1,353 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * An immutable set of minutes of the day, stored as sorted, disjoint and non-touching intervals.
+ *     Sets are combined with linear merges of their sorted runs, so busy times can be composed
+ *     across many attendees without re-sorting.
+ */
+public final class IntervalSet {
+  public static final IntervalSet EMPTY = new IntervalSet(new int[0]);
+  public static final IntervalSet WHOLE_DAY =
+      new IntervalSet(new int[] {TimeRange.START_OF_DAY, TimeRange.WHOLE_DAY.end()});
+
+  // The start and end of every interval one after the other: {start0, end0, start1, end1, ...}.
+  //     Ends are exclusive.
+  private final int[] bounds;
+
+  private IntervalSet(int[] bounds) {
+    this.bounds = bounds;
+  }
+
+  /**
+   * Returns the set of minutes covered by any of {@code ranges}, in any order.
+   * Time Complexity: O(n*ln(n))
+   */
+  public static IntervalSet of(Collection<TimeRange> ranges) {
+    long[] packed = new long[ranges.size()];
+    int count = 0;
+    for (TimeRange range : ranges) {
+      packed[count++] = pack(range.start(), range.end());
+    }
+    return fromPacked(packed, count);
+  }
+
+  /**
+   * Returns the set of minutes when any of {@code events} takes place, in any order.
+   * Time Complexity: O(n*ln(n))
+   */
+  public static IntervalSet fromEvents(Collection<Event> events) {
+    long[] packed = new long[events.size()];
+    int count = 0;
+    for (Event event : events) {
+      TimeRange when = event.getWhen();
+      packed[count++] = pack(when.start(), when.end());
+    }
+    return fromPacked(packed, count);
+  }
+
+  /**
+   * Returns the set of minutes covered by {start, end} arrays that are sorted by start time. The
+   *     arrays may overlap.
+   * Time Complexity: O(n)
+   *
+   * @throws IllegalArgumentException if the arrays are not sorted by start time
+   */
+  public static IntervalSet fromSortedTimes(List<int[]> times) {
+    Builder builder = new Builder(times.size());
+    for (int[] time : times) {
+      builder.add(time[0], time[1]);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the union of many sets at once with a k-way merge.
+   * Time Complexity: O(n*ln(k)) where n is the total number of intervals and k is the number of
+   *     sets
+   */
+  public static IntervalSet union(List<IntervalSet> sets) {
+    // Each cursor is {index of the set, position of its next interval}.
+    PriorityQueue<int[]> cursors = new PriorityQueue<>(Math.max(sets.size(), 1),
+        (a, b) -> Integer.compare(sets.get(a[0]).bounds[a[1]], sets.get(b[0]).bounds[b[1]]));
+    int total = 0;
+    for (int i = 0; i < sets.size(); i++) {
+      if (!sets.get(i).isEmpty()) {
+        cursors.add(new int[] {i, 0});
+        total += sets.get(i).size();
+      }
+    }
+
+    Builder builder = new Builder(total);
+    while (!cursors.isEmpty()) {
+      int[] cursor = cursors.poll();
+      int[] setBounds = sets.get(cursor[0]).bounds;
+      builder.add(setBounds[cursor[1]], setBounds[cursor[1] + 1]);
+      cursor[1] += 2;
+      if (cursor[1] < setBounds.length) {
+        cursors.add(cursor);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the number of intervals in this set.
+   */
+  public int size() {
+    return bounds.length / 2;
+  }
+
+  public boolean isEmpty() {
+    return bounds.length == 0;
+  }
+
+  /**
+   * Returns the start of the {@code i}th interval in minutes.
+   */
+  public int start(int i) {
+    return bounds[2 * i];
+  }
+
+  /**
+   * Returns the exclusive end of the {@code i}th interval in minutes.
+   */
+  public int end(int i) {
+    return bounds[2 * i + 1];
+  }
+
+  /**
+   * Checks whether any minute in [start, end) is in this set.
+   * Time Complexity: O(ln(n))
+   */
+  public boolean overlaps(int start, int end) {
+    if (start >= end) {
+      return false;
+    }
+    // Find the first interval that ends after start; it overlaps if it starts before end.
+    int left = 0;
+    int right = size();
+    while (left < right) {
+      int mid = left + (right - left) / 2;
+      if (end(mid) <= start) {
+        left = mid + 1;
+      } else {
+        right = mid;
+      }
+    }
+    return left < size() && start(left) < end;
+  }
+
+  /**
+   * Returns the minutes in this set or in {@code other}.
+   * Time Complexity: O(n + m)
+   */
+  public IntervalSet union(IntervalSet other) {
+    Builder builder = new Builder(size() + other.size());
+    int i = 0;
+    int j = 0;
+    while (i < bounds.length || j < other.bounds.length) {
+      boolean takeThis = j >= other.bounds.length
+          || (i < bounds.length && bounds[i] <= other.bounds[j]);
+      if (takeThis) {
+        builder.add(bounds[i], bounds[i + 1]);
+        i += 2;
+      } else {
+        builder.add(other.bounds[j], other.bounds[j + 1]);
+        j += 2;
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the minutes in both this set and {@code other}.
+   * Time Complexity: O(n + m)
+   */
+  public IntervalSet intersection(IntervalSet other) {
+    Builder builder = new Builder(Math.min(size(), other.size()));
+    int i = 0;
+    int j = 0;
+    while (i < bounds.length && j < other.bounds.length) {
+      int start = Math.max(bounds[i], other.bounds[j]);
+      int end = Math.min(bounds[i + 1], other.bounds[j + 1]);
+      builder.add(start, end);
+
+      // Move past whichever interval ends first.
+      if (bounds[i + 1] < other.bounds[j + 1]) {
+        i += 2;
+      } else {
+        j += 2;
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the minutes in this set that are not in {@code other}.
+   * Time Complexity: O(n + m)
+   */
+  public IntervalSet difference(IntervalSet other) {
+    Builder builder = new Builder(size() + other.size());
+    int j = 0;
+    for (int i = 0; i < bounds.length; i += 2) {
+      int start = bounds[i];
+      int end = bounds[i + 1];
+
+      // Skip the intervals of other that end before this interval starts.
+      while (j < other.bounds.length && other.bounds[j + 1] <= start) {
+        j += 2;
+      }
+
+      // Cut out every interval of other that overlaps this one.
+      int k = j;
+      while (k < other.bounds.length && other.bounds[k] < end) {
+        builder.add(start, other.bounds[k]);
+        start = Math.max(start, other.bounds[k + 1]);
+        k += 2;
+      }
+      builder.add(start, end);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the minutes of the day that are not in this set.
+   * Time Complexity: O(n)
+   */
+  public IntervalSet complement() {
+    return WHOLE_DAY.difference(this);
+  }
+
+  /**
+   * Returns the times of the day of at least {@code durationMinutes} that are not in this set, in
+   *     chronological order.
+   * Time Complexity: O(n)
+   */
+  public TimeRanges gaps(int durationMinutes) {
+    TimeRanges gaps = new TimeRanges(size() + 1);
+    int prevEnd = TimeRange.START_OF_DAY;
+    for (int i = 0; i <= bounds.length; i += 2) {
+      int start = i < bounds.length ? bounds[i] : TimeRange.WHOLE_DAY.end();
+      if (start - prevEnd >= durationMinutes && start > prevEnd) {
+        gaps.add(prevEnd, start);
+      }
+      if (i < bounds.length) {
+        prevEnd = bounds[i + 1];
+      }
+    }
+    return gaps;
+  }
+
+  /**
+   * Returns the intervals of this set as {start, end} arrays.
+   */
+  public ArrayList<int[]> toTimes() {
+    ArrayList<int[]> times = new ArrayList<>(size());
+    for (int i = 0; i < bounds.length; i += 2) {
+      times.add(new int[] {bounds[i], bounds[i + 1]});
+    }
+    return times;
+  }
+
+  /**
+   * Returns the intervals of this set as time ranges.
+   */
+  public ArrayList<TimeRange> toTimeRanges() {
+    ArrayList<TimeRange> ranges = new ArrayList<>(size());
+    for (int i = 0; i < bounds.length; i += 2) {
+      ranges.add(TimeRange.fromStartEnd(bounds[i], bounds[i + 1], false));
+    }
+    return ranges;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof IntervalSet && Arrays.equals(bounds, ((IntervalSet) other).bounds);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(bounds);
+  }
+
+  @Override
+  public String toString() {
+    return toTimeRanges().toString();
+  }
+
+  /**
+   * Packs [start, end) into one long that sorts by start, for {@code fromPacked}.
+   */
+  static long pack(int start, int end) {
+    return ((long) start << 32) | (end & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Sorts packed {start, end} pairs by start and merges them into a set.
+   */
+  static IntervalSet fromPacked(long[] packed, int count) {
+    Arrays.sort(packed, 0, count);
+    Builder builder = new Builder(count);
+    for (int i = 0; i < count; i++) {
+      builder.add((int) (packed[i] >> 32), (int) packed[i]);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Collects intervals given in order of their start and merges the ones that overlap or touch.
+   *     Empty intervals are left out.
+   */
+  static final class Builder {
+    private int[] bounds;
+    private int length = 0;
+
+    Builder(int expectedIntervals) {
+      bounds = new int[Math.max(2 * expectedIntervals, 2)];
+    }
+
+    void add(int start, int end) {
+      if (start >= end) {
+        return;
+      }
+      if (length > 0) {
+        if (start < bounds[length - 2]) {
+          throw new IllegalArgumentException("intervals must be added in order of their start");
+        }
+        if (start <= bounds[length - 1]) {
+          bounds[length - 1] = Math.max(bounds[length - 1], end);
+          return;
+        }
+      }
+      if (length == bounds.length) {
+        bounds = Arrays.copyOf(bounds, 2 * bounds.length);
+      }
+      bounds[length++] = start;
+      bounds[length++] = end;
+    }
+
+    IntervalSet build() {
+      return length == 0 ? EMPTY : new IntervalSet(Arrays.copyOf(bounds, length));
+    }
+  }
+}
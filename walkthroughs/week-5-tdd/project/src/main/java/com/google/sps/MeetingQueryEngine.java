@@ -0,0 +1,33 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+
+/**
+ * Something that can answer a meeting request. Every engine must return exactly what
+ *     {@code FindMeetingQuery} returns for the same events and request.
+ */
+public interface MeetingQueryEngine {
+  /**
+   * Returns all possible time periods throughout the day when everybody attending the meeting
+   *     is available.
+   *
+   * @param events All events that are occurring
+   * @param request The meeting that the user wants to create and find time for
+   * @return the available time ranges in chronological order
+   */
+  Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) throws Exception;
+}
@@ -39,8 +39,25 @@ public final class MeetingRequest {
   // The duration of the meeting in minutes.
   private final long duration;
 
+  // How many of the attendees must be free, or 0 if all of them must be.
+  private final int quorum;
+
   public MeetingRequest(Collection<String> attendees, long duration) {
+    this(attendees, duration, 0);
+  }
+
+  /**
+   * Creates a request for a meeting that only {@code quorum} of {@code attendees} need to attend.
+   *     Optional attendees are not considered for such meetings.
+   *
+   * @throws IllegalArgumentException if {@code quorum} is negative
+   */
+  public MeetingRequest(Collection<String> attendees, long duration, int quorum) {
+    if (quorum < 0) {
+      throw new IllegalArgumentException("quorum cannot be negative");
+    }
     this.duration = duration;
+    this.quorum = quorum;
     this.attendees.addAll(attendees);
   }
 
@@ -73,4 +90,11 @@ public final class MeetingRequest {
   public long getDuration() {
     return duration;
   }
+
+  /**
+   * Returns how many attendees must be free for the meeting, or 0 if all of them must be.
+   */
+  public int getQuorum() {
+    return quorum;
+  }
 }
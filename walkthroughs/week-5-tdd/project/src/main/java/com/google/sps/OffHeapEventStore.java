@@ -0,0 +1,296 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An append-only store of events kept outside the Java heap, one column per field in direct
+ *     {@code ByteBuffer}s, so that calendars of tens of millions of events add nothing for the
+ *     garbage collector to trace. Starts, durations, title offsets and attendee-list offsets are
+ *     int columns indexed by event; titles are length-prefixed UTF-8 and attendee lists are a
+ *     count followed by ascending IDs from an {@code AttendeeDictionary}. The heap holds only
+ *     the buffer objects and the dictionary, which grows with distinct attendees, not events.
+ *
+ * <p>Events are read through a reusable {@code EventView} flyweight instead of {@code Event}
+ *     objects. Appends are synchronized; a view sees the events that were in the store when it
+ *     was created.
+ */
+public final class OffHeapEventStore {
+  private static final int INITIAL_EVENTS = 1024;
+
+  private final AttendeeDictionary dictionary = new AttendeeDictionary();
+
+  private ByteBuffer starts;
+  private ByteBuffer durations;
+  private ByteBuffer titleOffsets;
+  private ByteBuffer attendeeOffsets;
+  private ByteBuffer titles;
+  private ByteBuffer attendees;
+  private int size = 0;
+
+  public OffHeapEventStore() {
+    starts = ByteBuffer.allocateDirect(4 * INITIAL_EVENTS);
+    durations = ByteBuffer.allocateDirect(4 * INITIAL_EVENTS);
+    titleOffsets = ByteBuffer.allocateDirect(4 * INITIAL_EVENTS);
+    attendeeOffsets = ByteBuffer.allocateDirect(4 * INITIAL_EVENTS);
+    titles = ByteBuffer.allocateDirect(16 * INITIAL_EVENTS);
+    attendees = ByteBuffer.allocateDirect(12 * INITIAL_EVENTS);
+  }
+
+  /**
+   * Returns a store holding a copy of every one of {@code events}.
+   */
+  public static OffHeapEventStore of(Collection<Event> events) {
+    OffHeapEventStore store = new OffHeapEventStore();
+    for (Event event : events) {
+      store.add(event);
+    }
+    return store;
+  }
+
+  /**
+   * Appends a copy of {@code event}.
+   * Time Complexity: O(k*ln(k)) for k attendees, amortized over the growth of the columns
+   */
+  public synchronized void add(Event event) {
+    if (size == starts.capacity() / 4) {
+      starts = grow(starts, starts.capacity());
+      durations = grow(durations, durations.capacity());
+      titleOffsets = grow(titleOffsets, titleOffsets.capacity());
+      attendeeOffsets = grow(attendeeOffsets, attendeeOffsets.capacity());
+    }
+
+    byte[] title = event.getTitle().getBytes(StandardCharsets.UTF_8);
+    if (titles.remaining() < 4 + title.length) {
+      titles = grow(titles, 4 + title.length);
+    }
+    int[] ids = new int[event.getAttendees().size()];
+    int count = 0;
+    for (String attendee : event.getAttendees()) {
+      ids[count++] = dictionary.intern(attendee);
+    }
+    Arrays.sort(ids);
+    if (attendees.remaining() < 4 * (1 + ids.length)) {
+      attendees = grow(attendees, 4 * (1 + ids.length));
+    }
+
+    TimeRange when = event.getWhen();
+    starts.putInt(4 * size, when.start());
+    durations.putInt(4 * size, when.duration());
+    titleOffsets.putInt(4 * size, titles.position());
+    attendeeOffsets.putInt(4 * size, attendees.position());
+    titles.putInt(title.length).put(title);
+    attendees.putInt(ids.length);
+    for (int id : ids) {
+      attendees.putInt(id);
+    }
+    size++;
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Returns the dictionary that assigns the IDs of the attendees, e.g. to look up the IDs for
+   *     {@code EventView.attendsAny}.
+   */
+  public AttendeeDictionary getDictionary() {
+    return dictionary;
+  }
+
+  /**
+   * Returns the number of bytes reserved outside the heap.
+   */
+  public synchronized long offHeapBytes() {
+    return (long) starts.capacity() + durations.capacity() + titleOffsets.capacity()
+        + attendeeOffsets.capacity() + titles.capacity() + attendees.capacity();
+  }
+
+  /**
+   * Returns a flyweight over the events in the store right now. It starts before the first
+   *     event; move it with {@code moveTo}.
+   */
+  public synchronized EventView view() {
+    return new EventView(size, starts, durations, titleOffsets, attendeeOffsets, titles,
+        attendees, dictionary);
+  }
+
+  /**
+   * Returns every event in the store as {@code Event} objects, e.g. for tests.
+   */
+  public List<Event> toEvents() {
+    EventView view = view();
+    List<Event> events = new ArrayList<>(view.size());
+    for (int i = 0; i < view.size(); i++) {
+      events.add(view.moveTo(i).toEvent());
+    }
+    return events;
+  }
+
+  /**
+   * Returns a direct copy of {@code buffer} with room for at least {@code extraBytes} more,
+   *     positioned where {@code buffer} was.
+   */
+  private static ByteBuffer grow(ByteBuffer buffer, int extraBytes) {
+    long capacity = Math.max(2L * buffer.capacity(), (long) buffer.capacity() + extraBytes);
+    if (capacity > Integer.MAX_VALUE) {
+      throw new IllegalStateException("column is full");
+    }
+    ByteBuffer grown = ByteBuffer.allocateDirect((int) capacity);
+    ByteBuffer used = buffer.duplicate();
+    // Called through Buffer so the class still runs on Java 8, where these don't return
+    //     ByteBuffer.
+    ((Buffer) used).clear();
+    grown.put(used);
+    ((Buffer) grown).position(buffer.position());
+    return grown;
+  }
+
+  /**
+   * A movable window onto one event of an {@code OffHeapEventStore}. Moving it allocates
+   *     nothing, and nor does reading anything but the title and attendee names, so a query can
+   *     look at every event without creating objects for the ones it skips. A view must not be
+   *     shared between threads, but any number of views can read the same store.
+   */
+  public static final class EventView {
+    private final int size;
+    private final ByteBuffer starts;
+    private final ByteBuffer durations;
+    private final ByteBuffer titleOffsets;
+    private final ByteBuffer attendeeOffsets;
+    private final ByteBuffer titles;
+    private final ByteBuffer attendees;
+    private final AttendeeDictionary dictionary;
+    private int index = -1;
+    // Where the count of the current event's attendees is, in bytes.
+    private int attendeeOffset;
+
+    EventView(int size, ByteBuffer starts, ByteBuffer durations, ByteBuffer titleOffsets,
+        ByteBuffer attendeeOffsets, ByteBuffer titles, ByteBuffer attendees,
+        AttendeeDictionary dictionary) {
+      this.size = size;
+      // Duplicates keep their own positions, so views never disturb each other or the store.
+      this.starts = starts.duplicate();
+      this.durations = durations.duplicate();
+      this.titleOffsets = titleOffsets.duplicate();
+      this.attendeeOffsets = attendeeOffsets.duplicate();
+      this.titles = titles.duplicate();
+      this.attendees = attendees.duplicate();
+      this.dictionary = dictionary;
+    }
+
+    /**
+     * Returns the number of events this view can move to.
+     */
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Moves to the {@code i}th event added to the store.
+     * Time Complexity: O(1)
+     *
+     * @return this view
+     */
+    public EventView moveTo(int i) {
+      if (i < 0 || i >= size) {
+        throw new IndexOutOfBoundsException("no event " + i + " of " + size);
+      }
+      index = i;
+      attendeeOffset = attendeeOffsets.getInt(4 * i);
+      return this;
+    }
+
+    public int start() {
+      return starts.getInt(4 * index);
+    }
+
+    public int duration() {
+      return durations.getInt(4 * index);
+    }
+
+    /**
+     * Returns the exclusive end of the event in minutes.
+     */
+    public int end() {
+      return start() + duration();
+    }
+
+    public int numAttendees() {
+      return attendees.getInt(attendeeOffset);
+    }
+
+    /**
+     * Returns the ID of the {@code i}th attendee, in ascending order of ID.
+     */
+    public int attendeeId(int i) {
+      return attendees.getInt(attendeeOffset + 4 * (1 + i));
+    }
+
+    /**
+     * Checks whether the event shares an attendee with {@code sortedIds}, for example the
+     *     result of {@code AttendeeDictionary.lookupAll}.
+     * Time Complexity: O(n + m)
+     */
+    public boolean attendsAny(int[] sortedIds) {
+      int numAttendees = numAttendees();
+      int i = 0;
+      int j = 0;
+      while (i < numAttendees && j < sortedIds.length) {
+        int id = attendeeId(i);
+        if (id == sortedIds[j]) {
+          return true;
+        } else if (id < sortedIds[j]) {
+          i++;
+        } else {
+          j++;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Decodes the title of the event. This allocates a new string.
+     */
+    public String getTitle() {
+      int offset = titleOffsets.getInt(4 * index);
+      byte[] utf8 = new byte[titles.getInt(offset)];
+      ByteBuffer title = titles.duplicate();
+      ((Buffer) title).position(offset + 4);
+      title.get(utf8);
+      return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns a copy of the event as an {@code Event}.
+     */
+    public Event toEvent() {
+      List<String> names = new ArrayList<>(numAttendees());
+      for (int i = 0; i < numAttendees(); i++) {
+        names.add(dictionary.nameOf(attendeeId(i)));
+      }
+      return new Event(getTitle(), TimeRange.fromStartDuration(start(), duration()), names);
+    }
+  }
+}
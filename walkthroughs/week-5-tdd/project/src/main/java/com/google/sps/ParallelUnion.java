@@ -0,0 +1,91 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Unions the busy times of many attendees at once on a fork/join pool, for meetings with
+ *     thousands of mandatory attendees. The list of sets is split in halves until a half has at
+ *     most {@code leafSize} sets, each leaf is merged with the sequential k-way merge of
+ *     {@code IntervalSet.union}, and the halves are joined back with linear two-way merges.
+ *     Below {@code threshold} sets, or on a pool with a single thread, the sequential merge is
+ *     used directly since forking would cost more than it saves.
+ */
+public final class ParallelUnion extends RecursiveTask<IntervalSet> {
+  /**
+   * How many sets a leaf merges by itself by default.
+   */
+  public static final int DEFAULT_LEAF_SIZE = 64;
+
+  /**
+   * How many sets it takes by default before the union is split at all.
+   */
+  public static final int DEFAULT_THRESHOLD = 512;
+
+  private final List<IntervalSet> sets;
+  private final int leafSize;
+
+  private ParallelUnion(List<IntervalSet> sets, int leafSize) {
+    this.sets = sets;
+    this.leafSize = leafSize;
+  }
+
+  /**
+   * Returns the union of {@code sets} with the default leaf size and threshold, on the common
+   *     pool.
+   * Time Complexity: O(n*ln(k)) work where n is the total number of intervals and k is the
+   *     number of sets, spread over the threads of the pool
+   */
+  public static IntervalSet union(List<IntervalSet> sets) {
+    return union(sets, DEFAULT_LEAF_SIZE, DEFAULT_THRESHOLD, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Returns the union of {@code sets}.
+   * Time Complexity: O(n*ln(k)) work where n is the total number of intervals and k is the
+   *     number of sets, spread over the threads of {@code pool}
+   *
+   * @param sets the sets to union, which must not change while this runs
+   * @param leafSize the most sets one task merges without splitting them further
+   * @param threshold the fewest sets worth splitting; smaller lists are merged sequentially
+   * @param pool the pool that runs the tasks
+   * @throws IllegalArgumentException if {@code leafSize} is less than 1
+   */
+  public static IntervalSet union(List<IntervalSet> sets, int leafSize, int threshold,
+      ForkJoinPool pool) {
+    if (leafSize < 1) {
+      throw new IllegalArgumentException("leafSize must be at least 1");
+    }
+    if (sets.size() < threshold || sets.size() <= leafSize || pool.getParallelism() < 2) {
+      return IntervalSet.union(sets);
+    }
+    return pool.invoke(new ParallelUnion(sets, leafSize));
+  }
+
+  @Override
+  protected IntervalSet compute() {
+    if (sets.size() <= leafSize) {
+      return IntervalSet.union(sets);
+    }
+    int mid = sets.size() / 2;
+    ParallelUnion left = new ParallelUnion(sets.subList(0, mid), leafSize);
+    left.fork();
+    IntervalSet right = new ParallelUnion(sets.subList(mid, sets.size()), leafSize).compute();
+    return left.join().union(right);
+  }
+}
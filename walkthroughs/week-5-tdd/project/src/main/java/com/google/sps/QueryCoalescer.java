@@ -0,0 +1,226 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.sps.metrics.SchedulerMetrics;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lets concurrent identical meeting requests share one computation. Requests are identical when
+ *     they have the same attendees and optional attendees, in any order, the same duration and
+ *     quorum, and are asked of the same version of the calendar and of the working hours, for the
+ *     same day. The first request of a kind starts the computation; requests that arrive while it
+ *     runs wait for the same result instead of starting their own.
+ *
+ * <p>The shared computation runs under the deadline of the request that started it, and is
+ *     cancelled only once every request waiting for it has gone away.
+ */
+public final class QueryCoalescer {
+  /**
+   * The work to share, e.g. {@code FindMeetingQuery.query} against the current events.
+   */
+  public interface Computation {
+    Collection<TimeRange> run(MeetingRequest request, Deadline deadline) throws Exception;
+  }
+
+  private final ConcurrentHashMap<Key, Flight> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * Returns a ticket for the result of {@code request}, starting the computation on
+   *     {@code executor} unless an identical one is already running.
+   * Time Complexity: O(k*ln(k)) where k is the number of attendees
+   *
+   * @param request the meeting request to answer
+   * @param calendarVersion the version of the calendar the request is answered against
+   * @param profilesVersion the version of the working hours the request is answered with
+   * @param date the day the request is answered for
+   * @param deadline when to give up, if this request starts the computation
+   * @param executor where to run the computation
+   * @param computation the work to run
+   * @return a ticket whose result completes with the answer or with the failure of the
+   *     computation, including {@code RejectedExecutionException} if {@code executor} refused it
+   */
+  public Ticket join(MeetingRequest request, long calendarVersion, long profilesVersion,
+      LocalDate date, Deadline deadline, Executor executor, Computation computation) {
+    Key key = new Key(request, calendarVersion, profilesVersion, date);
+    SchedulerMetrics metrics = SchedulerMetrics.getInstance();
+    while (true) {
+      Flight flight = inFlight.get(key);
+      if (flight != null) {
+        if (flight.addWaiter()) {
+          metrics.recordCoalescing(true);
+          return new Ticket(flight);
+        }
+        // Everybody left and the flight was cancelled; replace it.
+        inFlight.remove(key, flight);
+        continue;
+      }
+
+      Flight started = new Flight(deadline);
+      if (inFlight.putIfAbsent(key, started) != null) {
+        continue;
+      }
+      metrics.recordCoalescing(false);
+      try {
+        executor.execute(() -> {
+          try {
+            started.result.complete(
+                TimeRanges.unmodifiable(computation.run(request, deadline)));
+          } catch (Throwable e) {
+            started.result.completeExceptionally(e);
+          } finally {
+            inFlight.remove(key, started);
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        inFlight.remove(key, started);
+        started.result.completeExceptionally(e);
+      }
+      return new Ticket(started);
+    }
+  }
+
+  /**
+   * Returns the number of computations currently running.
+   */
+  public int numInFlight() {
+    return inFlight.size();
+  }
+
+  /**
+   * One running computation and the number of requests waiting for it.
+   */
+  private static final class Flight {
+    private final CompletableFuture<Collection<TimeRange>> result = new CompletableFuture<>();
+    private final Deadline deadline;
+    private final AtomicInteger waiters = new AtomicInteger(1);
+
+    Flight(Deadline deadline) {
+      this.deadline = deadline;
+    }
+
+    /**
+     * Adds a waiter unless everybody has already left.
+     */
+    boolean addWaiter() {
+      int current;
+      do {
+        current = waiters.get();
+        if (current == 0) {
+          return false;
+        }
+      } while (!waiters.compareAndSet(current, current + 1));
+      return true;
+    }
+
+    void removeWaiter() {
+      if (waiters.decrementAndGet() == 0) {
+        deadline.cancel();
+      }
+    }
+  }
+
+  /**
+   * One request's claim on a shared computation.
+   */
+  public static final class Ticket {
+    private final Flight flight;
+    private final AtomicBoolean left = new AtomicBoolean(false);
+
+    private Ticket(Flight flight) {
+      this.flight = flight;
+    }
+
+    /**
+     * Returns the shared result. The answer is read-only since every waiter gets the same one.
+     */
+    public CompletableFuture<Collection<TimeRange>> result() {
+      return flight.result;
+    }
+
+    /**
+     * Stops waiting for the result. Once every ticket has left, the computation is cancelled.
+     *     Calling this more than once has no further effect.
+     */
+    public void leave() {
+      if (left.compareAndSet(false, true)) {
+        flight.removeWaiter();
+      }
+    }
+  }
+
+  /**
+   * A meeting request normalised so that identical requests are equal.
+   */
+  private static final class Key {
+    private final List<String> attendees;
+    private final List<String> optionalAttendees;
+    private final long duration;
+    private final int quorum;
+    private final long calendarVersion;
+    private final long profilesVersion;
+    private final LocalDate date;
+
+    Key(MeetingRequest request, long calendarVersion, long profilesVersion, LocalDate date) {
+      this.attendees = sorted(request.getAttendees());
+      this.optionalAttendees = sorted(request.getOptionalAttendees());
+      this.duration = request.getDuration();
+      this.quorum = request.getQuorum();
+      this.calendarVersion = calendarVersion;
+      this.profilesVersion = profilesVersion;
+      this.date = date;
+    }
+
+    private static List<String> sorted(Collection<String> names) {
+      List<String> list = new ArrayList<>(names);
+      Collections.sort(list);
+      return list;
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = attendees.hashCode();
+      hash = 31 * hash + optionalAttendees.hashCode();
+      hash = 31 * hash + Long.hashCode(duration);
+      hash = 31 * hash + quorum;
+      hash = 31 * hash + Long.hashCode(calendarVersion);
+      hash = 31 * hash + Long.hashCode(profilesVersion);
+      return 31 * hash + Objects.hashCode(date);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) other;
+      return duration == that.duration && quorum == that.quorum
+          && calendarVersion == that.calendarVersion && profilesVersion == that.profilesVersion
+          && Objects.equals(date, that.date)
+          && attendees.equals(that.attendees) && optionalAttendees.equals(that.optionalAttendees);
+    }
+  }
+}
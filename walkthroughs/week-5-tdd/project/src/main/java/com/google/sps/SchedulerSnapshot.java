@@ -0,0 +1,277 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * The fully built scheduler structures of one version of an {@code EventStore}: the attendee
+ *     dictionary, the events and every attendee's sorted busy times. A snapshot is written to a
+ *     versioned binary file and read back with a single memory map, so a warm start skips
+ *     interning names and sorting intervals.
+ *
+ * <p>The file is a header followed by a payload, all big-endian:
+ * <pre>
+ *   header:  magic "SPS1", format version, store version (8 bytes), payload length,
+ *            CRC32 of the payload (8 bytes)
+ *   payload: names          count, then UTF-8 length and bytes of each, in ID order
+ *            events         count, then title, start, duration, attendee count and IDs of each
+ *            busy times     count, then attendee ID, interval count and {start, end} of each
+ * </pre>
+ * Files are written to a temporary file and moved into place, and the checksum catches files
+ *     that were torn or damaged anyway.
+ */
+public final class SchedulerSnapshot {
+  public static final int FORMAT_VERSION = 1;
+
+  private static final int MAGIC = 0x53505331;
+  private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 8;
+
+  private final long storeVersion;
+  private final AttendeeDictionary dictionary;
+  private final List<Event> events;
+  private final AvailabilityIndex index;
+
+  private SchedulerSnapshot(long storeVersion, AttendeeDictionary dictionary, List<Event> events,
+      AvailabilityIndex index) {
+    this.storeVersion = storeVersion;
+    this.dictionary = dictionary;
+    this.events = events;
+    this.index = index;
+  }
+
+  /**
+   * Captures {@code events} and their index. Neither may change afterwards.
+   * Time Complexity: O(n) for n attendees of all events
+   *
+   * @param storeVersion the version of the store the events came from
+   * @param events the events of the store
+   * @param index the busy times of every attendee of {@code events}
+   */
+  public static SchedulerSnapshot of(long storeVersion, List<Event> events,
+      AvailabilityIndex index) {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+    for (Event event : events) {
+      dictionary.internGroup(event.getAttendees());
+    }
+    return new SchedulerSnapshot(storeVersion, dictionary, Collections.unmodifiableList(events),
+        index);
+  }
+
+  public long getStoreVersion() {
+    return storeVersion;
+  }
+
+  public AttendeeDictionary getDictionary() {
+    return dictionary;
+  }
+
+  public List<Event> getEvents() {
+    return events;
+  }
+
+  public AvailabilityIndex getIndex() {
+    return index;
+  }
+
+  /**
+   * Writes this snapshot to {@code path}, replacing any file that is there once the new one is
+   *     complete.
+   * Time Complexity: O(n) in the size of the snapshot
+   */
+  public void writeTo(Path path) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream payload = new DataOutputStream(bytes);
+
+    payload.writeInt(dictionary.size());
+    for (int id = 0; id < dictionary.size(); id++) {
+      writeString(payload, dictionary.nameOf(id));
+    }
+
+    payload.writeInt(events.size());
+    for (Event event : events) {
+      writeString(payload, event.getTitle());
+      payload.writeInt(event.getWhen().start());
+      payload.writeInt(event.getWhen().duration());
+      int[] ids = dictionary.lookupAll(event.getAttendees());
+      payload.writeInt(ids.length);
+      for (int id : ids) {
+        payload.writeInt(id);
+      }
+    }
+
+    List<String> indexed = new ArrayList<>();
+    for (String attendee : index.getAttendees()) {
+      if (dictionary.lookup(attendee) >= 0) {
+        indexed.add(attendee);
+      }
+    }
+    payload.writeInt(indexed.size());
+    for (String attendee : indexed) {
+      List<int[]> times = index.getBusyTimes(attendee);
+      payload.writeInt(dictionary.lookup(attendee));
+      payload.writeInt(times.size());
+      for (int[] time : times) {
+        payload.writeInt(time[0]);
+        payload.writeInt(time[1]);
+      }
+    }
+    payload.flush();
+
+    byte[] body = bytes.toByteArray();
+    CRC32 crc = new CRC32();
+    crc.update(body, 0, body.length);
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(storeVersion).putInt(body.length)
+        .putLong(crc.getValue());
+    ((Buffer) header).flip();
+
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      ByteBuffer[] buffers = {header, ByteBuffer.wrap(body)};
+      while (buffers[1].hasRemaining()) {
+        channel.write(buffers);
+      }
+      channel.force(true);
+    }
+    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Reads a snapshot written by {@code writeTo}.
+   * Time Complexity: O(n) in the size of the snapshot
+   *
+   * @throws IOException if the file can't be read, isn't a snapshot of this format version, or
+   *     fails its checksum
+   */
+  public static SchedulerSnapshot readFrom(Path path) throws IOException {
+    ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_BYTES) {
+        throw new IOException("snapshot is truncated: " + path);
+      }
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    if (buffer.getInt() != MAGIC) {
+      throw new IOException("not a scheduler snapshot: " + path);
+    }
+    int formatVersion = buffer.getInt();
+    if (formatVersion != FORMAT_VERSION) {
+      throw new IOException("unsupported snapshot format version " + formatVersion + ": " + path);
+    }
+    long storeVersion = buffer.getLong();
+    int payloadLength = buffer.getInt();
+    long expectedCrc = buffer.getLong();
+    if (payloadLength < 0 || payloadLength != buffer.remaining()) {
+      throw new IOException("snapshot is truncated: " + path);
+    }
+
+    ByteBuffer payload = buffer.slice();
+    CRC32 crc = new CRC32();
+    crc.update(payload.duplicate());
+    if (crc.getValue() != expectedCrc) {
+      throw new IOException("snapshot checksum mismatch: " + path);
+    }
+
+    try {
+      return decode(storeVersion, payload);
+    } catch (BufferUnderflowException | IllegalArgumentException e) {
+      // Only a bug in the writer gets here, since the checksum matched.
+      throw new IOException("malformed snapshot: " + path, e);
+    }
+  }
+
+  private static SchedulerSnapshot decode(long storeVersion, ByteBuffer payload) {
+    int numNames = payload.getInt();
+    String[] names = new String[numNames];
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+    for (int id = 0; id < numNames; id++) {
+      names[id] = readString(payload);
+      dictionary.intern(names[id]);
+    }
+
+    int numEvents = payload.getInt();
+    List<Event> events = new ArrayList<>(numEvents);
+    for (int i = 0; i < numEvents; i++) {
+      String title = readString(payload);
+      TimeRange when = TimeRange.fromStartDuration(payload.getInt(), payload.getInt());
+      List<String> attendees = new ArrayList<>();
+      int numAttendees = payload.getInt();
+      for (int j = 0; j < numAttendees; j++) {
+        attendees.add(nameOf(names, payload.getInt()));
+      }
+      events.add(new Event(title, when, attendees));
+    }
+
+    int numIndexed = payload.getInt();
+    Map<String, ArrayList<int[]>> busyTimes = new HashMap<>();
+    for (int i = 0; i < numIndexed; i++) {
+      String attendee = nameOf(names, payload.getInt());
+      int numTimes = payload.getInt();
+      ArrayList<int[]> times = new ArrayList<>(numTimes);
+      for (int j = 0; j < numTimes; j++) {
+        times.add(new int[] {payload.getInt(), payload.getInt()});
+      }
+      busyTimes.put(attendee, times);
+    }
+
+    return new SchedulerSnapshot(storeVersion, dictionary, Collections.unmodifiableList(events),
+        AvailabilityIndex.fromSortedBusyTimes(busyTimes));
+  }
+
+  private static String nameOf(String[] names, int id) {
+    if (id < 0 || id >= names.length) {
+      throw new IllegalArgumentException("unknown attendee id: " + id);
+    }
+    return names[id];
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(utf8.length);
+    out.write(utf8);
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length < 0 || length > buffer.remaining()) {
+      throw new IllegalArgumentException("bad string length: " + length);
+    }
+    byte[] utf8 = new byte[length];
+    buffer.get(utf8);
+    return new String(utf8, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,81 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+/**
+ * One slot when every mandatory attendee is free, as seen by a {@code SlotScorer}. A single
+ *     instance is moved from slot to slot while candidates are streamed, so nothing is allocated
+ *     for slots that don't make the cut.
+ */
+public final class SlotCandidate {
+  private int start;
+  private int end;
+  private int gapStart;
+  private int gapEnd;
+  private int optionalAvailable;
+  private final int numOptional;
+
+  SlotCandidate(int numOptional) {
+    this.numOptional = numOptional;
+  }
+
+  void moveTo(int start, int end, int gapStart, int gapEnd, int optionalAvailable) {
+    this.start = start;
+    this.end = end;
+    this.gapStart = gapStart;
+    this.gapEnd = gapEnd;
+    this.optionalAvailable = optionalAvailable;
+  }
+
+  /**
+   * Returns the start of the slot in minutes.
+   */
+  public int start() {
+    return start;
+  }
+
+  /**
+   * Returns the exclusive end of the slot in minutes.
+   */
+  public int end() {
+    return end;
+  }
+
+  /**
+   * Returns the start of the free time of the mandatory attendees that holds the slot.
+   */
+  public int gapStart() {
+    return gapStart;
+  }
+
+  /**
+   * Returns the exclusive end of the free time of the mandatory attendees that holds the slot.
+   */
+  public int gapEnd() {
+    return gapEnd;
+  }
+
+  /**
+   * Returns how many optional attendees are free for the whole slot.
+   */
+  public int optionalAvailable() {
+    return optionalAvailable;
+  }
+
+  public int numOptional() {
+    return numOptional;
+  }
+}
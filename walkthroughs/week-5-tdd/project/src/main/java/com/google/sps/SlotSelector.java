@@ -0,0 +1,222 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Picks the best few meeting slots instead of every free gap. Candidate slots of the requested
+ *     duration are streamed out of the free times of the mandatory attendees, starting at the
+ *     beginning of each free time, on every multiple of the step and flush with its end. Each one
+ *     is scored as it goes by and only the best {@code n} seen so far are kept in a bounded heap,
+ *     so the candidates are never collected or sorted.
+ */
+public final class SlotSelector {
+  public static final int DEFAULT_STEP_MINUTES = 15;
+
+  // Worst first, so the head of the heap is the slot to drop. Ties go to the earlier slot.
+  private static final Comparator<ScoredSlot> WORST_FIRST =
+      Comparator.comparingDouble(ScoredSlot::getScore)
+          .thenComparing(Comparator.comparingInt((ScoredSlot slot) -> slot.when.start())
+              .reversed());
+
+  private SlotSelector() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns the {@code n} best slots for {@code request}, best first. Optional attendees only
+   *     count towards the score; the quorum of the request is not used.
+   * Time Complexity: O(e*ln(e) + c*ln(n)) for e events of the attendees and c candidate slots
+   *
+   * @param events all events that are occurring
+   * @param request the meeting to find slots for
+   * @param n how many slots to return at most
+   * @param stepMinutes the spacing of the grid candidate slots start on
+   * @param scorer how to rank the slots
+   * @throws IllegalArgumentException if {@code stepMinutes} isn't positive
+   */
+  public static List<ScoredSlot> suggest(Collection<Event> events, MeetingRequest request, int n,
+      int stepMinutes, SlotScorer scorer) {
+    return suggest(events, request, n, stepMinutes, scorer, null, null);
+  }
+
+  /**
+   * Returns the {@code n} best slots for {@code request} like
+   *     {@code suggest(events, request, n, stepMinutes, scorer)}, treating attendees as busy
+   *     outside their working hours on {@code date}.
+   *
+   * @param profiles the working hours of the attendees, or null for none
+   * @param date the day being scheduled; only used with {@code profiles}
+   * @throws IllegalArgumentException if {@code stepMinutes} isn't positive
+   */
+  public static List<ScoredSlot> suggest(Collection<Event> events, MeetingRequest request, int n,
+      int stepMinutes, SlotScorer scorer, WorkingHoursProfiles profiles, LocalDate date) {
+    Set<String> attendees = new HashSet<>(request.getAttendees());
+    attendees.addAll(request.getOptionalAttendees());
+    AvailabilityIndex index = AvailabilityIndex.build(events, attendees::contains);
+    boolean masked = profiles != null && !profiles.isEmpty();
+
+    List<IntervalSet> optionalBusy = new ArrayList<>(request.getOptionalAttendees().size());
+    for (String attendee : request.getOptionalAttendees()) {
+      IntervalSet busy = index.getBusySet(attendee);
+      optionalBusy.add(masked ? busy.union(profiles.offHours(attendee, date)) : busy);
+    }
+    IntervalSet mandatoryBusy = index.getBusySet(request.getAttendees());
+    if (masked) {
+      mandatoryBusy = mandatoryBusy.union(profiles.offHours(request.getAttendees(), date));
+    }
+    // Requests aren't bounded, so durations past a day, which fit nowhere, are clamped to fit in
+    //     an int instead of overflowing.
+    int durationMinutes = (int) Math.max(
+        Math.min(request.getDuration(), TimeRange.WHOLE_DAY.duration() + 1L), 0L);
+    return top(mandatoryBusy, optionalBusy, durationMinutes, n, stepMinutes, scorer);
+  }
+
+  /**
+   * Returns the {@code n} best slots of {@code durationMinutes} outside {@code mandatoryBusy},
+   *     best first.
+   * Time Complexity: O(c*(ln(n) + 1) + m) for c candidate slots and m busy times in total
+   *
+   * @param mandatoryBusy when the mandatory attendees are busy
+   * @param optionalBusy when each optional attendee is busy
+   * @param durationMinutes how long the meeting is
+   * @param n how many slots to return at most
+   * @param stepMinutes the spacing of the grid candidate slots start on
+   * @param scorer how to rank the slots
+   * @throws IllegalArgumentException if {@code stepMinutes} isn't positive
+   */
+  public static List<ScoredSlot> top(IntervalSet mandatoryBusy, List<IntervalSet> optionalBusy,
+      int durationMinutes, int n, int stepMinutes, SlotScorer scorer) {
+    if (stepMinutes <= 0) {
+      throw new IllegalArgumentException("stepMinutes must be positive");
+    }
+    if (n <= 0 || durationMinutes <= 0 || durationMinutes > TimeRange.WHOLE_DAY.duration()) {
+      return new ArrayList<>();
+    }
+
+    PriorityQueue<ScoredSlot> best = new PriorityQueue<>(n, WORST_FIRST);
+    SlotCandidate candidate = new SlotCandidate(optionalBusy.size());
+    // The next busy time of each optional attendee that might overlap a slot. Slots are visited
+    //     in order of their start, so these only move forward.
+    int[] cursors = new int[optionalBusy.size()];
+
+    for (TimeRange gap : mandatoryBusy.gaps(durationMinutes)) {
+      int gapStart = gap.start();
+      int gapEnd = gap.end();
+      int lastStart = gapEnd - durationMinutes;
+      int start = gapStart;
+      while (start <= lastStart) {
+        int end = start + durationMinutes;
+        candidate.moveTo(start, end, gapStart, gapEnd,
+            countAvailable(optionalBusy, cursors, start, end));
+        double score = scorer.score(candidate);
+
+        if (best.size() < n) {
+          best.add(new ScoredSlot(TimeRange.fromStartEnd(start, end, false), score,
+              candidate.optionalAvailable()));
+        } else if (isBetter(score, start, best.peek())) {
+          best.poll();
+          best.add(new ScoredSlot(TimeRange.fromStartEnd(start, end, false), score,
+              candidate.optionalAvailable()));
+        }
+        start = nextStart(start, lastStart, stepMinutes);
+      }
+    }
+
+    List<ScoredSlot> slots = new ArrayList<>(best);
+    slots.sort(Collections.reverseOrder(WORST_FIRST));
+    return slots;
+  }
+
+  /**
+   * Returns the next grid start after {@code start}, or {@code lastStart} so the slot flush with
+   *     the end of the free time is tried too, or a value past {@code lastStart} when done.
+   */
+  private static int nextStart(int start, int lastStart, int stepMinutes) {
+    int next = (start / stepMinutes + 1) * stepMinutes;
+    if (next > lastStart && start < lastStart) {
+      return lastStart;
+    }
+    return next;
+  }
+
+  private static boolean isBetter(double score, int start, ScoredSlot worst) {
+    return score > worst.score || (score == worst.score && start < worst.when.start());
+  }
+
+  /**
+   * Counts the optional attendees that are free for all of [start, end).
+   * Time Complexity: O(a) amortised over the slots of a day
+   */
+  private static int countAvailable(List<IntervalSet> optionalBusy, int[] cursors, int start,
+      int end) {
+    int available = 0;
+    for (int i = 0; i < cursors.length; i++) {
+      IntervalSet busy = optionalBusy.get(i);
+      while (cursors[i] < busy.size() && busy.end(cursors[i]) <= start) {
+        cursors[i]++;
+      }
+      if (cursors[i] == busy.size() || busy.start(cursors[i]) >= end) {
+        available++;
+      }
+    }
+    return available;
+  }
+
+  /**
+   * A suggested slot and its score.
+   */
+  public static final class ScoredSlot {
+    private final TimeRange when;
+    private final double score;
+    private final int optionalAvailable;
+
+    ScoredSlot(TimeRange when, double score, int optionalAvailable) {
+      this.when = when;
+      this.score = score;
+      this.optionalAvailable = optionalAvailable;
+    }
+
+    public TimeRange getWhen() {
+      return when;
+    }
+
+    public double getScore() {
+      return score;
+    }
+
+    /**
+     * Returns how many optional attendees are free for the whole slot.
+     */
+    public int getOptionalAvailable() {
+      return optionalAvailable;
+    }
+
+    @Override
+    public String toString() {
+      return when + " " + score;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically saves a {@code SchedulerSnapshot} of an {@code EventStore} to a file, skipping
+ *     the save when the store hasn't changed since the last one.
+ */
+public final class SnapshotSaver implements AutoCloseable {
+  private final EventStore store;
+  private final Path path;
+  private ScheduledExecutorService scheduler;
+  private long savedVersion = -1;
+
+  public SnapshotSaver(EventStore store, Path path) {
+    this.store = store;
+    this.path = path;
+  }
+
+  /**
+   * Marks {@code version} of the store as already saved, e.g. because it was just restored from
+   *     the file.
+   */
+  public synchronized void markSaved(long version) {
+    savedVersion = version;
+  }
+
+  /**
+   * Saves the store unless this version was already saved.
+   * Time Complexity: O(n) in the size of the snapshot, O(1) if nothing changed
+   *
+   * @return whether a snapshot was written
+   */
+  public synchronized boolean saveIfChanged() throws IOException {
+    if (store.getVersion() == savedVersion) {
+      return false;
+    }
+    SchedulerSnapshot snapshot = store.snapshot();
+    snapshot.writeTo(path);
+    savedVersion = snapshot.getStoreVersion();
+    return true;
+  }
+
+  /**
+   * Starts saving every {@code period} on a background thread.
+   */
+  public synchronized void start(long period, TimeUnit unit) {
+    if (scheduler != null) {
+      throw new IllegalStateException("already started");
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "snapshot-saver");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleWithFixedDelay(() -> {
+      try {
+        saveIfChanged();
+      } catch (IOException e) {
+        // Try again next time; the previous snapshot is still in place.
+        System.err.println("Snapshot Error: " + e.getMessage());
+      }
+    }, period, period, unit);
+  }
+
+  /**
+   * Stops saving in the background and saves one last time.
+   */
+  @Override
+  public void close() throws IOException {
+    ScheduledExecutorService current;
+    synchronized (this) {
+      current = scheduler;
+      scheduler = null;
+    }
+    if (current != null) {
+      current.shutdownNow();
+    }
+    saveIfChanged();
+  }
+}
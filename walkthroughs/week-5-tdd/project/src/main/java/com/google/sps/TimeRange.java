@@ -15,16 +15,29 @@
 package com.google.sps;
 
 import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Class representing a span of time, enforcing properties (e.g. start comes before end) and
  * providing methods to make ranges easier to work with (e.g. {@code overlaps}).
+ *
+ * <p>Ranges are immutable, so the factories hand out one shared instance for every range that
+ * starts and ends on a quarter hour of the day, like the hour and half-hour blocks most meetings
+ * use. Those instances are created the first time they are asked for.
  */
 public final class TimeRange {
   public static final int START_OF_DAY = getTimeInMinutes(0, 0);
   public static final int END_OF_DAY = getTimeInMinutes(23, 59);
 
-  public static final TimeRange WHOLE_DAY = new TimeRange(0, 24 * 60);
+  private static final int GRID_MINUTES = 15;
+  // Quarter hours from the start of the day up to and including the end of it.
+  private static final int GRID_POINTS = 24 * 60 / GRID_MINUTES + 1;
+  // The shared range of every grid start and grid duration, indexed by
+  // start / GRID_MINUTES * GRID_POINTS + duration / GRID_MINUTES.
+  private static final AtomicReferenceArray<TimeRange> CANONICAL =
+      new AtomicReferenceArray<>(GRID_POINTS * GRID_POINTS);
+
+  public static final TimeRange WHOLE_DAY = fromStartDuration(0, 24 * 60);
 
   /**
    * A comparator for sorting ranges by their start time in ascending order.
@@ -174,13 +187,29 @@ public final class TimeRange {
    * then @{code end} will be in the range.
    */
   public static TimeRange fromStartEnd(int start, int end, boolean inclusive) {
-    return inclusive ? new TimeRange(start, end - start + 1) : new TimeRange(start, end - start);
+    return inclusive ? fromStartDuration(start, end - start + 1)
+        : fromStartDuration(start, end - start);
   }
 
   /**
    * Create a {@code TimeRange} starting at {@code start} with a duration equal to {@code duration}.
+   * Ranges on the quarter-hour grid of the day are shared instead of allocated.
    */
   public static TimeRange fromStartDuration(int start, int duration) {
-    return new TimeRange(start, duration);
+    if (!onGrid(start) || !onGrid(duration)) {
+      return new TimeRange(start, duration);
+    }
+    int slot = start / GRID_MINUTES * GRID_POINTS + duration / GRID_MINUTES;
+    TimeRange range = CANONICAL.get(slot);
+    if (range == null) {
+      // Two threads may both create the range; whichever gets there first is kept.
+      CANONICAL.compareAndSet(slot, null, new TimeRange(start, duration));
+      range = CANONICAL.get(slot);
+    }
+    return range;
+  }
+
+  private static boolean onGrid(int minutes) {
+    return minutes >= 0 && minutes <= 24 * 60 && minutes % GRID_MINUTES == 0;
   }
 }
@@ -0,0 +1,137 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A growable list of time ranges stored as one {@code int[]} of {start, end} pairs instead of
+ *     one object per range. Hot loops read {@code start(i)} and {@code end(i)} directly; the
+ *     {@code List} methods hand out {@code TimeRange}s from the shared factory, which allocates
+ *     nothing for ranges on the quarter-hour grid. Equal to any list of the same ranges.
+ *
+ * <p>Ranges can only be appended. {@code readOnly()} hands out a view that can't be, so that one
+ *     answer can be shared without copying it into objects.
+ */
+public final class TimeRanges extends AbstractList<TimeRange> implements RandomAccess {
+  private int[] bounds;
+  private int size = 0;
+  private final boolean readOnly;
+
+  public TimeRanges() {
+    this(4);
+  }
+
+  /**
+   * @param expectedRanges how many ranges to make room for up front
+   */
+  public TimeRanges(int expectedRanges) {
+    bounds = new int[2 * Math.max(expectedRanges, 1)];
+    readOnly = false;
+  }
+
+  private TimeRanges(int[] bounds, int size) {
+    this.bounds = bounds;
+    this.size = size;
+    this.readOnly = true;
+  }
+
+  /**
+   * Returns {@code ranges} in a form that can't be changed, to hand one answer to several
+   *     readers. {@code TimeRanges} stay {@code TimeRanges}, without copying, so that they are
+   *     still written straight from their int pairs; other collections are copied.
+   * Time Complexity: O(1) for {@code TimeRanges}, otherwise O(n)
+   */
+  public static List<TimeRange> unmodifiable(Collection<TimeRange> ranges) {
+    if (ranges instanceof TimeRanges) {
+      return ((TimeRanges) ranges).readOnly();
+    }
+    return Collections.unmodifiableList(new ArrayList<>(ranges));
+  }
+
+  /**
+   * Returns a view of the ranges added so far that can't be added to. The view shares the int
+   *     pairs instead of copying them: ranges are only ever appended, past the end of the view,
+   *     so ranges added to this list later aren't part of it.
+   * Time Complexity: O(1)
+   */
+  public TimeRanges readOnly() {
+    return readOnly ? this : new TimeRanges(bounds, size);
+  }
+
+  /**
+   * Appends [start, end).
+   * Time Complexity: O(1) amortized
+   *
+   * @throws UnsupportedOperationException if this is a view returned by {@code readOnly()}
+   */
+  public void add(int start, int end) {
+    if (readOnly) {
+      throw new UnsupportedOperationException("read-only time ranges");
+    }
+    if (2 * size == bounds.length) {
+      bounds = Arrays.copyOf(bounds, 2 * bounds.length);
+    }
+    bounds[2 * size] = start;
+    bounds[2 * size + 1] = end;
+    size++;
+    modCount++;
+  }
+
+  @Override
+  public boolean add(TimeRange range) {
+    add(range.start(), range.end());
+    return true;
+  }
+
+  /**
+   * Returns the start of the {@code i}th range in minutes.
+   */
+  public int start(int i) {
+    checkIndex(i);
+    return bounds[2 * i];
+  }
+
+  /**
+   * Returns the exclusive end of the {@code i}th range in minutes.
+   */
+  public int end(int i) {
+    checkIndex(i);
+    return bounds[2 * i + 1];
+  }
+
+  @Override
+  public TimeRange get(int i) {
+    return TimeRange.fromStartEnd(start(i), end(i), false);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  private void checkIndex(int i) {
+    if (i < 0 || i >= size) {
+      throw new IndexOutOfBoundsException("no range " + i + " of " + size);
+    }
+  }
+}
@@ -0,0 +1,227 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Keeps standing meeting requests up to date as an {@code EventStore} changes. Each watch is
+ *     indexed under every one of its attendees, so a change only re-evaluates the watches of the
+ *     attendees whose events changed, and a watch's callback only runs when its available times
+ *     differ from the ones it last got. Evaluation happens on one background thread, so changes
+ *     to the store never wait for it.
+ *
+ * <p>Watches are answered like {@code /query}: attendees are busy outside their working hours
+ *     today, and a change to someone's working hours re-evaluates their watches too.
+ */
+public final class WatchRegistry
+    implements EventStore.Listener, WorkingHoursProfiles.Listener, AutoCloseable {
+  // How many per-day busy sets the registry's view keeps in memory.
+  private static final int VIEW_MAX_ENTRIES = 4096;
+
+  private final EventStore store;
+  private final WorkingHoursProfiles profiles;
+  private final ExecutorService executor;
+  // The busy times of the watched attendees, working hours included.
+  private final AvailabilityView view;
+
+  // Guarded by this.
+  private final Map<String, Set<Watch>> watchesByAttendee = new HashMap<>();
+  private int numWatches = 0;
+
+  /**
+   * Starts watching {@code store}, without working hours.
+   */
+  public WatchRegistry(EventStore store) {
+    this(store, null);
+  }
+
+  /**
+   * Starts watching {@code store} and {@code profiles}.
+   *
+   * @param store the events that make attendees busy
+   * @param profiles the working hours of the attendees, or null to only use events
+   */
+  public WatchRegistry(EventStore store, WorkingHoursProfiles profiles) {
+    this.store = store;
+    this.profiles = profiles;
+    this.view = new AvailabilityView(store, profiles, VIEW_MAX_ENTRIES, null, 0);
+    this.executor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "watch-evaluator");
+      thread.setDaemon(true);
+      return thread;
+    });
+    store.addListener(this);
+    if (profiles != null) {
+      profiles.addListener(this);
+    }
+  }
+
+  /**
+   * Registers {@code request} and calls {@code onChange} with its available times right away
+   *     and again every time they change, until the watch is cancelled. Calls are made one at a
+   *     time from a background thread.
+   * Time Complexity: O(a) where a is the number of attendees, plus one evaluation
+   */
+  public Watch watch(MeetingRequest request, Consumer<Collection<TimeRange>> onChange) {
+    Watch watch = new Watch(request, onChange);
+    synchronized (this) {
+      for (String attendee : watch.attendees) {
+        watchesByAttendee.computeIfAbsent(attendee, key -> new HashSet<>()).add(watch);
+      }
+      numWatches++;
+    }
+    executor.execute(() -> evaluate(Collections.singletonList(watch)));
+    return watch;
+  }
+
+  /**
+   * Returns the number of watches that haven't been cancelled.
+   */
+  public synchronized int size() {
+    return numWatches;
+  }
+
+  /**
+   * Queues the watches of the changed attendees for evaluation.
+   * Time Complexity: O(k + w) where k is the number of attendees and w the number of watches
+   *     involving them
+   */
+  @Override
+  public void eventsChanged(long version, Set<String> attendees) {
+    reevaluate(attendees);
+  }
+
+  /**
+   * Queues the watches of {@code attendee} for evaluation now that their working hours changed.
+   */
+  @Override
+  public void profileChanged(long version, String attendee) {
+    reevaluate(Collections.singleton(attendee));
+  }
+
+  /**
+   * Stops listening to the store and evaluating watches.
+   */
+  @Override
+  public void close() {
+    store.removeListener(this);
+    if (profiles != null) {
+      profiles.removeListener(this);
+    }
+    executor.shutdownNow();
+    view.close();
+  }
+
+  private void reevaluate(Set<String> attendees) {
+    List<Watch> affected = new ArrayList<>();
+    synchronized (this) {
+      Set<Watch> seen = new LinkedHashSet<>();
+      for (String attendee : attendees) {
+        Set<Watch> watches = watchesByAttendee.get(attendee);
+        if (watches != null) {
+          seen.addAll(watches);
+        }
+      }
+      affected.addAll(seen);
+    }
+    if (!affected.isEmpty()) {
+      executor.execute(() -> evaluate(affected));
+    }
+  }
+
+  private void evaluate(List<Watch> watches) {
+    Collection<Event> events = store.getEvents();
+    LocalDate today =
+        LocalDate.now(profiles == null ? ZoneOffset.UTC : profiles.getDayZone());
+    FindMeetingQuery engine = new FindMeetingQuery(view, today);
+    for (Watch watch : watches) {
+      if (watch.cancelled) {
+        continue;
+      }
+      List<TimeRange> available;
+      try {
+        available = TimeRanges.unmodifiable(engine.query(events, watch.request));
+      } catch (Exception e) {
+        System.err.println("Watch Error: " + e.getMessage());
+        continue;
+      }
+      if (!available.equals(watch.lastSent)) {
+        watch.lastSent = available;
+        watch.onChange.accept(available);
+      }
+    }
+  }
+
+  private synchronized void remove(Watch watch) {
+    for (String attendee : watch.attendees) {
+      Set<Watch> watches = watchesByAttendee.get(attendee);
+      if (watches != null && watches.remove(watch) && watches.isEmpty()) {
+        watchesByAttendee.remove(attendee);
+      }
+    }
+    numWatches--;
+  }
+
+  /**
+   * One registered request.
+   */
+  public final class Watch {
+    private final MeetingRequest request;
+    private final Consumer<Collection<TimeRange>> onChange;
+    private final Set<String> attendees = new HashSet<>();
+    private volatile boolean cancelled = false;
+    // Only touched by the evaluating thread.
+    private List<TimeRange> lastSent = null;
+
+    Watch(MeetingRequest request, Consumer<Collection<TimeRange>> onChange) {
+      this.request = request;
+      this.onChange = onChange;
+      attendees.addAll(request.getAttendees());
+      attendees.addAll(request.getOptionalAttendees());
+    }
+
+    public MeetingRequest getRequest() {
+      return request;
+    }
+
+    /**
+     * Stops calling back for this watch. Cancelling twice does nothing.
+     */
+    public void cancel() {
+      synchronized (WatchRegistry.this) {
+        if (cancelled) {
+          return;
+        }
+        cancelled = true;
+        remove(this);
+      }
+    }
+  }
+}
@@ -0,0 +1,100 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+/**
+ * Scores slots on three things: the share of optional attendees who can come, how far the slot
+ *     reaches outside the preferred hours, and how much of the free time around it is left in
+ *     pieces too short to be useful.
+ *
+ * <p>score = optionalWeight * (optional attendees free / optional attendees)
+ *     - distanceWeight * (hours from the start or end of the slot to the preferred hours)
+ *     - fragmentationWeight * (hours left in pieces shorter than {@code minUsefulMinutes})
+ */
+public final class WeightedSlotScorer implements SlotScorer {
+  // Prefers 9:00 to 17:00; having every optional attendee is worth an hour outside those hours.
+  public static final WeightedSlotScorer DEFAULT =
+      new WeightedSlotScorer(TimeRange.getTimeInMinutes(9, 0), TimeRange.getTimeInMinutes(17, 0),
+          1.0, 1.0, 0.5, 30);
+
+  private final int preferredStart;
+  private final int preferredEnd;
+  private final double optionalWeight;
+  private final double distanceWeight;
+  private final double fragmentationWeight;
+  private final int minUsefulMinutes;
+
+  /**
+   * @param preferredStart the start of the preferred hours in minutes
+   * @param preferredEnd the exclusive end of the preferred hours in minutes
+   * @param optionalWeight the worth of having every optional attendee
+   * @param distanceWeight the cost of every hour the slot reaches outside the preferred hours
+   * @param fragmentationWeight the cost of every hour of free time left unusable
+   * @param minUsefulMinutes the shortest leftover free time that still counts as useful
+   * @throws IllegalArgumentException if the preferred hours are empty or a weight is negative
+   */
+  public WeightedSlotScorer(int preferredStart, int preferredEnd, double optionalWeight,
+      double distanceWeight, double fragmentationWeight, int minUsefulMinutes) {
+    if (preferredStart >= preferredEnd) {
+      throw new IllegalArgumentException("preferred hours must not be empty");
+    }
+    if (optionalWeight < 0 || distanceWeight < 0 || fragmentationWeight < 0) {
+      throw new IllegalArgumentException("weights must not be negative");
+    }
+    this.preferredStart = preferredStart;
+    this.preferredEnd = preferredEnd;
+    this.optionalWeight = optionalWeight;
+    this.distanceWeight = distanceWeight;
+    this.fragmentationWeight = fragmentationWeight;
+    this.minUsefulMinutes = minUsefulMinutes;
+  }
+
+  /**
+   * Returns a scorer with the same weights that prefers [preferredStart, preferredEnd).
+   *
+   * @throws IllegalArgumentException if the preferred hours are empty
+   */
+  public WeightedSlotScorer withPreferredHours(int preferredStart, int preferredEnd) {
+    return new WeightedSlotScorer(preferredStart, preferredEnd, optionalWeight, distanceWeight,
+        fragmentationWeight, minUsefulMinutes);
+  }
+
+  /**
+   * Time Complexity: O(1)
+   */
+  @Override
+  public double score(SlotCandidate candidate) {
+    double optionalShare = candidate.numOptional() == 0
+        ? 1.0 : (double) candidate.optionalAvailable() / candidate.numOptional();
+
+    int minutesOutside = Math.max(0, preferredStart - candidate.start())
+        + Math.max(0, candidate.end() - preferredEnd);
+
+    int wastedMinutes = wasted(candidate.start() - candidate.gapStart())
+        + wasted(candidate.gapEnd() - candidate.end());
+
+    return optionalWeight * optionalShare
+        - distanceWeight * minutesOutside / 60.0
+        - fragmentationWeight * wastedMinutes / 60.0;
+  }
+
+  /**
+   * Returns the minutes of a leftover piece of free time that are too short to use.
+   */
+  private int wasted(int leftoverMinutes) {
+    return leftoverMinutes < minUsefulMinutes ? leftoverMinutes : 0;
+  }
+}
@@ -0,0 +1,119 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * When one attendee works: the same hours on each of some days of the week, in their own time
+ *     zone. Hours may run past midnight, e.g. 22:00 to 06:00, in which case they end on the
+ *     next day.
+ */
+public final class WorkingHours {
+  private final ZoneId zone;
+  private final LocalTime start;
+  private final LocalTime end;
+  private final Set<DayOfWeek> days;
+
+  /**
+   * @param zone the time zone the hours are in
+   * @param start when work starts on each working day
+   * @param end when work ends; at or before {@code start} means on the next day
+   * @param days the days of the week work starts on
+   * @throws IllegalArgumentException if any argument is null or {@code days} is empty
+   */
+  public WorkingHours(ZoneId zone, LocalTime start, LocalTime end, Collection<DayOfWeek> days) {
+    if (zone == null || start == null || end == null || days == null) {
+      throw new IllegalArgumentException("zone, start, end and days cannot be null");
+    }
+    if (days.isEmpty()) {
+      throw new IllegalArgumentException("days cannot be empty");
+    }
+    this.zone = zone;
+    this.start = start;
+    this.end = end;
+    this.days = Collections.unmodifiableSet(EnumSet.copyOf(days));
+  }
+
+  public ZoneId getZone() {
+    return zone;
+  }
+
+  public LocalTime getStart() {
+    return start;
+  }
+
+  public LocalTime getEnd() {
+    return end;
+  }
+
+  public Set<DayOfWeek> getDays() {
+    return days;
+  }
+
+  /**
+   * Returns the minutes of a scheduling day that fall outside these hours. The scheduling day
+   *     is the 1440 minutes from midnight of {@code date} in {@code dayZone}, the zone every
+   *     event time is given in.
+   * Time Complexity: O(1)
+   *
+   * @param date the day being scheduled
+   * @param dayZone the time zone of the scheduling day
+   * @return the busy minutes of the day
+   */
+  public IntervalSet offHours(LocalDate date, ZoneId dayZone) {
+    Instant dayStart = date.atStartOfDay(dayZone).toInstant();
+    int dayMinutes = TimeRange.WHOLE_DAY.duration();
+
+    // The scheduling day can overlap three local days in another zone, and a shift that started
+    //     on the day before can still be running.
+    List<TimeRange> working = new ArrayList<>(4);
+    LocalDate local = dayStart.atZone(zone).toLocalDate().minusDays(1);
+    for (int i = 0; i < 4; i++, local = local.plusDays(1)) {
+      if (!days.contains(local.getDayOfWeek())) {
+        continue;
+      }
+      ZonedDateTime shiftStart = ZonedDateTime.of(local, start, zone);
+      ZonedDateTime shiftEnd = ZonedDateTime.of(end.isAfter(start) ? local : local.plusDays(1),
+          end, zone);
+      long from = ChronoUnit.MINUTES.between(dayStart, shiftStart.toInstant());
+      long to = ChronoUnit.MINUTES.between(dayStart, shiftEnd.toInstant());
+      from = Math.max(from, 0);
+      to = Math.min(to, dayMinutes);
+      if (from < to) {
+        working.add(TimeRange.fromStartEnd((int) from, (int) to, false));
+      }
+    }
+    return IntervalSet.of(working).complement();
+  }
+
+  @Override
+  public String toString() {
+    return start + "-" + end + " " + days + " " + zone;
+  }
+}
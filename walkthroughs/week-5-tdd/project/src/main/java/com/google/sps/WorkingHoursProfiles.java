@@ -0,0 +1,203 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The working hours of every attendee who has told us theirs, compiled into busy masks. A mask
+ *     holds the minutes of one scheduling day that an attendee is off work; it is computed the
+ *     first time it is needed and cached per attendee and day, so at query time a zone costs
+ *     one lookup and one union. Attendees without a profile are never masked. Once masks for a
+ *     new day are asked for, the ones from before the previous day are dropped. Listeners are
+ *     told whose working hours every change affects.
+ */
+public final class WorkingHoursProfiles {
+  /**
+   * Hears about every change to the profiles.
+   */
+  public interface Listener {
+    /**
+     * Called after the working hours of {@code attendee} were set or cleared. Listeners must
+     *     return quickly since the change that caused the call waits for them.
+     *
+     * @param version the version of the profiles right after the change
+     * @param attendee the attendee whose working hours changed
+     */
+    void profileChanged(long version, String attendee);
+  }
+
+  private static final WorkingHoursProfiles INSTANCE = new WorkingHoursProfiles(ZoneOffset.UTC);
+
+  private final ZoneId dayZone;
+  private final ConcurrentHashMap<String, WorkingHours> profiles = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<MaskKey, IntervalSet> masks = new ConcurrentHashMap<>();
+  // The latest day a mask was asked for. Masks of days well before it are dropped.
+  private volatile LocalDate latestDate = LocalDate.MIN;
+  private final AtomicLong version = new AtomicLong();
+  private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * @param dayZone the time zone event times are given in, which fixes when each scheduling
+   *     day starts
+   */
+  public WorkingHoursProfiles(ZoneId dayZone) {
+    this.dayZone = dayZone;
+  }
+
+  /**
+   * Returns the profiles used by the servlets, whose days start at midnight UTC.
+   */
+  public static WorkingHoursProfiles getInstance() {
+    return INSTANCE;
+  }
+
+  public ZoneId getDayZone() {
+    return dayZone;
+  }
+
+  /**
+   * Sets the working hours of {@code attendee}, or clears them if {@code hours} is null, drops
+   *     the attendee's cached masks and tells the listeners.
+   */
+  public void set(String attendee, WorkingHours hours) {
+    if (hours == null) {
+      profiles.remove(attendee);
+    } else {
+      profiles.put(attendee, hours);
+    }
+    masks.keySet().removeIf(key -> key.attendee.equals(attendee));
+    long newVersion = version.incrementAndGet();
+    for (Listener listener : listeners) {
+      listener.profileChanged(newVersion, attendee);
+    }
+  }
+
+  /**
+   * Returns a number that changes every time a profile is set or cleared.
+   */
+  public long getVersion() {
+    return version.get();
+  }
+
+  /**
+   * Calls {@code listener} after every change from now on.
+   */
+  public void addListener(Listener listener) {
+    listeners.add(listener);
+  }
+
+  public void removeListener(Listener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Returns the working hours of {@code attendee}, or null if they have none.
+   */
+  public WorkingHours get(String attendee) {
+    return profiles.get(attendee);
+  }
+
+  /**
+   * Returns a copy of every profile.
+   */
+  public Map<String, WorkingHours> getAll() {
+    return Collections.unmodifiableMap(new HashMap<>(profiles));
+  }
+
+  public boolean isEmpty() {
+    return profiles.isEmpty();
+  }
+
+  /**
+   * Returns the minutes of {@code date} that {@code attendee} is off work.
+   * Time Complexity: O(1), computing the mask the first time
+   */
+  public IntervalSet offHours(String attendee, LocalDate date) {
+    WorkingHours hours = profiles.get(attendee);
+    if (hours == null) {
+      return IntervalSet.EMPTY;
+    }
+    if (date.isAfter(latestDate)) {
+      latestDate = date;
+      LocalDate oldest = date.minusDays(1);
+      masks.keySet().removeIf(key -> key.date.isBefore(oldest));
+    }
+    // The key holds the profile itself, so a mask computed from hours that were replaced
+    //     meanwhile is never found again.
+    return masks.computeIfAbsent(new MaskKey(attendee, date, hours),
+        key -> hours.offHours(date, dayZone));
+  }
+
+  /**
+   * Returns the minutes of {@code date} that at least one of {@code attendees} is off work.
+   * Time Complexity: O(k) for k attendees, plus the size of their masks
+   */
+  public IntervalSet offHours(Collection<String> attendees, LocalDate date) {
+    if (profiles.isEmpty()) {
+      return IntervalSet.EMPTY;
+    }
+    List<IntervalSet> sets = new ArrayList<>();
+    for (String attendee : attendees) {
+      IntervalSet mask = offHours(attendee, date);
+      if (!mask.isEmpty()) {
+        sets.add(mask);
+      }
+    }
+    return sets.size() == 1 ? sets.get(0) : IntervalSet.union(sets);
+  }
+
+  /**
+   * Identifies the mask of one attendee on one day under one profile.
+   */
+  private static final class MaskKey {
+    private final String attendee;
+    private final LocalDate date;
+    private final WorkingHours hours;
+
+    MaskKey(String attendee, LocalDate date, WorkingHours hours) {
+      this.attendee = attendee;
+      this.date = date;
+      this.hours = hours;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof MaskKey)) {
+        return false;
+      }
+      MaskKey key = (MaskKey) other;
+      return attendee.equals(key.attendee) && date.equals(key.date) && hours == key.hours;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(attendee, date);
+    }
+  }
+}
@@ -36,11 +36,11 @@ public final class MergeSort<T> {
    */
   public void merge(ArrayList<T> objs, Comparator<T> comp,
       int left, int middle, int right) {
-    // prep by creating a view of the two subarrays on the clone of that 
-    //     arraylist
-    ArrayList<T> objsClone = (ArrayList<T>) objs.clone();
-    List<T> sub1 = objsClone.subList(left, middle);
-    List<T> sub2 = objsClone.subList(middle, right);
+    // prep by creating a view of the two subarrays on a copy of the range 
+    //     being merged
+    ArrayList<T> objsCopy = new ArrayList<T>(objs.subList(left, right));
+    List<T> sub1 = objsCopy.subList(0, middle - left);
+    List<T> sub2 = objsCopy.subList(middle - left, right - left);
 
     int sub1Size = sub1.size();
     int sub2Size = sub2.size(); 
@@ -54,7 +54,8 @@ public final class MergeSort<T> {
       T first = sub1.get(i);
       T second = sub2.get(j);
       int order = comp.compare(first, second);
-      if (order < 0) {
+      // take from the first subarray on ties so the sort is stable
+      if (order <= 0) {
         i++;
         objs.set(startIndex, first);
       } else {
@@ -84,15 +85,15 @@ public final class MergeSort<T> {
    *
    * @param objs the arrayList to order
    * @param comp the comparator to define the ordering
-   * @param left the left index of the subarray
-   * @param right the right index of the subarray
+   * @param left the left index of the subarray (inclusive)
+   * @param right the right index of the subarray (exclusive)
    */
   public void sortarrayList(ArrayList<T> objs, Comparator<T> comp, 
       int left, int right) {
-    if (left < right) {
+    if (right - left > 1) {
       int middle = left + (right - left) / 2; 
       sortarrayList(objs, comp, left, middle);
-      sortarrayList(objs, comp, middle + 1, right);
+      sortarrayList(objs, comp, middle, right);
 
       merge(objs, comp, left, middle, right);
     }
@@ -28,9 +28,9 @@ public class SortEventsByNumAttendees implements Comparator<Event> {
     ArrayList<String> attendeesList = Collections.list(Collections.enumeration
         (attendees));
 
-    // order the array
+    // order the array the same way BinarySearch compares strings
     MergeSort<String> merge = new MergeSort<String>();
-    merge.sort(attendeesList, String.CASE_INSENSITIVE_ORDER); 
+    merge.sort(attendeesList, Comparator.<String>naturalOrder()); 
 
     this.attendees = attendeesList.toArray(new String[attendeesList.size()]);
   }
@@ -0,0 +1,441 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.importer;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.sps.Event;
+import com.google.sps.EventStore;
+import com.google.sps.TimeRange;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Streams events from large calendar exports into an {@code EventStore}. The calling thread reads
+ *     the input and cuts it into chunks of raw entries; a pool of workers turns the entries into
+ *     {@code Event}s and adds each chunk to the store in one batch. At most a fixed number of
+ *     chunks are in flight at a time, and the reader blocks until a worker finishes one, so memory
+ *     use doesn't depend on the size of the input.
+ */
+public final class CalendarImporter {
+  public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+  // The week form of an iCalendar DURATION, e.g. P2W, which can't be combined with other units.
+  private static final Pattern WEEKS = Pattern.compile("([-+]?)P(\\d+)W");
+
+  private final EventStore store;
+  private final int chunkSize;
+  private final int numThreads;
+  private final int maxChunksInFlight;
+
+  public CalendarImporter(EventStore store) {
+    this(store, DEFAULT_CHUNK_SIZE, Runtime.getRuntime().availableProcessors(),
+        2 * Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates an importer.
+   *
+   * @param store the store that imported events are added to. Must be non-null.
+   * @param chunkSize how many entries are parsed and added to the store at once
+   * @param numThreads how many workers parse chunks
+   * @param maxChunksInFlight how many chunks can be read but not yet added to the store
+   */
+  public CalendarImporter(EventStore store, int chunkSize, int numThreads,
+      int maxChunksInFlight) {
+    if (store == null) {
+      throw new IllegalArgumentException("store cannot be null");
+    }
+
+    if (chunkSize <= 0 || numThreads <= 0 || maxChunksInFlight <= 0) {
+      throw new IllegalArgumentException("chunkSize, numThreads and maxChunksInFlight must be "
+          + "positive");
+    }
+
+    this.store = store;
+    this.chunkSize = chunkSize;
+    this.numThreads = numThreads;
+    this.maxChunksInFlight = maxChunksInFlight;
+  }
+
+  /**
+   * The outcome of an import.
+   */
+  public static final class Result {
+    private final long imported;
+    private final long skipped;
+
+    Result(long imported, long skipped) {
+      this.imported = imported;
+      this.skipped = skipped;
+    }
+
+    /**
+     * Returns the number of events added to the store.
+     */
+    public long getImported() {
+      return imported;
+    }
+
+    /**
+     * Returns the number of entries that were malformed and left out.
+     */
+    public long getSkipped() {
+      return skipped;
+    }
+  }
+
+  /**
+   * Imports a JSON array of events in the format {@code GetEventsServlet} writes, i.e. objects
+   *     with a {@code title}, a {@code when} object with {@code start} and {@code duration}, and an
+   *     {@code attendees} array. Only one array element is held as a tree at a time by the reader.
+   */
+  public Result importJson(Reader input) throws IOException, InterruptedException {
+    JsonReader reader = new JsonReader(input);
+    try (ChunkLoader<JsonElement> loader = new ChunkLoader<>(CalendarImporter::jsonToEvent)) {
+      reader.beginArray();
+      while (reader.hasNext()) {
+        loader.add(JsonParser.parseReader(reader));
+      }
+      reader.endArray();
+      return loader.finish();
+    }
+  }
+
+  /**
+   * Imports the VEVENT blocks of an iCalendar (RFC 5545) stream. Times are read as minutes of the
+   *     day in the time zone they are written in; events that run past midnight are cut off at
+   *     the end of the day, and all-day events take the whole day.
+   */
+  public Result importICalendar(Reader input) throws IOException, InterruptedException {
+    BufferedReader reader = new BufferedReader(input);
+    try (ChunkLoader<List<String>> loader = new ChunkLoader<>(CalendarImporter::vEventToEvent)) {
+      List<String> vEvent = null;
+      int nestedDepth = 0;
+      String line;
+      String pending = null;
+
+      // Folded lines continue with a leading space or tab, so a line is only complete once the
+      //     next one has been read.
+      while ((line = reader.readLine()) != null || pending != null) {
+        if (line != null && !line.isEmpty() && (line.charAt(0) == ' ' || line.charAt(0) == '\t')
+            && pending != null) {
+          pending += line.substring(1);
+          continue;
+        }
+
+        String complete = pending;
+        pending = line;
+        if (complete == null) {
+          continue;
+        }
+
+        if (complete.equals("BEGIN:VEVENT")) {
+          vEvent = new ArrayList<>();
+        } else if (vEvent != null && complete.startsWith("BEGIN:")) {
+          // Skip components nested in an event, such as alarms.
+          nestedDepth++;
+        } else if (vEvent != null && nestedDepth > 0) {
+          if (complete.startsWith("END:")) {
+            nestedDepth--;
+          }
+        } else if (complete.equals("END:VEVENT")) {
+          if (vEvent != null) {
+            loader.add(vEvent);
+          }
+          vEvent = null;
+        } else if (vEvent != null) {
+          vEvent.add(complete);
+        }
+      }
+      return loader.finish();
+    }
+  }
+
+  private static Event jsonToEvent(JsonElement element, Map<String, String> names) {
+    JsonObject object = element.getAsJsonObject();
+    JsonObject when = object.getAsJsonObject("when");
+    JsonArray attendeesArray = object.getAsJsonArray("attendees");
+
+    List<String> attendees = new ArrayList<>(attendeesArray.size());
+    for (JsonElement attendee : attendeesArray) {
+      attendees.add(intern(names, attendee.getAsString()));
+    }
+
+    TimeRange range = TimeRange.fromStartDuration(
+        when.get("start").getAsInt(), when.get("duration").getAsInt());
+    return new Event(object.get("title").getAsString(), range, attendees);
+  }
+
+  private static Event vEventToEvent(List<String> lines, Map<String, String> names) {
+    String title = "";
+    String startValue = null;
+    String endValue = null;
+    String durationValue = null;
+    List<String> attendees = new ArrayList<>();
+
+    for (String line : lines) {
+      int valueIndex = valueSeparator(line);
+      if (valueIndex < 0) {
+        continue;
+      }
+      String[] nameAndParams = splitOutsideQuotes(line.substring(0, valueIndex), ';');
+      String name = nameAndParams[0].toUpperCase();
+      String value = line.substring(valueIndex + 1);
+
+      if (name.equals("SUMMARY")) {
+        title = unescape(value);
+      } else if (name.equals("DTSTART")) {
+        startValue = value;
+      } else if (name.equals("DTEND")) {
+        endValue = value;
+      } else if (name.equals("DURATION")) {
+        durationValue = value;
+      } else if (name.equals("ATTENDEE")) {
+        attendees.add(intern(names, attendeeName(nameAndParams, value)));
+      }
+    }
+
+    if (startValue == null) {
+      throw new IllegalArgumentException("VEVENT has no DTSTART");
+    }
+
+    int start = minuteOfDay(startValue);
+    long end;
+    if (endValue != null) {
+      boolean endsOnLaterDay = datePart(endValue).compareTo(datePart(startValue)) > 0;
+      end = endsOnLaterDay ? TimeRange.WHOLE_DAY.end() : minuteOfDay(endValue);
+    } else if (durationValue != null) {
+      // Capped first so that absurd durations can't overflow.
+      end = start + Math.min(durationMinutes(durationValue), TimeRange.WHOLE_DAY.duration());
+    } else {
+      // Without an end, a date-only event lasts the whole day and any other event is an instant.
+      end = startValue.indexOf('T') < 0 ? TimeRange.WHOLE_DAY.end() : start;
+    }
+    end = Math.min(Math.max(end, start), TimeRange.WHOLE_DAY.end());
+
+    return new Event(title, TimeRange.fromStartEnd(start, (int) end, false), attendees);
+  }
+
+  /**
+   * Returns the common name of an attendee if it has one, otherwise its address.
+   */
+  private static String attendeeName(String[] nameAndParams, String value) {
+    for (int i = 1; i < nameAndParams.length; i++) {
+      String param = nameAndParams[i];
+      if (param.regionMatches(true, 0, "CN=", 0, 3)) {
+        String commonName = param.substring(3);
+        if (commonName.length() >= 2 && commonName.startsWith("\"") && commonName.endsWith("\"")) {
+          commonName = commonName.substring(1, commonName.length() - 1);
+        }
+        return commonName;
+      }
+    }
+    return value.regionMatches(true, 0, "mailto:", 0, 7) ? value.substring(7) : value;
+  }
+
+  /**
+   * Returns the minute of the day of a DATE or DATE-TIME value such as 20200101T083000Z.
+   */
+  private static int minuteOfDay(String value) {
+    int timeIndex = value.indexOf('T');
+    if (timeIndex < 0) {
+      return TimeRange.START_OF_DAY;
+    }
+    int hours = Integer.parseInt(value.substring(timeIndex + 1, timeIndex + 3));
+    int minutes = Integer.parseInt(value.substring(timeIndex + 3, timeIndex + 5));
+    return TimeRange.getTimeInMinutes(hours, minutes);
+  }
+
+  /**
+   * Returns the minutes of a DURATION value such as PT1H30M, P1DT2H or P2W. Java's
+   *     {@code Duration} reads everything but the week form, which iCalendar writes on its own.
+   */
+  private static long durationMinutes(String value) {
+    Matcher weeks = WEEKS.matcher(value);
+    if (weeks.matches()) {
+      long minutes = TimeUnit.DAYS.toMinutes(Math.multiplyExact(7, Long.parseLong(weeks.group(2))));
+      return weeks.group(1).equals("-") ? -minutes : minutes;
+    }
+    return Duration.parse(value).toMinutes();
+  }
+
+  private static String datePart(String value) {
+    int timeIndex = value.indexOf('T');
+    return timeIndex < 0 ? value : value.substring(0, timeIndex);
+  }
+
+  /**
+   * Returns the index of the colon between a property's name and its value, skipping colons in
+   *     quoted parameter values.
+   */
+  private static int valueSeparator(String line) {
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (c == '"') {
+        quoted = !quoted;
+      } else if (c == ':' && !quoted) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static String[] splitOutsideQuotes(String text, char separator) {
+    List<String> parts = new ArrayList<>();
+    boolean quoted = false;
+    int partStart = 0;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '"') {
+        quoted = !quoted;
+      } else if (c == separator && !quoted) {
+        parts.add(text.substring(partStart, i));
+        partStart = i + 1;
+      }
+    }
+    parts.add(text.substring(partStart));
+    return parts.toArray(new String[parts.size()]);
+  }
+
+  /**
+   * Undoes the escaping of a TEXT value in one pass, so that an escaped backslash followed by an
+   *     n stays a backslash and an n.
+   */
+  private static String unescape(String text) {
+    StringBuilder unescaped = new StringBuilder(text.length());
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '\\' && i + 1 < text.length()) {
+        char escaped = text.charAt(++i);
+        unescaped.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+      } else {
+        unescaped.append(c);
+      }
+    }
+    return unescaped.toString();
+  }
+
+  /**
+   * Returns the instance of {@code name} already in {@code names}, adding it if there is none.
+   */
+  private static String intern(Map<String, String> names, String name) {
+    String existing = names.putIfAbsent(name, name);
+    return existing == null ? name : existing;
+  }
+
+  /**
+   * Hands chunks of raw entries to the worker pool, blocking the reader while too many chunks are
+   *     in flight.
+   */
+  private final class ChunkLoader<T> implements AutoCloseable {
+    private final BiFunction<T, Map<String, String>, Event> parser;
+    // Attendee names repeat across events, so every copy is replaced by one shared instance.
+    //     The map lives as long as one import so that it doesn't keep every name ever seen.
+    private final ConcurrentHashMap<String, String> names = new ConcurrentHashMap<>();
+    private final ExecutorService workers = Executors.newFixedThreadPool(numThreads);
+    private final Semaphore chunksInFlight = new Semaphore(maxChunksInFlight);
+    private final LongAdder imported = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    private List<T> chunk = new ArrayList<>(chunkSize);
+
+    ChunkLoader(BiFunction<T, Map<String, String>, Event> parser) {
+      this.parser = parser;
+    }
+
+    void add(T entry) throws InterruptedException {
+      chunk.add(entry);
+      if (chunk.size() == chunkSize) {
+        flush();
+      }
+    }
+
+    Result finish() throws InterruptedException {
+      flush();
+
+      // Once every permit is back, every chunk has been added to the store.
+      chunksInFlight.acquire(maxChunksInFlight);
+      chunksInFlight.release(maxChunksInFlight);
+      throwIfFailed();
+      return new Result(imported.sum(), skipped.sum());
+    }
+
+    @Override
+    public void close() {
+      workers.shutdownNow();
+    }
+
+    private void flush() throws InterruptedException {
+      if (chunk.isEmpty()) {
+        return;
+      }
+      List<T> entries = chunk;
+      chunk = new ArrayList<>(chunkSize);
+
+      chunksInFlight.acquire();
+      throwIfFailed();
+      workers.execute(() -> {
+        try {
+          store.addAll(parse(entries));
+        } catch (RuntimeException e) {
+          failure.compareAndSet(null, e);
+        } finally {
+          chunksInFlight.release();
+        }
+      });
+    }
+
+    private List<Event> parse(List<T> entries) {
+      List<Event> events = new ArrayList<>(entries.size());
+      for (T entry : entries) {
+        try {
+          events.add(parser.apply(entry, names));
+        } catch (RuntimeException e) {
+          // The entry is malformed, so leave it out rather than failing the whole import.
+          skipped.increment();
+        }
+      }
+      imported.add(events.size());
+      return events;
+    }
+
+    private void throwIfFailed() {
+      RuntimeException e = failure.get();
+      if (e != null) {
+        throw e;
+      }
+    }
+  }
+}
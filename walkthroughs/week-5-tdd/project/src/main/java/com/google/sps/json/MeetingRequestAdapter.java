@@ -0,0 +1,118 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.json;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.sps.MeetingRequest;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads and writes a {@code MeetingRequest} with the field names used by script.js, without
+ *     reflection. Numbers may be sent as strings, as the web form does for the duration, and
+ *     unknown fields are skipped.
+ */
+final class MeetingRequestAdapter extends TypeAdapter<MeetingRequest> {
+  @Override
+  public void write(JsonWriter out, MeetingRequest request) throws IOException {
+    if (request == null) {
+      out.nullValue();
+      return;
+    }
+    out.beginObject();
+    out.name("attendees");
+    writeNames(out, request.getAttendees());
+    out.name("optional_attendees");
+    writeNames(out, request.getOptionalAttendees());
+    out.name("duration").value(request.getDuration());
+    out.name("quorum").value(request.getQuorum());
+    out.endObject();
+  }
+
+  @Override
+  public MeetingRequest read(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    List<String> attendees = new ArrayList<>();
+    List<String> optionalAttendees = new ArrayList<>();
+    long duration = 0;
+    int quorum = 0;
+    in.beginObject();
+    try {
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "attendees":
+            readNames(in, attendees);
+            break;
+          case "optional_attendees":
+            readNames(in, optionalAttendees);
+            break;
+          case "duration":
+            duration = in.nextLong();
+            break;
+          case "quorum":
+            quorum = in.nextInt();
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+    } catch (NumberFormatException e) {
+      // Reported like any other malformed request instead of failing the servlet.
+      throw new JsonSyntaxException("duration and quorum must be whole numbers", e);
+    }
+    in.endObject();
+
+    MeetingRequest request;
+    try {
+      request = new MeetingRequest(attendees, duration, quorum);
+    } catch (IllegalArgumentException e) {
+      throw new JsonParseException(e.getMessage(), e);
+    }
+    for (String attendee : optionalAttendees) {
+      request.addOptionalAttendee(attendee);
+    }
+    return request;
+  }
+
+  private static void writeNames(JsonWriter out, Collection<String> names) throws IOException {
+    out.beginArray();
+    for (String name : names) {
+      out.value(name);
+    }
+    out.endArray();
+  }
+
+  private static void readNames(JsonReader in, List<String> names) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return;
+    }
+    in.beginArray();
+    while (in.hasNext()) {
+      names.add(in.nextString());
+    }
+    in.endArray();
+  }
+}
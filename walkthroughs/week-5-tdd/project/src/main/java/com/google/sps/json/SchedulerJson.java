@@ -0,0 +1,76 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.json;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import com.google.sps.TimeRanges;
+import com.google.sps.WorkingHours;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+
+/**
+ * The JSON codec shared by every servlet. {@code Gson} instances are thread-safe and cache the
+ *     adapter of every type they have seen, so one instance is built once and reused instead of
+ *     building a new one per request.
+ */
+public final class SchedulerJson {
+  private static final Gson GSON = new GsonBuilder()
+      .registerTypeAdapter(MeetingRequest.class, new MeetingRequestAdapter())
+      .registerTypeAdapter(TimeRange.class, new TimeRangeAdapter())
+      .registerTypeAdapter(TimeRanges.class, new TimeRangesAdapter())
+      .registerTypeAdapter(WorkingHours.class, new WorkingHoursAdapter())
+      .create();
+
+  private SchedulerJson() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns the shared {@code Gson}, which reads and writes {@code MeetingRequest},
+   *     {@code TimeRange}, {@code TimeRanges} and {@code WorkingHours} without reflection.
+   */
+  public static Gson gson() {
+    return GSON;
+  }
+
+  /**
+   * Writes {@code ranges} as one flat array of start and end minutes, [start0, end0, start1,
+   *     end1, ...], which is about a third of the size of the default object format.
+   * Time Complexity: O(n)
+   */
+  public static void writeCompact(Collection<TimeRange> ranges, Writer out) throws IOException {
+    JsonWriter writer = new JsonWriter(out);
+    writer.beginArray();
+    if (ranges instanceof TimeRanges) {
+      TimeRanges primitive = (TimeRanges) ranges;
+      for (int i = 0; i < primitive.size(); i++) {
+        writer.value(primitive.start(i));
+        writer.value(primitive.end(i));
+      }
+    } else {
+      for (TimeRange range : ranges) {
+        writer.value(range.start());
+        writer.value(range.end());
+      }
+    }
+    writer.endArray();
+    writer.flush();
+  }
+}
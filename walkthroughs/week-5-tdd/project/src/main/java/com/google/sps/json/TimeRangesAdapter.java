@@ -0,0 +1,75 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.sps.TimeRanges;
+import java.io.IOException;
+
+/**
+ * Reads and writes {@code TimeRanges} as the same array of {"start": minutes, "duration":
+ *     minutes} objects as a list of {@code TimeRange}, straight from and into its int pairs.
+ */
+final class TimeRangesAdapter extends TypeAdapter<TimeRanges> {
+  @Override
+  public void write(JsonWriter out, TimeRanges ranges) throws IOException {
+    if (ranges == null) {
+      out.nullValue();
+      return;
+    }
+    out.beginArray();
+    for (int i = 0; i < ranges.size(); i++) {
+      out.beginObject();
+      out.name("start").value(ranges.start(i));
+      out.name("duration").value(ranges.end(i) - ranges.start(i));
+      out.endObject();
+    }
+    out.endArray();
+  }
+
+  @Override
+  public TimeRanges read(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    TimeRanges ranges = new TimeRanges();
+    in.beginArray();
+    while (in.hasNext()) {
+      int start = 0;
+      int duration = 0;
+      in.beginObject();
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "start":
+            start = in.nextInt();
+            break;
+          case "duration":
+            duration = in.nextInt();
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      ranges.add(start, start + duration);
+    }
+    in.endArray();
+    return ranges;
+  }
+}
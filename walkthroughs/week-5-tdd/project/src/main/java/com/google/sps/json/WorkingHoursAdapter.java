@@ -0,0 +1,111 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.json;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.sps.WorkingHours;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes {@code WorkingHours} as {"zone": "Europe/Paris", "start": "09:00", "end":
+ *     "17:00", "days": ["MONDAY", ...]}. Days may be given in any case and default to Monday
+ *     to Friday.
+ */
+final class WorkingHoursAdapter extends TypeAdapter<WorkingHours> {
+  @Override
+  public void write(JsonWriter out, WorkingHours hours) throws IOException {
+    if (hours == null) {
+      out.nullValue();
+      return;
+    }
+    out.beginObject();
+    out.name("zone").value(hours.getZone().getId());
+    out.name("start").value(hours.getStart().toString());
+    out.name("end").value(hours.getEnd().toString());
+    out.name("days").beginArray();
+    for (DayOfWeek day : hours.getDays()) {
+      out.value(day.name());
+    }
+    out.endArray();
+    out.endObject();
+  }
+
+  @Override
+  public WorkingHours read(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    String zone = null;
+    String start = null;
+    String end = null;
+    List<String> days = null;
+    in.beginObject();
+    while (in.hasNext()) {
+      switch (in.nextName()) {
+        case "zone":
+          zone = in.nextString();
+          break;
+        case "start":
+          start = in.nextString();
+          break;
+        case "end":
+          end = in.nextString();
+          break;
+        case "days":
+          days = new ArrayList<>();
+          in.beginArray();
+          while (in.hasNext()) {
+            days.add(in.nextString());
+          }
+          in.endArray();
+          break;
+        default:
+          in.skipValue();
+      }
+    }
+    in.endObject();
+
+    if (zone == null || start == null || end == null) {
+      throw new JsonParseException("zone, start and end are required");
+    }
+    try {
+      List<DayOfWeek> workingDays = new ArrayList<>();
+      if (days == null) {
+        for (DayOfWeek day = DayOfWeek.MONDAY; day != DayOfWeek.SATURDAY; day = day.plus(1)) {
+          workingDays.add(day);
+        }
+      } else {
+        for (String day : days) {
+          workingDays.add(DayOfWeek.valueOf(day.toUpperCase()));
+        }
+      }
+      return new WorkingHours(ZoneId.of(zone), LocalTime.parse(start), LocalTime.parse(end),
+          workingDays);
+    } catch (DateTimeException | IllegalArgumentException e) {
+      throw new JsonParseException(e.getMessage(), e);
+    }
+  }
+}
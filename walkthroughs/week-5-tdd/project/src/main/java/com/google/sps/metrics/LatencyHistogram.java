@@ -0,0 +1,141 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations in nanoseconds. Bucket {@code i} counts the samples in
+ *     [2^i, 2^(i + 1)), so bucket boundaries are powers of two. Bucket 0 also counts samples of
+ *     0, and the last bucket in use has no upper bound.
+ */
+public final class LatencyHistogram {
+  private static final int NUM_BUCKETS = 64;
+
+  private final LongAdder[] buckets = new LongAdder[NUM_BUCKETS];
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+
+  public LatencyHistogram() {
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Records one sample.
+   * Time Complexity: O(1)
+   *
+   * @param nanos the duration of the sample in nanoseconds
+   */
+  public void record(long nanos) {
+    long value = Math.max(nanos, 0);
+    int bits = Long.SIZE - Long.numberOfLeadingZeros(value);
+    buckets[Math.max(bits - 1, 0)].increment();
+    count.increment();
+    totalNanos.add(value);
+  }
+
+  /**
+   * Returns the number of samples recorded.
+   */
+  public long count() {
+    return count.sum();
+  }
+
+  /**
+   * Returns the sum of all the samples in nanoseconds.
+   */
+  public long totalNanos() {
+    return totalNanos.sum();
+  }
+
+  /**
+   * Returns the exclusive upper bound of the bucket that holds the {@code percentile}th
+   *     percentile of the samples. Returns 0 if nothing was recorded and {@code Long.MAX_VALUE}
+   *     if the percentile is in the bucket without an upper bound.
+   * Time Complexity: O(1)
+   *
+   * @param percentile from 0 to 100
+   */
+  public long percentileNanos(double percentile) {
+    if (!(percentile >= 0 && percentile <= 100)) {
+      throw new IllegalArgumentException("percentile must be from 0 to 100: " + percentile);
+    }
+    // Read every bucket once so that samples recorded meanwhile can't skew the ranks.
+    long[] counts = new long[NUM_BUCKETS];
+    long total = 0;
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      counts[i] = buckets[i].sum();
+      total += counts[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+    long seen = 0;
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return upperBound(i);
+      }
+    }
+    return Long.MAX_VALUE;
+  }
+
+  /**
+   * Clears every bucket.
+   */
+  public void reset() {
+    for (LongAdder bucket : buckets) {
+      bucket.reset();
+    }
+    count.reset();
+    totalNanos.reset();
+  }
+
+  /**
+   * Returns the non-empty buckets keyed by their upper bound in nanoseconds, along with the count
+   *     and total so it can be serialised to JSON.
+   */
+  public Map<String, Object> toMap() {
+    Map<String, Long> nonEmptyBuckets = new LinkedHashMap<>();
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      long bucketCount = buckets[i].sum();
+      if (bucketCount > 0) {
+        long upperBound = upperBound(i);
+        nonEmptyBuckets.put(upperBound == Long.MAX_VALUE ? "inf" : "<" + upperBound, bucketCount);
+      }
+    }
+
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("count", count());
+    map.put("totalNanos", totalNanos());
+    map.put("p50Nanos", percentileNanos(50));
+    map.put("p99Nanos", percentileNanos(99));
+    map.put("buckets", nonEmptyBuckets);
+    return map;
+  }
+
+  /**
+   * Returns the exclusive upper bound of bucket {@code i}, or {@code Long.MAX_VALUE} for the
+   *     buckets whose bound doesn't fit in a long.
+   */
+  private static long upperBound(int i) {
+    return i + 1 >= Long.SIZE - 1 ? Long.MAX_VALUE : 1L << (i + 1);
+  }
+}
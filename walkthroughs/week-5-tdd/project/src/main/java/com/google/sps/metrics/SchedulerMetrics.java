@@ -0,0 +1,185 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects per-phase timings and counters for {@code FindMeetingQuery}. Recording is disabled by
+ *     default; while disabled every call is a single volatile read and nothing is recorded.
+ */
+public final class SchedulerMetrics {
+  /**
+   * The phases of a scheduling query that are timed separately.
+   */
+  public enum Phase {
+    // Picking out the events that involve the requested attendees.
+    FILTER,
+    // Sorting events or times by start.
+    SORT,
+    // Turning events into sorted busy times.
+    CONVERT,
+    // Finding the gaps between busy times.
+    SCAN
+  }
+
+  private static final SchedulerMetrics INSTANCE = new SchedulerMetrics();
+
+  private volatile boolean enabled = false;
+
+  private final LatencyHistogram[] phaseHistograms =
+      new LatencyHistogram[Phase.values().length];
+  private final LatencyHistogram queryHistogram = new LatencyHistogram();
+  private final LongAdder eventsExamined = new LongAdder();
+  private final LongAdder eventsKept = new LongAdder();
+  private final LongAdder queriesStarted = new LongAdder();
+  private final LongAdder queriesJoined = new LongAdder();
+  private final ConcurrentHashMap<Integer, LatencyHistogram> shardHistograms =
+      new ConcurrentHashMap<>();
+
+  private SchedulerMetrics() {
+    for (Phase phase : Phase.values()) {
+      phaseHistograms[phase.ordinal()] = new LatencyHistogram();
+    }
+  }
+
+  /**
+   * Returns the metrics shared by every query in this JVM.
+   */
+  public static SchedulerMetrics getInstance() {
+    return INSTANCE;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Returns the time a phase starts, or 0 when recording is disabled.
+   */
+  public long startTimer() {
+    return enabled ? System.nanoTime() : 0L;
+  }
+
+  /**
+   * Records the time spent in a phase that began at {@code startNanos}.
+   * Time Complexity: O(1)
+   *
+   * @param phase the phase that just finished
+   * @param startNanos the value returned by {@code startTimer} when the phase began
+   */
+  public void recordPhase(Phase phase, long startNanos) {
+    if (startNanos != 0L && enabled) {
+      phaseHistograms[phase.ordinal()].record(System.nanoTime() - startNanos);
+    }
+  }
+
+  /**
+   * Records the time spent by a whole query that began at {@code startNanos}.
+   */
+  public void recordQuery(long startNanos) {
+    if (startNanos != 0L && enabled) {
+      queryHistogram.record(System.nanoTime() - startNanos);
+    }
+  }
+
+  /**
+   * Records how many events a filter looked at and how many of them it kept.
+   */
+  public void recordEvents(int examined, int kept) {
+    if (enabled) {
+      eventsExamined.add(examined);
+      eventsKept.add(kept);
+    }
+  }
+
+  /**
+   * Records whether a query joined an identical one already running instead of starting its own.
+   */
+  public void recordCoalescing(boolean joined) {
+    if (enabled) {
+      (joined ? queriesJoined : queriesStarted).increment();
+    }
+  }
+
+  /**
+   * Records the time one shard took to answer a request that began at {@code startNanos}.
+   */
+  public void recordShard(int shard, long startNanos) {
+    if (startNanos != 0L && enabled) {
+      shardHistograms.computeIfAbsent(shard, key -> new LatencyHistogram())
+          .record(System.nanoTime() - startNanos);
+    }
+  }
+
+  /**
+   * Clears every counter and histogram.
+   */
+  public void reset() {
+    for (LatencyHistogram histogram : phaseHistograms) {
+      histogram.reset();
+    }
+    queryHistogram.reset();
+    eventsExamined.reset();
+    eventsKept.reset();
+    queriesStarted.reset();
+    queriesJoined.reset();
+    shardHistograms.clear();
+  }
+
+  /**
+   * Returns a point-in-time view of the metrics that can be serialised to JSON.
+   */
+  public Map<String, Object> snapshot() {
+    Map<String, Object> phases = new LinkedHashMap<>();
+    for (Phase phase : Phase.values()) {
+      phases.put(phase.name().toLowerCase(), phaseHistograms[phase.ordinal()].toMap());
+    }
+
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("enabled", enabled);
+    map.put("queries", queryHistogram.toMap());
+    map.put("phases", phases);
+    map.put("eventsExamined", eventsExamined.sum());
+    map.put("eventsKept", eventsKept.sum());
+    map.put("coalescing", coalescingSnapshot());
+
+    Map<String, Object> shards = new LinkedHashMap<>();
+    for (Map.Entry<Integer, LatencyHistogram> entry : new TreeMap<>(shardHistograms).entrySet()) {
+      shards.put(String.valueOf(entry.getKey()), entry.getValue().toMap());
+    }
+    map.put("shards", shards);
+    return map;
+  }
+
+  private Map<String, Object> coalescingSnapshot() {
+    long started = queriesStarted.sum();
+    long joined = queriesJoined.sum();
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("started", started);
+    map.put("joined", joined);
+    // The fraction of queries that were answered by somebody else's computation.
+    map.put("rate", started + joined == 0 ? 0.0 : (double) joined / (started + joined));
+    return map;
+  }
+}
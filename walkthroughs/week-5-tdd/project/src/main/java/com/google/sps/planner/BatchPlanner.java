@@ -0,0 +1,182 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.planner;
+
+import com.google.sps.AvailabilityIndex;
+import com.google.sps.TimeRange;
+import com.google.sps.planner.PlannedMeetingRequest.Constraint;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds times for a batch of meetings at once, such as an interview loop. Every meeting is placed
+ *     against one shared {@code AvailabilityIndex}; a placed meeting is reserved in the index for
+ *     its mandatory attendees so the meetings after it see those attendees as busy.
+ *
+ * <p>A meeting with the {@code NONE} constraint starts a chain together with the meetings after
+ *     it that are placed relative to their previous one. Chains are placed one after another,
+ *     each as early as possible, and the search only backtracks within a chain. A planner is not
+ *     safe to use from several threads at once, as it changes its index.
+ */
+public final class BatchPlanner {
+  // Candidate start times inside a free window are tried this many minutes apart.
+  public static final int DEFAULT_STEP_MINUTES = 15;
+  // How many candidate times a plan may try before it gives up.
+  public static final int DEFAULT_MAX_CANDIDATES = 100000;
+
+  private final AvailabilityIndex index;
+  private final int stepMinutes;
+  private final int maxCandidates;
+  // The candidate times the current plan may still try.
+  private int candidatesLeft;
+
+  public BatchPlanner(AvailabilityIndex index) {
+    this(index, DEFAULT_STEP_MINUTES);
+  }
+
+  public BatchPlanner(AvailabilityIndex index, int stepMinutes) {
+    this(index, stepMinutes, DEFAULT_MAX_CANDIDATES);
+  }
+
+  /**
+   * Creates a planner that reserves meetings in {@code index}.
+   *
+   * @param index the availability of every attendee. Must be non-null.
+   * @param stepMinutes how far apart candidate start times are tried. Must be positive.
+   * @param maxCandidates how many candidate times a plan may try before it gives up. Must be
+   *     positive.
+   */
+  public BatchPlanner(AvailabilityIndex index, int stepMinutes, int maxCandidates) {
+    if (index == null) {
+      throw new IllegalArgumentException("index cannot be null");
+    }
+
+    if (stepMinutes <= 0) {
+      throw new IllegalArgumentException("stepMinutes must be positive");
+    }
+
+    if (maxCandidates <= 0) {
+      throw new IllegalArgumentException("maxCandidates must be positive");
+    }
+
+    this.index = index;
+    this.stepMinutes = stepMinutes;
+    this.maxCandidates = maxCandidates;
+  }
+
+  /**
+   * Returns the index the planner reserves meetings in.
+   */
+  public AvailabilityIndex getIndex() {
+    return index;
+  }
+
+  /**
+   * Finds a time for every meeting in {@code requests} that satisfies its constraint and reserves
+   *     those times in the index. Each chain is placed as early as possible; earlier meetings of
+   *     a chain are moved later only when a later meeting of the chain can't be placed otherwise.
+   * Time Complexity: O(min(c^k, b) * n*ln(n)), where c is the number of candidate start times of a
+   *     meeting, k is the length of the longest chain and b is the maximum number of candidates
+   *
+   * @param requests the meetings to place, in order
+   * @return the time of each meeting in the same order as {@code requests}, or an empty list
+   *     if the meetings can't all be placed or the candidates ran out first, in which case the
+   *     index is left unchanged
+   */
+  public List<TimeRange> plan(List<PlannedMeetingRequest> requests) {
+    // A meeting that doesn't fit into an empty plan can't fit into any, so there's no search.
+    for (PlannedMeetingRequest plannedRequest : requests) {
+      long duration = plannedRequest.getRequest().getDuration();
+      if (duration <= 0 || duration > TimeRange.WHOLE_DAY.duration()
+          || index.getFreeTimes(plannedRequest.getRequest().getAttendees(), (int) duration)
+              .isEmpty()) {
+        return Collections.emptyList();
+      }
+    }
+
+    candidatesLeft = maxCandidates;
+    ArrayList<TimeRange> planned = new ArrayList<>(requests.size());
+    int chainStart = 0;
+    while (chainStart < requests.size()) {
+      int chainEnd = chainStart + 1;
+      while (chainEnd < requests.size()
+          && requests.get(chainEnd).getConstraint() != Constraint.NONE) {
+        chainEnd++;
+      }
+
+      if (!planFrom(requests, chainStart, chainEnd, TimeRange.START_OF_DAY, planned)) {
+        for (int i = 0; i < planned.size(); i++) {
+          index.release(requests.get(i).getRequest().getAttendees(), planned.get(i));
+        }
+        return Collections.emptyList();
+      }
+      chainStart = chainEnd;
+    }
+    return planned;
+  }
+
+  /**
+   * Places the meetings of a chain from {@code position} onwards, backtracking over the
+   *     candidate start times of each meeting.
+   *
+   * @param requests every meeting in the batch
+   * @param position the index of the meeting to place next
+   * @param chainEnd the index after the last meeting of the chain
+   * @param prevEnd the end of the meeting placed before {@code position}
+   * @param planned the times of the meetings placed so far
+   * @return whether every remaining meeting of the chain was placed
+   */
+  private boolean planFrom(List<PlannedMeetingRequest> requests, int position, int chainEnd,
+      int prevEnd, ArrayList<TimeRange> planned) {
+    if (position == chainEnd) {
+      return true;
+    }
+
+    PlannedMeetingRequest plannedRequest = requests.get(position);
+    Collection<String> attendees = plannedRequest.getRequest().getAttendees();
+    int durationMinutes = (int) plannedRequest.getRequest().getDuration();
+
+    Constraint constraint = position == 0 ? Constraint.NONE : plannedRequest.getConstraint();
+    int earliestStart = constraint == Constraint.NONE ? TimeRange.START_OF_DAY : prevEnd;
+
+    for (TimeRange window : index.getFreeTimes(attendees, durationMinutes)) {
+      int latestStart = window.end() - durationMinutes;
+      int firstStart = Math.max(window.start(), earliestStart);
+      if (constraint == Constraint.ADJACENT_TO_PREVIOUS) {
+        // Only one start time is possible, so there is nothing to step through.
+        latestStart = Math.min(latestStart, earliestStart);
+      }
+
+      for (int start = firstStart; start <= latestStart; start += stepMinutes) {
+        if (candidatesLeft-- <= 0) {
+          return false;
+        }
+        TimeRange candidate = TimeRange.fromStartDuration(start, durationMinutes);
+        index.reserve(attendees, candidate);
+        planned.add(candidate);
+
+        if (planFrom(requests, position + 1, chainEnd, candidate.end(), planned)) {
+          return true;
+        }
+
+        planned.remove(planned.size() - 1);
+        index.release(attendees, candidate);
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,65 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.planner;
+
+import com.google.sps.MeetingRequest;
+
+/**
+ * A meeting request that is part of a batch, together with how it must be placed relative to the
+ *     meeting before it in the batch.
+ */
+public final class PlannedMeetingRequest {
+  /**
+   * How a meeting must be placed relative to the previous meeting in the batch.
+   */
+  public enum Constraint {
+    // The meeting can take place at any time.
+    NONE,
+    // The meeting must start at or after the end of the previous meeting.
+    AFTER_PREVIOUS,
+    // The meeting must start exactly when the previous meeting ends.
+    ADJACENT_TO_PREVIOUS
+  }
+
+  private final MeetingRequest request;
+  private final Constraint constraint;
+
+  /**
+   * Creates a new planned meeting request.
+   *
+   * @param request The meeting to find a time for. Must be non-null.
+   * @param constraint How the meeting is placed relative to the previous one. Must be non-null.
+   */
+  public PlannedMeetingRequest(MeetingRequest request, Constraint constraint) {
+    if (request == null) {
+      throw new IllegalArgumentException("request cannot be null");
+    }
+
+    if (constraint == null) {
+      throw new IllegalArgumentException("constraint cannot be null. Use NONE instead.");
+    }
+
+    this.request = request;
+    this.constraint = constraint;
+  }
+
+  public MeetingRequest getRequest() {
+    return request;
+  }
+
+  public Constraint getConstraint() {
+    return constraint;
+  }
+}
@@ -21,6 +21,7 @@ import com.google.sps.algorithms.MergeSort;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.function.Predicate;
 import java.util.Set;
@@ -42,9 +43,9 @@ public final class IsIntersection implements Predicate<Event> {
     ArrayList<String> attendeesList = Collections.list(Collections.enumeration
         (attendees));
 
-    // order the array
+    // order the array the same way BinarySearch compares strings
     MergeSort<String> merge = new MergeSort<String>();
-    merge.sort(attendeesList, String.CASE_INSENSITIVE_ORDER);
+    merge.sort(attendeesList, Comparator.<String>naturalOrder());
 
     String[] attendeesArray = new String[attendeesList.size()];
     attendeesArray = attendeesList.toArray(attendeesArray);
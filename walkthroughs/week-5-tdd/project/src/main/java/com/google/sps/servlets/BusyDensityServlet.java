@@ -0,0 +1,77 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.BusyDensity;
+import com.google.sps.EventStore;
+import com.google.sps.WorkingHoursProfiles;
+import com.google.sps.json.SchedulerJson;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Returns how many of a group are busy over the day for a team heatmap, e.g.
+ *     {@code /busy-density?attendee=Ava&attendee=Liam&resolution=15}. Each count is the most
+ *     people busy at once within a bucket of {@code resolution} minutes (1 by default). Like every
+ *     other endpoint, people with working hours count as busy outside them today.
+ */
+@WebServlet("/busy-density")
+public class BusyDensityServlet extends HttpServlet {
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    int resolution;
+    try {
+      String resolutionParameter = request.getParameter("resolution");
+      resolution = resolutionParameter == null ? 1 : Integer.parseInt(resolutionParameter);
+    } catch (NumberFormatException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "resolution must be a number");
+      return;
+    }
+
+    String[] attendeesParameter = request.getParameterValues("attendee");
+    List<String> attendees = attendeesParameter == null
+        ? Collections.emptyList() : Arrays.asList(attendeesParameter);
+
+    WorkingHoursProfiles profiles = WorkingHoursProfiles.getInstance();
+    int[] counts;
+    try {
+      counts = BusyDensity.bucket(
+          BusyDensity.perMinute(EventStore.getInstance().getAvailabilityIndex(), attendees,
+              profiles, LocalDate.now(profiles.getDayZone())),
+          resolution);
+    } catch (IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+
+    Map<String, Object> density = new LinkedHashMap<>();
+    density.put("resolution", resolution);
+    density.put("counts", counts);
+    String jsonResponse = SchedulerJson.gson().toJson(density);
+
+    // Send the JSON back as the response
+    response.setContentType("application/json");
+    response.getWriter().println(jsonResponse);
+  }
+}
@@ -0,0 +1,85 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.JsonParseException;
+import com.google.sps.ConflictExplainer;
+import com.google.sps.ConflictExplainer.Conflict;
+import com.google.sps.EventStore;
+import com.google.sps.MeetingRequest;
+import com.google.sps.WorkingHoursProfiles;
+import com.google.sps.json.SchedulerJson;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Explains who blocks the meeting request in the body, which is the same JSON {@code /query}
+ *     takes, e.g. {@code /explain?windows=5&step=15}. Returns the {@code windows} best candidate
+ *     windows (5 by default), starting every {@code step} minutes (15 by default), each as
+ *     {@code {"when": ..., "mandatory": [...], "optional": [...], "events": [...]}}. Like
+ *     {@code /query}, attendees are busy outside their working hours today.
+ */
+@WebServlet("/explain")
+public class ExplainServlet extends HttpServlet {
+  private static final int DEFAULT_WINDOWS = 5;
+  private static final int MAX_WINDOWS = 50;
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    int windows;
+    int step;
+    try {
+      String windowsParameter = request.getParameter("windows");
+      windows = windowsParameter == null
+          ? DEFAULT_WINDOWS : Math.min(Integer.parseInt(windowsParameter), MAX_WINDOWS);
+      String stepParameter = request.getParameter("step");
+      step = stepParameter == null
+          ? ConflictExplainer.DEFAULT_STEP_MINUTES : Integer.parseInt(stepParameter);
+    } catch (NumberFormatException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "windows and step must be numbers");
+      return;
+    }
+
+    MeetingRequest meetingRequest;
+    try {
+      meetingRequest = SchedulerJson.gson().fromJson(request.getReader(), MeetingRequest.class);
+    } catch (JsonParseException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "invalid meeting request");
+      return;
+    }
+    if (meetingRequest == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "missing meeting request");
+      return;
+    }
+
+    List<Conflict> conflicts;
+    try {
+      WorkingHoursProfiles profiles = WorkingHoursProfiles.getInstance();
+      conflicts = EventStore.getInstance().getConflictExplainer().explain(meetingRequest,
+          windows, step, profiles, LocalDate.now(profiles.getDayZone()));
+    } catch (IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+
+    response.setContentType("application/json");
+    SchedulerJson.gson().toJson(conflicts, response.getWriter());
+  }
+}
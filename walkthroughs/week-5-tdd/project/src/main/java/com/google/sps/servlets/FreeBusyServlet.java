@@ -0,0 +1,76 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.AvailabilityIndex;
+import com.google.sps.EventStore;
+import com.google.sps.FreeBusyEncoding;
+import com.google.sps.FreeBusyEncoding.Format;
+import com.google.sps.WorkingHoursProfiles;
+import com.google.sps.json.SchedulerJson;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Returns the busy times of one or more attendees, e.g.
+ *     {@code /free-busy?attendee=Ava&attendee=Liam&format=rle}, as
+ *     {@code {"format": "RLE", "attendees": {"Ava": "<base64>", ...}}}. See
+ *     {@code FreeBusyEncoding} for the formats. Like every other endpoint, people with working
+ *     hours are busy outside them today.
+ */
+@WebServlet("/free-busy")
+public class FreeBusyServlet extends HttpServlet {
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    Format format;
+    try {
+      String formatName = request.getParameter("format");
+      format = formatName == null ? Format.RLE : Format.valueOf(formatName.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "format must be rle or bitmap");
+      return;
+    }
+
+    String[] attendees = request.getParameterValues("attendee");
+    AvailabilityIndex index = EventStore.getInstance().getAvailabilityIndex();
+    WorkingHoursProfiles profiles = WorkingHoursProfiles.getInstance();
+    LocalDate today = LocalDate.now(profiles.getDayZone());
+    Map<String, String> encoded = new LinkedHashMap<>();
+    if (attendees != null) {
+      for (String attendee : attendees) {
+        List<int[]> busyTimes = profiles.isEmpty()
+            ? index.getBusyTimes(attendee)
+            : index.getBusySet(attendee).union(profiles.offHours(attendee, today)).toTimes();
+        encoded.put(attendee, FreeBusyEncoding.encode(busyTimes, format));
+      }
+    }
+
+    Map<String, Object> freeBusy = new LinkedHashMap<>();
+    freeBusy.put("format", format);
+    freeBusy.put("attendees", encoded);
+    String jsonResponse = SchedulerJson.gson().toJson(freeBusy);
+
+    // Send the JSON back as the response
+    response.setContentType("application/json");
+    response.getWriter().println(jsonResponse);
+  }
+}
@@ -14,7 +14,8 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
+import com.google.sps.EventStore;
+import com.google.sps.json.SchedulerJson;
 import com.google.gson.Gson;
 import java.io.IOException;
 import javax.servlet.annotation.WebServlet;
@@ -26,8 +27,8 @@ import javax.servlet.http.HttpServletResponse;
 public class GetEventsServlet extends HttpServlet {
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
-    String jsonResponse = gson.toJson(Events.events);
+    Gson gson = SchedulerJson.gson();
+    String jsonResponse = gson.toJson(EventStore.getInstance().getEvents());
 
     // Send the JSON back as the response
     response.setContentType("application/json");
@@ -14,49 +14,318 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
+import com.google.sps.AvailabilityView;
+import com.google.sps.Deadline;
+import com.google.sps.DeadlineExceededException;
+import com.google.sps.EventStore;
 import com.google.sps.FindMeetingQuery;
 import com.google.sps.MeetingRequest;
+import com.google.sps.QueryCoalescer;
 import com.google.sps.TimeRange;
-import com.google.gson.Gson;
+import com.google.sps.WorkingHoursProfiles;
+import com.google.sps.json.SchedulerJson;
+import com.google.sps.shard.HttpShard;
+import com.google.sps.shard.ShardedScheduler;
+import com.google.gson.JsonParseException;
 import java.io.IOException;
-import java.util.Arrays;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-@WebServlet("/query")
+/**
+ * Finds the possible times for the meeting request in the body. Pass {@code format=compact} to
+ *     get the times back as one flat [start, end, start, end, ...] array of minutes instead of
+ *     an array of {start, duration} objects.
+ *
+ * <p>Queries run on a bounded pool of worker threads so that the container thread is released
+ *     while they run. Each query gets a deadline, {@code deadlineMillis} if given and otherwise
+ *     five seconds, and answers 504 once it passes. When every worker is busy and the queue is
+ *     full, the request is turned away at once with 503 and a Retry-After header. Identical
+ *     requests that arrive while one is running wait for its answer, see {@code QueryCoalescer}.
+ */
+@WebServlet(urlPatterns = "/query", asyncSupported = true)
 public class QueryServlet extends HttpServlet {
+  /**
+   * Where the busy times live. Leave it unset to answer from this JVM's {@code EventStore}, set
+   *     it to a number of shards to partition the store in-process, or to a comma-separated list
+   *     of {@code ShardServer} URLs, in shard order, to fan queries out over HTTP.
+   */
+  public static final String SHARDS_PROPERTY = "scheduler.shards";
+
+  private static final int MAX_QUEUED_QUERIES = 64;
+  private static final long DEFAULT_DEADLINE_MILLIS = 5000;
+  private static final long MAX_DEADLINE_MILLIS = 30000;
+  private static final String RETRY_AFTER_SECONDS = "1";
+
+  // How long after the deadline the container gives up on a worker that hasn't answered yet.
+  private static final long ASYNC_TIMEOUT_SLACK_MILLIS = 1000;
+
+  // How many per-day busy sets the availability view keeps in memory and on disk.
+  private static final int VIEW_MAX_ENTRIES = 4096;
+  private static final int VIEW_MAX_SPILLED_ENTRIES = 65536;
+
+  private final QueryCoalescer coalescer = new QueryCoalescer();
+  private ThreadPoolExecutor executor;
+
+  // Answers queries against the local store without filtering events; null with shards.
+  private AvailabilityView view;
+  private Path viewDirectory;
+
+  // Set up by init from SHARDS_PROPERTY.
+  private ShardedScheduler remoteShards;
+  private int numLocalShards = 0;
+  private ExecutorService shardExecutor;
+
+  // The in-process shards of the last version of the store they were built for.
+  private ShardedScheduler localShards;
+  private long localShardsVersion;
+
+  @Override
+  public void init() throws ServletException {
+    int numThreads = Runtime.getRuntime().availableProcessors();
+    AtomicInteger threadCount = new AtomicInteger();
+    executor = new ThreadPoolExecutor(numThreads, numThreads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(MAX_QUEUED_QUERIES), runnable -> {
+          Thread thread = new Thread(runnable, "query-worker-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+
+    String shards = System.getProperty(SHARDS_PROPERTY, "").trim();
+    if (shards.isEmpty()) {
+      try {
+        viewDirectory = Files.createTempDirectory("availability-view");
+      } catch (IOException e) {
+        throw new ServletException("cannot create a directory for the availability view", e);
+      }
+      view = new AvailabilityView(EventStore.getInstance(), WorkingHoursProfiles.getInstance(),
+          VIEW_MAX_ENTRIES, viewDirectory, VIEW_MAX_SPILLED_ENTRIES);
+      return;
+    }
+    AtomicInteger shardThreadCount = new AtomicInteger();
+    shardExecutor = Executors.newFixedThreadPool(2 * numThreads, runnable -> {
+      Thread thread = new Thread(runnable, "shard-client-" + shardThreadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    if (shards.matches("\\d+")) {
+      numLocalShards = Integer.parseInt(shards);
+      return;
+    }
+    try {
+      List<HttpShard> httpShards = new ArrayList<>();
+      for (String url : shards.split(",")) {
+        httpShards.add(new HttpShard(url.trim()));
+      }
+      remoteShards = new ShardedScheduler(httpShards, shardExecutor);
+    } catch (IOException e) {
+      throw new ServletException("invalid " + SHARDS_PROPERTY + ": " + shards, e);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdownNow();
+    if (view != null) {
+      view.close();
+      viewDirectory.toFile().delete();
+    }
+    if (shardExecutor != null) {
+      shardExecutor.shutdownNow();
+    }
+  }
+
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
+    long deadlineMillis;
+    try {
+      String deadlineParameter = request.getParameter("deadlineMillis");
+      deadlineMillis = deadlineParameter == null
+          ? DEFAULT_DEADLINE_MILLIS
+          : Math.min(Long.parseLong(deadlineParameter), MAX_DEADLINE_MILLIS);
+      if (deadlineMillis <= 0) {
+        throw new NumberFormatException();
+      }
+    } catch (NumberFormatException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+          "deadlineMillis must be a positive number");
+      return;
+    }
 
     // Convert the JSON to an instance of MeetingRequest.
-    MeetingRequest meetingRequest = gson.fromJson(request.getReader(), MeetingRequest.class);
-
-    // Find the possible meeting times.
-    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
-    Collection<TimeRange> answer;
+    MeetingRequest meetingRequest;
     try {
-      answer =
-          findMeetingQuery.query(Arrays.asList(Events.events), meetingRequest);
-    } catch (Exception e) {
-      String errorMessage = "Servlet Error: " + e.getMessage();
-      System.err.println(errorMessage);
-
-      String jsonErrorMessage = new Gson().toJson(errorMessage);
-      response.setContentType("application/json;");
-      response.getWriter().println(jsonErrorMessage);
+      meetingRequest = SchedulerJson.gson().fromJson(request.getReader(), MeetingRequest.class);
+    } catch (JsonParseException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "invalid meeting request");
+      return;
+    }
+    if (meetingRequest == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "missing meeting request");
       return;
     }
 
-    // Convert the times to JSON
-    String jsonResponse = gson.toJson(answer);
+    // Identical queries against the same version of the calendar and of the working hours, for
+    //     the same day, share one computation. Attendees with working hours are busy outside
+    //     them today. The events are read with their version so that the shared answer is
+    //     computed from exactly the calendar its key names.
+    EventStore.VersionedEvents calendar = EventStore.getInstance().getVersionedEvents();
+    WorkingHoursProfiles profiles = WorkingHoursProfiles.getInstance();
+    LocalDate today = LocalDate.now(profiles.getDayZone());
+    Deadline deadline = Deadline.after(deadlineMillis, TimeUnit.MILLISECONDS);
+    AsyncContext asyncContext = request.startAsync();
+    asyncContext.setTimeout(deadlineMillis + ASYNC_TIMEOUT_SLACK_MILLIS);
+    QueryCoalescer.Ticket ticket = coalescer.join(meetingRequest, calendar.getVersion(),
+        profiles.getVersion(), today, deadline, executor,
+        (sharedRequest, sharedDeadline) ->
+            answer(calendar, profiles, today, sharedRequest, sharedDeadline));
+
+    PendingQuery pending = new PendingQuery(asyncContext, ticket,
+        "compact".equals(request.getParameter("format")));
+    asyncContext.addListener(pending);
+    ticket.result().whenComplete(pending::respond);
+  }
+
+  /**
+   * Finds the possible meeting times on {@code date} among {@code calendar}, from the shards if
+   *     there are any. Remote shards hold their own copy of the events and answer from that.
+   */
+  private Collection<TimeRange> answer(EventStore.VersionedEvents calendar,
+      WorkingHoursProfiles profiles, LocalDate date, MeetingRequest meetingRequest,
+      Deadline deadline) throws Exception {
+    if (remoteShards != null) {
+      return remoteShards.query(meetingRequest, deadline, profiles, date);
+    }
+    if (numLocalShards > 0) {
+      return getLocalShards(calendar).query(meetingRequest, deadline, profiles, date);
+    }
+    // The view has the busy times of the attendees asked about recently already merged with
+    //     their working hours. It only answers for the events it is up to date with and
+    //     otherwise leaves the query to filter them.
+    return new FindMeetingQuery(view, date).query(calendar.getEvents(), meetingRequest, deadline);
+  }
+
+  /**
+   * Returns in-process shards of {@code calendar}. The shards of the newest version asked about
+   *     are kept, so they are only partitioned again once the store changed; a query that still
+   *     holds an older version gets shards of its own.
+   */
+  private synchronized ShardedScheduler getLocalShards(EventStore.VersionedEvents calendar) {
+    long version = calendar.getVersion();
+    if (localShards != null && localShardsVersion == version) {
+      return localShards;
+    }
+    ShardedScheduler shards = ShardedScheduler.local(calendar.getEvents(), numLocalShards,
+        shardExecutor);
+    if (localShards == null || localShardsVersion < version) {
+      localShards = shards;
+      localShardsVersion = version;
+    }
+    return shards;
+  }
+
+  /**
+   * One request waiting for its answer. Whichever of the answer and the container's timeout
+   *     claims it first writes the response.
+   */
+  private static final class PendingQuery implements AsyncListener {
+    private final AsyncContext asyncContext;
+    private final QueryCoalescer.Ticket ticket;
+    private final boolean compact;
+    private final AtomicBoolean answered = new AtomicBoolean(false);
+
+    PendingQuery(AsyncContext asyncContext, QueryCoalescer.Ticket ticket, boolean compact) {
+      this.asyncContext = asyncContext;
+      this.ticket = ticket;
+      this.compact = compact;
+    }
+
+    /**
+     * Returns true for exactly one caller, which then owns the response.
+     */
+    private boolean claim() {
+      return answered.compareAndSet(false, true);
+    }
+
+    /**
+     * Writes the answer, or the reason there is none, unless the response was already written.
+     */
+    void respond(Collection<TimeRange> answer, Throwable error) {
+      if (!claim()) {
+        return;
+      }
+      HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+      try {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        if (cause instanceof RejectedExecutionException) {
+          // Shed load instead of queueing without limit.
+          response.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+          response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "too many queries");
+        } else if (cause instanceof DeadlineExceededException) {
+          response.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT, cause.getMessage());
+        } else if (cause != null) {
+          String errorMessage = "Servlet Error: " + cause.getMessage();
+          System.err.println(errorMessage);
+          response.setContentType("application/json;");
+          response.getWriter().println(SchedulerJson.gson().toJson(errorMessage));
+        } else {
+          // Stream the times back as JSON
+          response.setContentType("application/json");
+          if (compact) {
+            SchedulerJson.writeCompact(answer, response.getWriter());
+          } else {
+            SchedulerJson.gson().toJson(answer, response.getWriter());
+          }
+        }
+        asyncContext.complete();
+      } catch (IOException | IllegalStateException e) {
+        // The client went away or the container already gave up on the request.
+        System.err.println("Servlet Error: " + e.getMessage());
+      }
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) throws IOException {
+      ticket.leave();
+      if (claim()) {
+        HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+        response.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT, "deadline exceeded");
+        asyncContext.complete();
+      }
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      // Nobody is waiting for this answer any more.
+      ticket.leave();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      ticket.leave();
+    }
 
-    // Send the JSON back as the response
-    response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    @Override
+    public void onStartAsync(AsyncEvent event) {}
   }
 }
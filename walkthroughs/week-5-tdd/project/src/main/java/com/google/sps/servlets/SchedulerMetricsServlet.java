@@ -0,0 +1,59 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.metrics.SchedulerMetrics;
+import com.google.sps.json.SchedulerJson;
+import java.io.IOException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Reports the scheduler metrics. POST with {@code enabled=true|false} turns recording on or off
+ *     and {@code reset=true} clears what has been recorded so far.
+ */
+@WebServlet("/scheduler-metrics")
+public class SchedulerMetricsServlet extends HttpServlet {
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    sendSnapshot(response);
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    SchedulerMetrics metrics = SchedulerMetrics.getInstance();
+
+    String enabled = request.getParameter("enabled");
+    if (enabled != null) {
+      metrics.setEnabled(Boolean.parseBoolean(enabled));
+    }
+
+    if (Boolean.parseBoolean(request.getParameter("reset"))) {
+      metrics.reset();
+    }
+
+    sendSnapshot(response);
+  }
+
+  private void sendSnapshot(HttpServletResponse response) throws IOException {
+    String jsonResponse = SchedulerJson.gson().toJson(SchedulerMetrics.getInstance().snapshot());
+
+    // Send the JSON back as the response
+    response.setContentType("application/json");
+    response.getWriter().println(jsonResponse);
+  }
+}
@@ -0,0 +1,76 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.EventStore;
+import com.google.sps.SchedulerSnapshot;
+import com.google.sps.SnapshotSaver;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+/**
+ * Warm-starts the {@code EventStore} from a snapshot file and keeps the file up to date. Set
+ *     {@code scheduler.snapshot} to the path of the file to turn this on; the store is saved
+ *     every {@code scheduler.snapshot.periodSeconds} seconds (60 by default) when it has changed,
+ *     and once more on shutdown. A missing or damaged file leaves the built-in events in place.
+ */
+@WebListener
+public class SnapshotListener implements ServletContextListener {
+  public static final String SNAPSHOT_PROPERTY = "scheduler.snapshot";
+  public static final String PERIOD_PROPERTY = "scheduler.snapshot.periodSeconds";
+
+  private static final long DEFAULT_PERIOD_SECONDS = 60;
+
+  private SnapshotSaver saver;
+
+  @Override
+  public void contextInitialized(ServletContextEvent event) {
+    String file = System.getProperty(SNAPSHOT_PROPERTY, "").trim();
+    if (file.isEmpty()) {
+      return;
+    }
+    Path path = Paths.get(file);
+    EventStore store = EventStore.getInstance();
+    saver = new SnapshotSaver(store, path);
+
+    if (Files.exists(path)) {
+      try {
+        store.restore(SchedulerSnapshot.readFrom(path));
+        saver.markSaved(store.getVersion());
+      } catch (IOException e) {
+        System.err.println("Snapshot Error: " + e.getMessage());
+      }
+    }
+    saver.start(Long.getLong(PERIOD_PROPERTY, DEFAULT_PERIOD_SECONDS), TimeUnit.SECONDS);
+  }
+
+  @Override
+  public void contextDestroyed(ServletContextEvent event) {
+    if (saver == null) {
+      return;
+    }
+    try {
+      saver.close();
+    } catch (IOException e) {
+      System.err.println("Snapshot Error: " + e.getMessage());
+    }
+  }
+}
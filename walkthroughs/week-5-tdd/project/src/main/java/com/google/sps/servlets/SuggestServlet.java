@@ -0,0 +1,99 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.JsonParseException;
+import com.google.sps.EventStore;
+import com.google.sps.MeetingRequest;
+import com.google.sps.SlotSelector;
+import com.google.sps.SlotSelector.ScoredSlot;
+import com.google.sps.TimeRange;
+import com.google.sps.WeightedSlotScorer;
+import com.google.sps.WorkingHoursProfiles;
+import com.google.sps.json.SchedulerJson;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Suggests the best slots for the meeting request in the body, which is the same JSON
+ *     {@code /query} takes, e.g. {@code /suggest?n=5&step=15&preferredStart=540&preferredEnd=1020}.
+ *     Returns at most {@code n} slots (5 by default), best first, each as
+ *     {@code {"when": ..., "score": ..., "optionalAvailable": ...}}. Slots start every
+ *     {@code step} minutes (15 by default) and are scored by {@code WeightedSlotScorer} with the
+ *     preferred hours given in minutes, 9:00 to 17:00 by default. Like {@code /query}, attendees
+ *     are busy outside their working hours today.
+ */
+@WebServlet("/suggest")
+public class SuggestServlet extends HttpServlet {
+  private static final int DEFAULT_SLOTS = 5;
+  private static final int MAX_SLOTS = 50;
+  private static final int DEFAULT_PREFERRED_START = TimeRange.getTimeInMinutes(9, 0);
+  private static final int DEFAULT_PREFERRED_END = TimeRange.getTimeInMinutes(17, 0);
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    int n;
+    int step;
+    int preferredStart;
+    int preferredEnd;
+    try {
+      n = Math.min(intParameter(request, "n", DEFAULT_SLOTS), MAX_SLOTS);
+      step = intParameter(request, "step", SlotSelector.DEFAULT_STEP_MINUTES);
+      preferredStart = intParameter(request, "preferredStart", DEFAULT_PREFERRED_START);
+      preferredEnd = intParameter(request, "preferredEnd", DEFAULT_PREFERRED_END);
+    } catch (NumberFormatException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+          "n, step, preferredStart and preferredEnd must be numbers");
+      return;
+    }
+
+    MeetingRequest meetingRequest;
+    try {
+      meetingRequest = SchedulerJson.gson().fromJson(request.getReader(), MeetingRequest.class);
+    } catch (JsonParseException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "invalid meeting request");
+      return;
+    }
+    if (meetingRequest == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "missing meeting request");
+      return;
+    }
+
+    List<ScoredSlot> slots;
+    try {
+      WeightedSlotScorer scorer =
+          WeightedSlotScorer.DEFAULT.withPreferredHours(preferredStart, preferredEnd);
+      WorkingHoursProfiles profiles = WorkingHoursProfiles.getInstance();
+      slots = SlotSelector.suggest(EventStore.getInstance().getEvents(), meetingRequest, n, step,
+          scorer, profiles, LocalDate.now(profiles.getDayZone()));
+    } catch (IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+
+    response.setContentType("application/json");
+    SchedulerJson.gson().toJson(slots, response.getWriter());
+  }
+
+  private static int intParameter(HttpServletRequest request, String name, int defaultValue) {
+    String value = request.getParameter(name);
+    return value == null ? defaultValue : Integer.parseInt(value);
+  }
+}
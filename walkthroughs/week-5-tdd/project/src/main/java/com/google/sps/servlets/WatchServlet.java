@@ -0,0 +1,247 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.JsonParseException;
+import com.google.sps.EventStore;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import com.google.sps.WatchRegistry;
+import com.google.sps.WorkingHoursProfiles;
+import com.google.sps.json.SchedulerJson;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Streams the available times of a meeting request as Server-Sent Events, e.g.
+ *     {@code /watch?request={"attendees":["Ava"],"duration":30}}. The request is the same JSON
+ *     {@code /query} takes, passed as a parameter because {@code EventSource} can only GET. The
+ *     current times are sent at once and then again whenever a change to the events or to the
+ *     working hours changes them, each as one {@code data:} line holding the compact
+ *     [start, end, ...] array.
+ *
+ * <p>Updates are queued per stream and written with non-blocking I/O on container threads, so a
+ *     slow client never holds up the watches of the others. A client that falls behind only gets
+ *     the latest few updates, since each one holds all of the current times.
+ *
+ * <p>Streams are closed after ten minutes; browsers reconnect on their own and get the current
+ *     times again.
+ */
+@WebServlet(urlPatterns = "/watch", asyncSupported = true)
+public class WatchServlet extends HttpServlet {
+  private static final long STREAM_MILLIS = TimeUnit.MINUTES.toMillis(10);
+  private static final long RETRY_MILLIS = 3000;
+  // How many updates a stream holds for a client that reads slowly before dropping the oldest.
+  private static final int MAX_QUEUED_UPDATES = 8;
+
+  private WatchRegistry registry;
+
+  @Override
+  public void init() {
+    registry = new WatchRegistry(EventStore.getInstance(), WorkingHoursProfiles.getInstance());
+  }
+
+  @Override
+  public void destroy() {
+    registry.close();
+  }
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    String json = request.getParameter("request");
+    if (json == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "missing meeting request");
+      return;
+    }
+    MeetingRequest meetingRequest;
+    try {
+      meetingRequest = SchedulerJson.gson().fromJson(json, MeetingRequest.class);
+    } catch (JsonParseException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "invalid meeting request");
+      return;
+    }
+    if (meetingRequest == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "missing meeting request");
+      return;
+    }
+
+    response.setContentType("text/event-stream");
+    response.setCharacterEncoding("UTF-8");
+    response.setHeader("Cache-Control", "no-cache");
+    ServletOutputStream out = response.getOutputStream();
+    out.write(("retry: " + RETRY_MILLIS + "\n\n").getBytes(StandardCharsets.UTF_8));
+    response.flushBuffer();
+
+    AsyncContext asyncContext = request.startAsync();
+    asyncContext.setTimeout(STREAM_MILLIS);
+    Stream stream = new Stream(asyncContext, out);
+    asyncContext.addListener(stream);
+    out.setWriteListener(stream);
+    stream.attach(registry.watch(meetingRequest, stream::send));
+  }
+
+  /**
+   * One open event stream. Ends its watch as soon as the stream closes or can't be written.
+   *     Updates are only queued by the thread that evaluates watches; they are written by
+   *     whichever container thread drains the queue, one at a time.
+   */
+  private static final class Stream implements AsyncListener, WriteListener {
+    private final AsyncContext asyncContext;
+    private final ServletOutputStream out;
+    // Guarded by this.
+    private final ArrayDeque<byte[]> pending = new ArrayDeque<>();
+    private WatchRegistry.Watch watch;
+    private boolean closed = false;
+    // Whether a container thread is draining the queue or will be called back to. The
+    //     container calls onWritePossible once as soon as the listener is set.
+    private boolean draining = true;
+
+    Stream(AsyncContext asyncContext, ServletOutputStream out) {
+      this.asyncContext = asyncContext;
+      this.out = out;
+    }
+
+    /**
+     * Remembers the watch feeding this stream, or cancels it if the stream already closed.
+     */
+    synchronized void attach(WatchRegistry.Watch newWatch) {
+      if (closed) {
+        newWatch.cancel();
+      } else {
+        watch = newWatch;
+      }
+    }
+
+    /**
+     * Queues {@code available} to be sent and makes sure a container thread drains the queue.
+     *     Never writes to the client itself.
+     */
+    void send(Collection<TimeRange> available) {
+      StringWriter data = new StringWriter();
+      try {
+        SchedulerJson.writeCompact(available, data);
+      } catch (IOException e) {
+        // A StringWriter doesn't throw.
+        throw new IllegalStateException(e);
+      }
+      byte[] message = ("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+        if (pending.size() == MAX_QUEUED_UPDATES) {
+          pending.poll();
+        }
+        pending.add(message);
+        if (draining) {
+          return;
+        }
+        draining = true;
+      }
+      try {
+        asyncContext.start(this::drain);
+      } catch (IllegalStateException e) {
+        close(false);
+      }
+    }
+
+    /**
+     * Writes queued updates for as long as the client keeps up. Once the stream can't take more
+     *     without blocking, the container calls back when it can.
+     */
+    @Override
+    public void onWritePossible() throws IOException {
+      while (out.isReady()) {
+        byte[] message;
+        synchronized (this) {
+          message = closed ? null : pending.poll();
+          if (message == null) {
+            draining = false;
+            return;
+          }
+        }
+        out.write(message);
+        if (!out.isReady()) {
+          return;
+        }
+        out.flush();
+      }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+      close(true);
+    }
+
+    private void drain() {
+      try {
+        onWritePossible();
+      } catch (IOException | IllegalStateException e) {
+        close(true);
+      }
+    }
+
+    private void close(boolean complete) {
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+        closed = true;
+        pending.clear();
+        if (watch != null) {
+          watch.cancel();
+        }
+      }
+      if (complete) {
+        try {
+          asyncContext.complete();
+        } catch (IllegalStateException e) {
+          // The container already finished the request.
+        }
+      }
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      close(true);
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      close(false);
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      close(false);
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {}
+  }
+}
@@ -0,0 +1,77 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.JsonParseException;
+import com.google.sps.WorkingHours;
+import com.google.sps.WorkingHoursProfiles;
+import com.google.sps.json.SchedulerJson;
+import java.io.IOException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Reads and sets the working hours that {@code /query}, {@code /watch}, {@code /explain},
+ *     {@code /suggest}, {@code /free-busy} and {@code /busy-density} respect. GET returns every
+ *     profile as {@code {"Ava": {"zone": ..., "start": ..., "end": ..., "days": [...]}, ...}};
+ *     POST to {@code /working-hours?attendee=Ava} with one such object sets Ava's, and DELETE
+ *     clears them.
+ */
+@WebServlet("/working-hours")
+public class WorkingHoursServlet extends HttpServlet {
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    response.setContentType("application/json");
+    SchedulerJson.gson().toJson(WorkingHoursProfiles.getInstance().getAll(),
+        response.getWriter());
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    String attendee = request.getParameter("attendee");
+    if (attendee == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "missing attendee");
+      return;
+    }
+    WorkingHours hours;
+    try {
+      hours = SchedulerJson.gson().fromJson(request.getReader(), WorkingHours.class);
+    } catch (JsonParseException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+          "invalid working hours: " + e.getMessage());
+      return;
+    }
+    if (hours == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "missing working hours");
+      return;
+    }
+    WorkingHoursProfiles.getInstance().set(attendee, hours);
+    response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+  }
+
+  @Override
+  public void doDelete(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    String attendee = request.getParameter("attendee");
+    if (attendee == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "missing attendee");
+      return;
+    }
+    WorkingHoursProfiles.getInstance().set(attendee, null);
+    response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+  }
+}
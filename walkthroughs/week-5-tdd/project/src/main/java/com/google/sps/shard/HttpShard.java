@@ -0,0 +1,86 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.shard;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.google.sps.IntervalSet;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A shard served by a {@code ShardServer} in another process, reached over HTTP.
+ */
+public final class HttpShard implements Shard {
+  private static final int DEFAULT_TIMEOUT_MILLIS = 2000;
+
+  private final URL busyUrl;
+  private final int timeoutMillis;
+
+  /**
+   * @param baseUrl where the shard server listens, e.g. {@code http://localhost:8081}
+   */
+  public HttpShard(String baseUrl) throws IOException {
+    this(baseUrl, DEFAULT_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * @param baseUrl where the shard server listens, e.g. {@code http://localhost:8081}
+   * @param timeoutMillis how long to wait to connect and then for the answer
+   */
+  public HttpShard(String baseUrl, int timeoutMillis) throws IOException {
+    this.busyUrl = new URL(baseUrl + ShardProtocol.BUSY_PATH);
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  @Override
+  public List<IntervalSet> busyTimes(List<? extends Collection<String>> groups)
+      throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) busyUrl.openConnection();
+    connection.setConnectTimeout(timeoutMillis);
+    connection.setReadTimeout(timeoutMillis);
+    connection.setRequestMethod("POST");
+    connection.setDoOutput(true);
+    connection.setRequestProperty("Content-Type", "application/json");
+    try (Writer body =
+        new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8)) {
+      ShardProtocol.writeGroups(new JsonWriter(body), groups);
+    }
+
+    int status = connection.getResponseCode();
+    if (status != HttpURLConnection.HTTP_OK) {
+      connection.disconnect();
+      throw new IOException("shard " + busyUrl + " answered " + status);
+    }
+    // Closing the stream instead of disconnecting lets the next request reuse the connection.
+    try (Reader answer =
+        new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+      return ShardProtocol.readBusyTimes(new JsonReader(answer));
+    }
+  }
+
+  @Override
+  public String toString() {
+    return busyUrl.toString();
+  }
+}
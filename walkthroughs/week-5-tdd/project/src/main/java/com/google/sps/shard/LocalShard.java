@@ -0,0 +1,55 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.shard;
+
+import com.google.sps.AvailabilityIndex;
+import com.google.sps.Event;
+import com.google.sps.IntervalSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A shard held in this JVM, backed by an {@code AvailabilityIndex} of the attendees it owns.
+ */
+public final class LocalShard implements Shard {
+  private final AvailabilityIndex index;
+
+  /**
+   * Indexes the busy times of the attendees of {@code events} that {@code router} assigns to
+   *     shard {@code shardIndex}.
+   * Time Complexity: O(n*ln(n))
+   */
+  public LocalShard(Collection<Event> events, ShardRouter router, int shardIndex) {
+    if (shardIndex < 0 || shardIndex >= router.getNumShards()) {
+      throw new IllegalArgumentException("shardIndex is out of range: " + shardIndex);
+    }
+    this.index =
+        AvailabilityIndex.build(events, attendee -> router.shardOf(attendee) == shardIndex);
+  }
+
+  /**
+   * Time Complexity: O(n*ln(k)) per group, where n is the number of busy times of its k
+   *     attendees
+   */
+  @Override
+  public List<IntervalSet> busyTimes(List<? extends Collection<String>> groups) {
+    List<IntervalSet> busyTimes = new ArrayList<>(groups.size());
+    for (Collection<String> group : groups) {
+      busyTimes.add(index.getBusySet(group));
+    }
+    return busyTimes;
+  }
+}
@@ -0,0 +1,37 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.shard;
+
+import com.google.sps.IntervalSet;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * One partition of the attendee to busy-time data. A shard only knows the attendees that its
+ *     {@code ShardRouter} assigns to it and treats every other attendee as always free.
+ */
+public interface Shard {
+  /**
+   * Returns, for each group of attendees, the times when at least one attendee of the group that
+   *     this shard owns is busy.
+   *
+   * @param groups the groups of attendees, e.g. the mandatory and the optional attendees of a
+   *     meeting request
+   * @return one set per group, in the same order
+   * @throws IOException if a remote shard could not be reached
+   */
+  List<IntervalSet> busyTimes(List<? extends Collection<String>> groups) throws IOException;
+}
@@ -0,0 +1,97 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.shard;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.google.sps.IntervalSet;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The wire format between {@code HttpShard} and {@code ShardServer}. A request is a POST to
+ *     {@code /busy} whose body is a JSON array of groups of attendee names, e.g.
+ *     {@code [["Ava", "Liam"], ["Noah"]]}. The response has one flat array of minutes per group,
+ *     {@code [[start0, end0, start1, end1, ...], ...]}, in the same order.
+ */
+final class ShardProtocol {
+  static final String BUSY_PATH = "/busy";
+
+  private ShardProtocol() {
+    // Disallow instances.
+  }
+
+  static void writeGroups(JsonWriter out, List<? extends Collection<String>> groups)
+      throws IOException {
+    out.beginArray();
+    for (Collection<String> group : groups) {
+      out.beginArray();
+      for (String attendee : group) {
+        out.value(attendee);
+      }
+      out.endArray();
+    }
+    out.endArray();
+    out.flush();
+  }
+
+  static List<List<String>> readGroups(JsonReader in) throws IOException {
+    List<List<String>> groups = new ArrayList<>();
+    in.beginArray();
+    while (in.hasNext()) {
+      List<String> group = new ArrayList<>();
+      in.beginArray();
+      while (in.hasNext()) {
+        group.add(in.nextString());
+      }
+      in.endArray();
+      groups.add(group);
+    }
+    in.endArray();
+    return groups;
+  }
+
+  static void writeBusyTimes(JsonWriter out, List<IntervalSet> busyTimes) throws IOException {
+    out.beginArray();
+    for (IntervalSet set : busyTimes) {
+      out.beginArray();
+      for (int i = 0; i < set.size(); i++) {
+        out.value(set.start(i));
+        out.value(set.end(i));
+      }
+      out.endArray();
+    }
+    out.endArray();
+    out.flush();
+  }
+
+  static List<IntervalSet> readBusyTimes(JsonReader in) throws IOException {
+    List<IntervalSet> busyTimes = new ArrayList<>();
+    in.beginArray();
+    while (in.hasNext()) {
+      List<int[]> times = new ArrayList<>();
+      in.beginArray();
+      while (in.hasNext()) {
+        times.add(new int[] {in.nextInt(), in.nextInt()});
+      }
+      in.endArray();
+      busyTimes.add(IntervalSet.fromSortedTimes(times));
+    }
+    in.endArray();
+    return busyTimes;
+  }
+}
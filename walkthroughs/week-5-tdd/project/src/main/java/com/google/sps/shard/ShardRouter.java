@@ -0,0 +1,67 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.shard;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Assigns every attendee to one of a fixed number of shards by the hash of their name.
+ *     {@code String.hashCode} is specified by the language, so every process agrees on the owner
+ *     of an attendee.
+ */
+public final class ShardRouter {
+  private final int numShards;
+
+  /**
+   * @throws IllegalArgumentException if {@code numShards} isn't positive
+   */
+  public ShardRouter(int numShards) {
+    if (numShards <= 0) {
+      throw new IllegalArgumentException("numShards must be positive");
+    }
+    this.numShards = numShards;
+  }
+
+  public int getNumShards() {
+    return numShards;
+  }
+
+  /**
+   * Returns the shard that owns {@code attendee}.
+   * Time Complexity: O(1) for a name of bounded length
+   */
+  public int shardOf(String attendee) {
+    return Math.floorMod(attendee.hashCode(), numShards);
+  }
+
+  /**
+   * Splits {@code attendees} by owning shard.
+   * Time Complexity: O(k + s) where k is the number of attendees and s the number of shards
+   *
+   * @return one list per shard, empty for the shards that own none of {@code attendees}
+   */
+  public List<List<String>> route(Collection<String> attendees) {
+    List<List<String>> routed = new ArrayList<>(numShards);
+    for (int shard = 0; shard < numShards; shard++) {
+      routed.add(new ArrayList<>());
+    }
+    for (String attendee : attendees) {
+      routed.get(shardOf(attendee)).add(attendee);
+    }
+    return routed;
+  }
+}
@@ -0,0 +1,120 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.shard;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.google.sps.EventStore;
+import com.google.sps.IntervalSet;
+import com.google.sps.importer.CalendarImporter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves one {@code LocalShard} over HTTP with the JDK's built-in server, see
+ *     {@code ShardProtocol}. Run one process per shard:
+ *
+ * <pre>
+ * java -cp ... com.google.sps.shard.ShardServer events.json 0 4 8081
+ * </pre>
+ *
+ * The arguments are a JSON file of events in the format {@code GetEventsServlet} writes, the index
+ *     of the shard, the number of shards and the port; port 0 picks a free one. Once the shard is
+ *     loaded the server prints "Listening on port N" on its own line.
+ */
+public final class ShardServer {
+  private final Shard shard;
+  private final HttpServer server;
+
+  /**
+   * Starts serving {@code shard} on {@code port} of the loopback interface, or on a free port
+   *     if {@code port} is 0.
+   */
+  public ShardServer(Shard shard, int port, int numThreads) throws IOException {
+    this.shard = shard;
+    this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+    server.createContext(ShardProtocol.BUSY_PATH, this::handleBusy);
+    server.setExecutor(Executors.newFixedThreadPool(numThreads));
+    server.start();
+  }
+
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Stops accepting requests and waits up to a second for the ones in progress.
+   */
+  public void stop() {
+    server.stop(1);
+  }
+
+  private void handleBusy(HttpExchange exchange) throws IOException {
+    try {
+      if (!"POST".equals(exchange.getRequestMethod())) {
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+
+      List<IntervalSet> busyTimes;
+      try (Reader body =
+          new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+        busyTimes = shard.busyTimes(ShardProtocol.readGroups(new JsonReader(body)));
+      } catch (IOException | IllegalStateException | NumberFormatException e) {
+        // Malformed request.
+        exchange.sendResponseHeaders(400, -1);
+        return;
+      }
+
+      exchange.getResponseHeaders().set("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, 0);
+      try (Writer answer =
+          new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)) {
+        ShardProtocol.writeBusyTimes(new JsonWriter(answer), busyTimes);
+      }
+    } finally {
+      exchange.close();
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length != 4) {
+      System.err.println("usage: ShardServer <events.json> <shard index> <num shards> <port>");
+      System.exit(2);
+    }
+    int shardIndex = Integer.parseInt(args[1]);
+    ShardRouter router = new ShardRouter(Integer.parseInt(args[2]));
+
+    EventStore store = new EventStore();
+    try (Reader events = new FileReader(args[0])) {
+      new CalendarImporter(store).importJson(events);
+    }
+
+    ShardServer server = new ShardServer(new LocalShard(store.getEvents(), router, shardIndex),
+        Integer.parseInt(args[3]), Runtime.getRuntime().availableProcessors());
+    System.out.println("Listening on port " + server.getPort());
+    System.out.flush();
+  }
+}
@@ -0,0 +1,221 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.shard;
+
+import com.google.sps.Deadline;
+import com.google.sps.DeadlineExceededException;
+import com.google.sps.Event;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.IntervalSet;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import com.google.sps.WorkingHoursProfiles;
+import com.google.sps.metrics.SchedulerMetrics;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Answers meeting requests from busy times that are partitioned across shards. A query is sent
+ *     only to the shards that own at least one of its attendees, all at once; their busy times
+ *     are merged and the free times are found locally, exactly as {@code FindMeetingQuery} does.
+ *     Shards only know about events; working hours are applied here, after the merge.
+ */
+public final class ShardedScheduler {
+  private final ShardRouter router;
+  private final List<Shard> shards;
+  private final Executor executor;
+
+  /**
+   * @param shards the shards, in the order {@code ShardRouter} numbers them
+   * @param executor where the requests to the shards run
+   */
+  public ShardedScheduler(List<? extends Shard> shards, Executor executor) {
+    this.router = new ShardRouter(shards.size());
+    this.shards = Collections.unmodifiableList(new ArrayList<Shard>(shards));
+    this.executor = executor;
+  }
+
+  /**
+   * Partitions {@code events} into {@code numShards} shards held in this JVM.
+   * Time Complexity: O(s*n*ln(n)) where s is the number of shards
+   */
+  public static ShardedScheduler local(Collection<Event> events, int numShards,
+      Executor executor) {
+    ShardRouter router = new ShardRouter(numShards);
+    List<Shard> shards = new ArrayList<>(numShards);
+    for (int shard = 0; shard < numShards; shard++) {
+      shards.add(new LocalShard(events, router, shard));
+    }
+    return new ShardedScheduler(shards, executor);
+  }
+
+  public int getNumShards() {
+    return shards.size();
+  }
+
+  /**
+   * Returns the same time ranges as {@code FindMeetingQuery.query} would for all the events of
+   *     every shard.
+   *
+   * @param request The meeting that the user wants to create and find time for
+   * @param deadline when to stop waiting for the shards
+   * @return the available times in chronological order
+   * @throws IOException if a shard couldn't answer
+   * @throws DeadlineExceededException if the shards didn't answer in time
+   */
+  public Collection<TimeRange> query(MeetingRequest request, Deadline deadline)
+      throws IOException, InterruptedException {
+    return query(request, deadline, null, null);
+  }
+
+  /**
+   * Returns the same time ranges as {@code new FindMeetingQuery(profiles, date).query} would for
+   *     all the events of every shard.
+   *
+   * @param request The meeting that the user wants to create and find time for
+   * @param deadline when to stop waiting for the shards
+   * @param profiles the working hours of the attendees, or null for none
+   * @param date the day being scheduled; only used with {@code profiles}
+   * @return the available times in chronological order
+   * @throws IOException if a shard couldn't answer
+   * @throws DeadlineExceededException if the shards didn't answer in time
+   */
+  public Collection<TimeRange> query(MeetingRequest request, Deadline deadline,
+      WorkingHoursProfiles profiles, LocalDate date) throws IOException, InterruptedException {
+    int durationMeetingMinutes = Math.toIntExact(request.getDuration());
+    if (durationMeetingMinutes > TimeRange.WHOLE_DAY.duration() || durationMeetingMinutes < 0) {
+      return new ArrayList<TimeRange>();
+    }
+
+    if (durationMeetingMinutes == 0) {
+      return new ArrayList<TimeRange>(Arrays.asList(TimeRange.WHOLE_DAY));
+    }
+
+    if (request.getQuorum() > 0) {
+      return quorumQuery(request, durationMeetingMinutes, deadline, profiles, date);
+    }
+
+    // Scatter: one request per shard that owns any attendee, with the mandatory and the
+    //     optional attendees it owns as two groups.
+    List<List<String>> mandatory = router.route(request.getAttendees());
+    List<List<String>> optional = router.route(request.getOptionalAttendees());
+    List<CompletableFuture<List<IntervalSet>>> answers = new ArrayList<>();
+    for (int shard = 0; shard < shards.size(); shard++) {
+      if (mandatory.get(shard).isEmpty() && optional.get(shard).isEmpty()) {
+        continue;
+      }
+      answers.add(ask(shard, Arrays.asList(mandatory.get(shard), optional.get(shard))));
+    }
+
+    // Gather
+    List<IntervalSet> mandatoryBusy = new ArrayList<>(answers.size());
+    List<IntervalSet> optionalBusy = new ArrayList<>(answers.size());
+    for (CompletableFuture<List<IntervalSet>> answer : answers) {
+      List<IntervalSet> busyTimes = await(answer, deadline);
+      mandatoryBusy.add(busyTimes.get(0));
+      optionalBusy.add(busyTimes.get(1));
+    }
+
+    if (profiles != null) {
+      mandatoryBusy.add(profiles.offHours(request.getAttendees(), date));
+      optionalBusy.add(profiles.offHours(request.getOptionalAttendees(), date));
+    }
+
+    deadline.check("scanning for available times");
+    return FindMeetingQuery.availableTimeRanges(IntervalSet.union(mandatoryBusy),
+        IntervalSet.union(optionalBusy), durationMeetingMinutes);
+  }
+
+  /**
+   * Answers a request that only a quorum of the attendees need to attend, asking each shard for
+   *     the busy times of every attendee it owns separately.
+   */
+  private Collection<TimeRange> quorumQuery(MeetingRequest request, int durationMeetingMinutes,
+      Deadline deadline, WorkingHoursProfiles profiles, LocalDate date)
+      throws IOException, InterruptedException {
+    List<List<String>> routed = router.route(request.getAttendees());
+    List<CompletableFuture<List<IntervalSet>>> answers = new ArrayList<>();
+    // The attendees in the order their busy times come back.
+    List<String> answered = new ArrayList<>(request.getAttendees().size());
+    for (int shard = 0; shard < shards.size(); shard++) {
+      if (routed.get(shard).isEmpty()) {
+        continue;
+      }
+      answered.addAll(routed.get(shard));
+      List<List<String>> groups = new ArrayList<>(routed.get(shard).size());
+      for (String attendee : routed.get(shard)) {
+        groups.add(Collections.singletonList(attendee));
+      }
+      answers.add(ask(shard, groups));
+    }
+
+    List<IntervalSet> busyPerAttendee = new ArrayList<>(request.getAttendees().size());
+    for (CompletableFuture<List<IntervalSet>> answer : answers) {
+      busyPerAttendee.addAll(await(answer, deadline));
+    }
+    if (profiles != null) {
+      for (int i = 0; i < busyPerAttendee.size(); i++) {
+        busyPerAttendee.set(i,
+            busyPerAttendee.get(i).union(profiles.offHours(answered.get(i), date)));
+      }
+    }
+
+    deadline.check("scanning for quorum times");
+    return FindMeetingQuery.quorumTimeRanges(busyPerAttendee, request.getQuorum(),
+        durationMeetingMinutes);
+  }
+
+  private CompletableFuture<List<IntervalSet>> ask(int shard, List<List<String>> groups) {
+    return CompletableFuture.supplyAsync(() -> {
+      SchedulerMetrics metrics = SchedulerMetrics.getInstance();
+      long start = metrics.startTimer();
+      try {
+        return shards.get(shard).busyTimes(groups);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } finally {
+        metrics.recordShard(shard, start);
+      }
+    }, executor);
+  }
+
+  private static List<IntervalSet> await(CompletableFuture<List<IntervalSet>> answer,
+      Deadline deadline) throws IOException, InterruptedException {
+    try {
+      return answer.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      throw new DeadlineExceededException("deadline exceeded waiting for shards");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) e.getCause()).getCause();
+      }
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+}
@@ -29,13 +29,124 @@ function sendMeetingRequest() {
   // split it into an array of names
   const optionalAttendees = optionalAttendeesNamesString.split(/\s*,\s*/);
 
+  // an empty quorum means everybody has to attend
+  const quorum = Number(document.getElementById('quorum').value) || 0;
+
   // Create the request to send to the server using the data we collected from
   // the web form.
-  const meetingRequest = new MeetingRequest(duration, attendees, optionalAttendees);
+  const meetingRequest =
+      new MeetingRequest(duration, attendees, optionalAttendees, quorum);
 
   queryServer(meetingRequest).then((timeRanges) => {
-    updateResultsOnPage(timeRanges);
+    showResults(meetingRequest, timeRanges);
   });
+  suggestServer(meetingRequest).then(showSuggestionsOnPage);
+  watchServer(meetingRequest);
+}
+
+// The stream of updates for the last meeting request sent, if any.
+let availabilityWatch = null;
+
+/**
+ * Keeps the results up to date: the server pushes the time ranges of the
+ * meeting request again whenever a change to the calendar changes them, so
+ * there is no need to poll.
+ */
+function watchServer(meetingRequest) {
+  if (availabilityWatch !== null) {
+    availabilityWatch.close();
+  }
+  const json = JSON.stringify(meetingRequest);
+  availabilityWatch =
+      new EventSource('/watch?request=' + encodeURIComponent(json));
+  availabilityWatch.onmessage = (message) => {
+    showResults(meetingRequest, boundsToTimeRanges(JSON.parse(message.data)));
+  };
+}
+
+// Counts the previews started, so that a preview whose busy times arrive after
+// a newer one's is dropped.
+let previewsStarted = 0;
+
+/**
+ * Works out in the browser when every attendee in the form is free for the
+ * duration in the form, as the form is edited, without asking the server for
+ * times. The busy times are fetched again for every edit, a few hundred bytes
+ * per attendee, so they are never older than the edit, and include the hours
+ * each attendee is off work. Optional attendees and quorums are left to
+ * Submit.
+ */
+function previewAvailability() {
+  const attendees = document.getElementById('attendees').value
+      .split(/\s*,\s*/).filter((name) => name !== '');
+  const duration = Number(document.getElementById('duration').value) || 0;
+  const started = ++previewsStarted;
+  if (attendees.length === 0) {
+    showPreviewOnPage([]);
+    return;
+  }
+
+  getFreeBusy(attendees).then((busyTimes) => {
+    if (started === previewsStarted) {
+      showPreviewOnPage(freeTimes(
+          attendees.map((name) => busyTimes.get(name) || []), duration));
+    }
+  });
+}
+
+/**
+ * Returns the gaps of at least duration minutes between the busy times of
+ * all the attendees, given as one array of TimeRanges per attendee.
+ */
+function freeTimes(busyTimesPerAttendee, duration) {
+  const busyTimes = [].concat(...busyTimesPerAttendee);
+  busyTimes.sort((a, b) => a.getStartTime() - b.getStartTime());
+
+  const free = [];
+  let freeFrom = 0;
+  for (const busy of busyTimes) {
+    if (busy.getStartTime() - freeFrom >= duration &&
+        busy.getStartTime() > freeFrom) {
+      free.push(new TimeRange(freeFrom, busy.getStartTime() - freeFrom));
+    }
+    freeFrom = Math.max(freeFrom, busy.getEndTime());
+  }
+  if (MINUTES_PER_DAY - freeFrom >= duration && MINUTES_PER_DAY > freeFrom) {
+    free.push(new TimeRange(freeFrom, MINUTES_PER_DAY - freeFrom));
+  }
+  return free;
+}
+
+/**
+ * Updates the UI to show the times worked out by previewAvailability.
+ */
+function showPreviewOnPage(timeRanges) {
+  const previewContainer = document.getElementById('preview');
+  previewContainer.innerHTML = '';
+  for (const range of timeRanges) {
+    previewContainer.innerHTML += '<li>' + timeToString(range.getStartTime()) +
+        ' - ' + timeToString(range.getEndTime()) + '</li>';
+  }
+}
+
+// Counts the results shown, so that explanations of older results are dropped
+// when they arrive late.
+let resultsShown = 0;
+
+/**
+ * Shows the time ranges that work for the meeting request, or, when none do,
+ * who is in the way of the closest candidates.
+ */
+function showResults(meetingRequest, timeRanges) {
+  const shown = ++resultsShown;
+  updateResultsOnPage(timeRanges);
+  if (timeRanges.length === 0) {
+    explainServer(meetingRequest).then((conflicts) => {
+      if (shown === resultsShown) {
+        showConflictsOnPage(conflicts);
+      }
+    });
+  }
 }
 
 /**
@@ -54,25 +165,86 @@ function updateResultsOnPage(timeRanges) {
   }
 }
 
+/**
+ * Adds the candidate windows and whoever blocks them to the results.
+ */
+function showConflictsOnPage(conflicts) {
+  const resultsContainer = document.getElementById('results');
+  for (const conflict of conflicts) {
+    const range = new TimeRange(conflict.when.start, conflict.when.duration);
+    const blockers = conflict.mandatory.concat(conflict.optional.map(
+        (name) => name + ' (optional)'));
+    const events = conflict.events.map((event) => event.title);
+    resultsContainer.innerHTML += '<li>' + timeToString(range.getStartTime()) +
+        ' - ' + timeToString(range.getEndTime()) + ' blocked by ' +
+        blockers.join(', ') + ' in ' + events.join(', ') + '</li>';
+  }
+}
+
+/**
+ * Asks the server who blocks the best candidate windows for the meeting
+ * request.
+ */
+function explainServer(meetingRequest) {
+  const json = JSON.stringify(meetingRequest);
+  return fetch('/explain', {method: 'POST', body: json})
+      .then((response) => {
+        return response.json();
+      });
+}
+
+/**
+ * Lists the best slots suggested by the server, best first.
+ */
+function showSuggestionsOnPage(slots) {
+  const suggestionsContainer = document.getElementById('suggestions');
+  suggestionsContainer.innerHTML = '';
+  for (const slot of slots) {
+    const range = new TimeRange(slot.when.start, slot.when.duration);
+    suggestionsContainer.innerHTML += '<li>' + timeToString(range.getStartTime()) +
+        ' - ' + timeToString(range.getEndTime()) + ' (' +
+        slot.optionalAvailable + ' optional attendees free)</li>';
+  }
+}
+
+/**
+ * Asks the server for the best few slots for the meeting request.
+ */
+function suggestServer(meetingRequest) {
+  const json = JSON.stringify(meetingRequest);
+  return fetch('/suggest?n=5', {method: 'POST', body: json})
+      .then((response) => {
+        return response.json();
+      });
+}
+
 /**
  * Sends the meeting request to the server and get back the time ranges.
  */
 function queryServer(meetingRequest) {
   const json = JSON.stringify(meetingRequest);
-  return fetch('/query', {method: 'POST', body: json})
+  return fetch('/query?format=compact', {method: 'POST', body: json})
       .then((response) => {
         return response.json();
       })
-      .then((timeRanges) => {
-        // Convert the range from a json representation to our TimeRange class.
-        const out = [];
-        timeRanges.forEach((range) => {
-          out.push(new TimeRange(range.start, range.duration));
-        });
-        return out;
-      });
+      .then(boundsToTimeRanges);
 }
 
+/**
+ * Converts a flat [start, end, start, end, ...] array of minutes to our
+ * TimeRange class.
+ */
+function boundsToTimeRanges(bounds) {
+  const out = [];
+  for (let i = 0; i + 1 < bounds.length; i += 2) {
+    out.push(new TimeRange(bounds[i], bounds[i + 1] - bounds[i]));
+  }
+  return out;
+}
+
+// The number of minutes in a day, where the last time range of a day ends.
+const MINUTES_PER_DAY = 24 * 60;
+
 /**
  * Converts the total number of minutes since midnight to a string displaying
  * hours and minutes in 24 hour format. For example: "11:32" or "22:14".
@@ -92,10 +264,12 @@ function timeToString(totalMinutes) {
  * Request for possible meeting times.
  */
 class MeetingRequest {
-  constructor(duration, attendees, optional_attendees) {
+  constructor(duration, attendees, optional_attendees, quorum) {
     this.duration = duration;
     this.attendees = attendees;
     this.optional_attendees = optional_attendees;
+    // How many attendees must be free, or 0 if all of them must be.
+    this.quorum = quorum;
   }
 }
 
@@ -136,6 +310,58 @@ function getAllEvents() {
       });
 }
 
+/**
+ * Gets the busy times of the given attendees from the server in run-length
+ * encoded form, so availability can be worked out without asking the server
+ * again. Resolves to a Map from each attendee to an array of busy TimeRanges.
+ */
+function getFreeBusy(attendees) {
+  const params = new URLSearchParams();
+  attendees.forEach((attendee) => params.append('attendee', attendee));
+  params.append('format', 'rle');
+  return fetch('/free-busy?' + params.toString(), {method: 'GET'})
+      .then((response) => {
+        return response.json();
+      })
+      .then((freeBusy) => {
+        const busyTimes = new Map();
+        for (const [attendee, encoded] of Object.entries(freeBusy.attendees)) {
+          busyTimes.set(attendee, decodeRunLengths(encoded));
+        }
+        return busyTimes;
+      });
+}
+
+/**
+ * Decodes the base64 run-length encoding written by FreeBusyEncoding: varints
+ * alternating between the length of a free run and the length of a busy run.
+ */
+function decodeRunLengths(encoded) {
+  const bytes = atob(encoded);
+  const busyTimes = [];
+  let position = 0;
+  const readVarint = () => {
+    let value = 0;
+    let shift = 0;
+    let b;
+    do {
+      b = bytes.charCodeAt(position++);
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while (b & 0x80);
+    return value;
+  };
+
+  let prevEnd = 0;
+  while (position < bytes.length) {
+    const start = prevEnd + readVarint();
+    const duration = readVarint();
+    busyTimes.push(new TimeRange(start, duration));
+    prevEnd = start + duration;
+  }
+  return busyTimes;
+}
+
 /**
  * Converts "minutes since midnight" into a JavaScript Date object.
  */
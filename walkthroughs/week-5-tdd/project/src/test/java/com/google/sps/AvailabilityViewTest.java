@@ -0,0 +1,197 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AvailabilityViewTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final LocalDate WEDNESDAY = LocalDate.of(2026, 1, 14);
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void matchesFilteringTheEvents() throws Exception {
+    RandomCalendar calendar = new RandomCalendar(47, 30);
+    EventStore store = new EventStore(calendar.events(300));
+    WorkingHoursProfiles profiles = new WorkingHoursProfiles(ZoneOffset.UTC);
+    profiles.set("Amelia-0", nineToFive("America/New_York"));
+    profiles.set("ava-1", nineToFive("Asia/Tokyo"));
+
+    // Few enough entries in memory that most of them go to disk and come back.
+    try (AvailabilityView view =
+        new AvailabilityView(store, profiles, 8, folder.getRoot().toPath(), 1000)) {
+      FindMeetingQuery fromView = new FindMeetingQuery(view, WEDNESDAY);
+      FindMeetingQuery filtering = new FindMeetingQuery(profiles, WEDNESDAY);
+      for (int i = 0; i < 300; i++) {
+        MeetingRequest request = calendar.request();
+        Assert.assertEquals(request.toString(),
+            new ArrayList<>(filtering.query(store.getEvents(), request)),
+            new ArrayList<>(fromView.query(store.getEvents(), request)));
+      }
+
+      long[] counts = view.getLookupCounts();
+      Assert.assertTrue(counts[0] > 0);
+      Assert.assertTrue(counts[1] > 0);
+      Assert.assertEquals(8, view.size());
+    }
+    Assert.assertEquals(0, folder.getRoot().list().length);
+  }
+
+  @Test
+  public void changesRetireTheEntriesOfTheirAttendees() throws Exception {
+    EventStore store = new EventStore(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(60, 30), Arrays.asList(PERSON_A))));
+    try (AvailabilityView view =
+        new AvailabilityView(store, null, 16, folder.getRoot().toPath(), 16)) {
+      Assert.assertEquals(busy(60, 90), busySet(view, store.getEvents(), PERSON_A));
+
+      store.add(new Event("Event 2", TimeRange.fromStartDuration(120, 30),
+          Arrays.asList(PERSON_A, PERSON_B)));
+      Assert.assertEquals(busy(60, 90, 120, 150), busySet(view, store.getEvents(), PERSON_A));
+      Assert.assertEquals(busy(120, 150), busySet(view, store.getEvents(), PERSON_B));
+    }
+  }
+
+  @Test
+  public void replacedWorkingHoursRetireTheEntry() throws Exception {
+    EventStore store = new EventStore();
+    WorkingHoursProfiles profiles = new WorkingHoursProfiles(ZoneOffset.UTC);
+    profiles.set(PERSON_A, nineToFive("UTC"));
+    try (AvailabilityView view =
+        new AvailabilityView(store, profiles, 16, folder.getRoot().toPath(), 16)) {
+      Assert.assertEquals(busy(0, 540, 1020, 1440), busySet(view, store.getEvents(), PERSON_A));
+
+      profiles.set(PERSON_A, null);
+      Assert.assertEquals(IntervalSet.EMPTY, busySet(view, store.getEvents(), PERSON_A));
+    }
+  }
+
+  @Test
+  public void otherEventsAreNotAnsweredFromTheView() throws Exception {
+    EventStore store = new EventStore(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(60, 30), Arrays.asList(PERSON_A))));
+    List<Event> before = store.getEvents();
+    try (AvailabilityView view =
+        new AvailabilityView(store, null, 16, folder.getRoot().toPath(), 16)) {
+      Assert.assertNotNull(view.getBusySets(before, Arrays.asList(PERSON_A), WEDNESDAY));
+
+      store.add(new Event("Event 2", TimeRange.fromStartDuration(120, 30),
+          Arrays.asList(PERSON_A)));
+      Assert.assertNull(view.getBusySets(before, Arrays.asList(PERSON_A), WEDNESDAY));
+
+      // The query works from the old events instead.
+      MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+      Assert.assertEquals(
+          Arrays.asList(TimeRange.fromStartEnd(0, 60, false),
+              TimeRange.fromStartEnd(90, TimeRange.END_OF_DAY, true)),
+          new ArrayList<>(new FindMeetingQuery(view, WEDNESDAY).query(before, request)));
+    }
+  }
+
+  @Test
+  public void forgetsOldChangesWithoutServingStaleEntries() throws Exception {
+    EventStore store = new EventStore(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(60, 30), Arrays.asList(PERSON_A))));
+    try (AvailabilityView view =
+        new AvailabilityView(store, null, 16, folder.getRoot().toPath(), 16)) {
+      Assert.assertEquals(busy(60, 90), busySet(view, store.getEvents(), PERSON_A));
+      for (int i = 0; i < 5000; i++) {
+        store.add(new Event("Event " + i, TimeRange.fromStartDuration(0, 30),
+            Arrays.asList("Person " + i)));
+      }
+      Assert.assertTrue(view.changedAttendees() <= 1024);
+
+      store.add(new Event("Event 2", TimeRange.fromStartDuration(120, 30),
+          Arrays.asList(PERSON_A)));
+      Assert.assertEquals(busy(60, 90, 120, 150), busySet(view, store.getEvents(), PERSON_A));
+      Assert.assertEquals(busy(0, 30), busySet(view, store.getEvents(), "Person 7"));
+    }
+  }
+
+  @Test
+  public void concurrentLookupsMatchFilteringTheEvents() throws Exception {
+    RandomCalendar calendar = new RandomCalendar(48, 30);
+    EventStore store = new EventStore(calendar.events(300));
+    List<MeetingRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 400; i++) {
+      requests.add(calendar.request());
+    }
+    try (AvailabilityView view =
+        new AvailabilityView(store, null, 8, folder.getRoot().toPath(), 64)) {
+      FindMeetingQuery fromView = new FindMeetingQuery(view, WEDNESDAY);
+      FindMeetingQuery filtering = new FindMeetingQuery();
+      ExecutorService pool = Executors.newFixedThreadPool(8);
+      try {
+        List<Future<?>> lookups = new ArrayList<>();
+        for (MeetingRequest request : requests) {
+          lookups.add(pool.submit(() -> {
+            Assert.assertEquals(request.toString(),
+                new ArrayList<>(filtering.query(store.getEvents(), request)),
+                new ArrayList<>(fromView.query(store.getEvents(), request)));
+            return null;
+          }));
+        }
+        for (Future<?> lookup : lookups) {
+          lookup.get();
+        }
+      } finally {
+        pool.shutdown();
+      }
+      Assert.assertEquals(8, view.size());
+    }
+    Assert.assertEquals(0, folder.getRoot().list().length);
+  }
+
+  private static IntervalSet busySet(AvailabilityView view, Collection<Event> events,
+      String attendee) {
+    return view.getBusySets(events, Arrays.asList(attendee), WEDNESDAY).get(0);
+  }
+
+  private static WorkingHours nineToFive(String zone) {
+    return new WorkingHours(ZoneId.of(zone), LocalTime.of(9, 0), LocalTime.of(17, 0),
+        EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+  }
+
+  private static IntervalSet busy(int... bounds) {
+    List<TimeRange> ranges = new ArrayList<>();
+    for (int i = 0; i < bounds.length; i += 2) {
+      ranges.add(TimeRange.fromStartEnd(bounds[i], bounds[i + 1], false));
+    }
+    return IntervalSet.of(ranges);
+  }
+}
@@ -0,0 +1,89 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class BusyDensityTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  @Test
+  public void overlappingEventsOfOnePersonCountOnce() {
+    // A's two events overlap, but A is only one person, so at most A and B are busy at once.
+    //
+    // Events  : |--A--|
+    //              |--A,B,C--|
+    // Counts  :  1  2  2     0
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(0, 30), Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(15, 30),
+            Arrays.asList(PERSON_A, PERSON_B, PERSON_C)));
+    AvailabilityIndex index = AvailabilityIndex.build(events);
+
+    int[] counts = BusyDensity.perMinute(index, Arrays.asList(PERSON_A, PERSON_B, PERSON_A));
+
+    Assert.assertEquals(1440, counts.length);
+    Assert.assertEquals(1, counts[0]);
+    Assert.assertEquals(2, counts[15]);
+    Assert.assertEquals(2, counts[44]);
+    Assert.assertEquals(0, counts[45]);
+
+    int[] buckets = BusyDensity.bucket(counts, 15);
+    Assert.assertEquals(96, buckets.length);
+    Assert.assertArrayEquals(new int[] {1, 2, 2, 0}, Arrays.copyOf(buckets, 4));
+  }
+
+  @Test
+  public void peopleOutsideTheirWorkingHoursCountAsBusy() {
+    // A works 9:00 to 17:00 and has an event from 8:30 to 9:30; B has no working hours.
+    WorkingHoursProfiles profiles = new WorkingHoursProfiles(ZoneOffset.UTC);
+    profiles.set(PERSON_A, new WorkingHours(ZoneOffset.UTC, LocalTime.of(9, 0),
+        LocalTime.of(17, 0), EnumSet.allOf(DayOfWeek.class)));
+    AvailabilityIndex index = AvailabilityIndex.build(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(510, 60), Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(600, 30), Arrays.asList(PERSON_B))));
+
+    int[] counts = BusyDensity.perMinute(index, Arrays.asList(PERSON_A, PERSON_B), profiles,
+        LocalDate.of(2026, 1, 12));
+
+    Assert.assertEquals(1, counts[0]);
+    // The event and the hours before work overlap, so A still counts once.
+    Assert.assertEquals(1, counts[539]);
+    Assert.assertEquals(1, counts[569]);
+    Assert.assertEquals(0, counts[570]);
+    Assert.assertEquals(1, counts[600]);
+    Assert.assertEquals(0, counts[1019]);
+    Assert.assertEquals(1, counts[1020]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void bucketMustDivideDay() {
+    BusyDensity.bucket(new int[1440], 7);
+  }
+}
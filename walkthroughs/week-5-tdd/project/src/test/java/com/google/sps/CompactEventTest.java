@@ -0,0 +1,74 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CompactEventTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final TimeRange WHEN = TimeRange.fromStartDuration(540, 30);
+
+  private AttendeeDictionary dictionary;
+
+  @Before
+  public void setUp() {
+    dictionary = new AttendeeDictionary();
+  }
+
+  @Test
+  public void roundTripsThroughEvent() {
+    Event event = new Event("Event 1", WHEN, Arrays.asList(PERSON_B, PERSON_A));
+
+    CompactEvent compact = CompactEvent.of(event, dictionary);
+
+    Assert.assertEquals(new HashSet<>(Arrays.asList(PERSON_A, PERSON_B)), compact.getAttendees());
+    Assert.assertTrue(compact.getAttendees().contains(PERSON_A));
+    Assert.assertFalse(compact.getAttendees().contains(PERSON_C));
+    Assert.assertEquals(event, compact.toEvent());
+  }
+
+  @Test
+  public void identicalGroupsAreShared() {
+    new CompactEvent("Event 1", WHEN, Arrays.asList(PERSON_A, PERSON_B), dictionary);
+    new CompactEvent("Event 2", WHEN, Arrays.asList(PERSON_B, PERSON_A, PERSON_A), dictionary);
+    new CompactEvent("Event 3", WHEN, Arrays.asList(PERSON_C), dictionary);
+
+    Assert.assertEquals(3, dictionary.size());
+    Assert.assertEquals(2, dictionary.numGroups());
+    Assert.assertSame(dictionary.internGroup(Arrays.asList(PERSON_A, PERSON_B)),
+        dictionary.internGroup(Arrays.asList(PERSON_B, PERSON_A)));
+  }
+
+  @Test
+  public void attendsAny() {
+    CompactEvent event =
+        new CompactEvent("Event 1", WHEN, Arrays.asList(PERSON_A, PERSON_B), dictionary);
+    dictionary.intern(PERSON_C);
+
+    Assert.assertTrue(event.attendsAny(dictionary.lookupAll(Arrays.asList(PERSON_C, PERSON_B))));
+    Assert.assertFalse(event.attendsAny(dictionary.lookupAll(Arrays.asList(PERSON_C, "Nobody"))));
+  }
+}
@@ -0,0 +1,99 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.sps.ConflictExplainer.Conflict;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class ConflictExplainerTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  @Test
+  public void bestWindowsListWhoBlocksThem() {
+    // A is busy all morning, B all afternoon and C, who is optional, at noon:
+    //
+    // A : |-----|
+    // B :       |-----|
+    // C :     |---|
+    // Day : |---------------|
+    Event morning = new Event("Morning", TimeRange.fromStartEnd(0, 720, false),
+        Arrays.asList(PERSON_A));
+    Event afternoon = new Event("Afternoon", TimeRange.fromStartEnd(720, 1440, false),
+        Arrays.asList(PERSON_B));
+    Event lunch = new Event("Lunch", TimeRange.fromStartEnd(660, 780, false),
+        Arrays.asList(PERSON_C));
+    ConflictExplainer explainer =
+        new ConflictExplainer(Arrays.asList(morning, afternoon, lunch));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 60);
+    request.addOptionalAttendee(PERSON_C);
+
+    List<Conflict> conflicts = explainer.explain(request, 2, 60);
+
+    // Every window blocks one mandatory attendee; the first one free of C wins.
+    Assert.assertEquals(2, conflicts.size());
+    Assert.assertEquals(TimeRange.fromStartDuration(0, 60), conflicts.get(0).getWhen());
+    Assert.assertEquals(Arrays.asList(PERSON_A), conflicts.get(0).getMandatory());
+    Assert.assertEquals(Collections.emptyList(), conflicts.get(0).getOptional());
+    Assert.assertEquals(Arrays.asList(morning), conflicts.get(0).getEvents());
+  }
+
+  @Test
+  public void attendeesAreBusyOutsideTheirWorkingHours() {
+    // B has no events but only works from 9:00 to 17:00, so the early windows are blocked by B
+    //     without an event to show for it.
+    Event morning = new Event("Morning", TimeRange.fromStartEnd(540, 1440, false),
+        Arrays.asList(PERSON_A));
+    ConflictExplainer explainer = new ConflictExplainer(Arrays.asList(morning));
+    WorkingHoursProfiles profiles = new WorkingHoursProfiles(ZoneOffset.UTC);
+    profiles.set(PERSON_B, new WorkingHours(ZoneOffset.UTC, LocalTime.of(9, 0),
+        LocalTime.of(17, 0), EnumSet.allOf(DayOfWeek.class)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 60);
+
+    List<Conflict> conflicts =
+        explainer.explain(request, 1, 60, profiles, LocalDate.of(2026, 1, 14));
+
+    Assert.assertEquals(TimeRange.fromStartDuration(0, 60), conflicts.get(0).getWhen());
+    Assert.assertEquals(Arrays.asList(PERSON_B), conflicts.get(0).getMandatory());
+    Assert.assertEquals(Collections.emptyList(), conflicts.get(0).getEvents());
+  }
+
+  @Test
+  public void sharedEventIsListedOnce() {
+    Event meeting = new Event("Meeting", TimeRange.fromStartEnd(540, 600, false),
+        Arrays.asList(PERSON_A, PERSON_B));
+    ConflictExplainer explainer = new ConflictExplainer(Arrays.asList(meeting));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30);
+
+    Conflict conflict = explainer.explainWindow(request, 570, 600);
+
+    Assert.assertEquals(Arrays.asList(PERSON_A, PERSON_B), conflict.getMandatory());
+    Assert.assertEquals(Arrays.asList(meeting), conflict.getEvents());
+  }
+}
@@ -0,0 +1,62 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class DeadlineTest {
+  private static final MeetingRequest REQUEST =
+      new MeetingRequest(Arrays.asList("Person A"), 30);
+  private static final Event EVENT = new Event("Event 1", TimeRange.fromStartDuration(0, 30),
+      Arrays.asList("Person A"));
+
+  @Test
+  public void noneNeverExpires() {
+    Deadline.NONE.cancel();
+
+    Assert.assertFalse(Deadline.NONE.isExpired());
+    Deadline.NONE.check("anything");
+  }
+
+  @Test
+  public void queryFinishesBeforeDeadline() throws Exception {
+    Deadline deadline = Deadline.after(1, TimeUnit.MINUTES);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(30, 1440, false)),
+        new FindMeetingQuery().query(Arrays.asList(EVENT), REQUEST, deadline));
+  }
+
+  @Test(expected = DeadlineExceededException.class)
+  public void expiredDeadlineStopsQuery() throws Exception {
+    Deadline deadline = Deadline.after(0, TimeUnit.MILLISECONDS);
+
+    new FindMeetingQuery().query(Arrays.asList(EVENT), REQUEST, deadline);
+  }
+
+  @Test(expected = DeadlineExceededException.class)
+  public void cancelledDeadlineStopsQuery() throws Exception {
+    Deadline deadline = Deadline.after(1, TimeUnit.MINUTES);
+    deadline.cancel();
+
+    new FindMeetingQuery().query(Arrays.asList(EVENT), REQUEST, deadline);
+  }
+}
@@ -0,0 +1,116 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Runs {@code FindMeetingQuery} and every alternative engine on the same random calendars and
+ *     checks that they return the same results as {@code LegacyMeetingQuery}. Under
+ *     {@code mvn test} it runs at a small scale; for a stress run pass the scale as system
+ *     properties, for example:
+ *
+ * <pre>
+ * mvn test -Dtest=EngineDifferentialTest -Dharness.events=1000000 -Dharness.queries=50
+ * </pre>
+ *
+ * Extra engines are listed by class name in {@code harness.engines}, and
+ *     {@code harness.seed} replays a single seed.
+ */
+@RunWith(JUnit4.class)
+public final class EngineDifferentialTest {
+  private static final String DEFAULT_ENGINES = IndexedMeetingQuery.class.getName();
+
+  private static final int[] SMALL_EVENT_COUNTS = {0, 1, 10, 100, 2000};
+  private static final int SMALL_NUM_SEEDS = 5;
+  private static final int SMALL_NUM_QUERIES = 100;
+
+  @Test
+  public void enginesMatchReference() throws Exception {
+    if (System.getProperty("harness.events") != null) {
+      run(Long.getLong("harness.seed", 0L), Integer.getInteger("harness.events"),
+          Integer.getInteger("harness.queries", SMALL_NUM_QUERIES));
+      return;
+    }
+
+    for (int numEvents : SMALL_EVENT_COUNTS) {
+      for (long seed = 0; seed < SMALL_NUM_SEEDS; seed++) {
+        run(seed, numEvents, SMALL_NUM_QUERIES);
+      }
+    }
+  }
+
+  /**
+   * Generates one calendar and checks every engine against the reference on it, then prints the
+   *     throughput of each engine.
+   */
+  private static void run(long seed, int numEvents, int numQueries) throws Exception {
+    RandomCalendar calendar = new RandomCalendar(seed, Math.max(10, numEvents / 8));
+    // IndexedMeetingQuery reuses its index for as long as it is given the same collection.
+    List<Event> events = Collections.unmodifiableList(calendar.events(numEvents));
+    List<MeetingRequest> requests = new ArrayList<>(numQueries);
+    for (int i = 0; i < numQueries; i++) {
+      requests.add(calendar.request());
+    }
+
+    List<MeetingQueryEngine> engines = new ArrayList<>();
+    engines.add(new LegacyMeetingQuery());
+    engines.add(new FindMeetingQuery());
+    for (String className : System.getProperty("harness.engines", DEFAULT_ENGINES).split(",")) {
+      try {
+        engines.add((MeetingQueryEngine)
+            Class.forName(className.trim()).getDeclaredConstructor().newInstance());
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalArgumentException("cannot create the engine " + className.trim()
+            + " listed in harness.engines", e);
+      }
+    }
+
+    List<List<TimeRange>> expected = new ArrayList<>();
+    for (MeetingQueryEngine engine : engines) {
+      long start = System.nanoTime();
+      for (int i = 0; i < numQueries; i++) {
+        List<TimeRange> actual = new ArrayList<>(engine.query(events, requests.get(i)));
+        if (expected.size() < numQueries) {
+          expected.add(actual);
+        } else {
+          Assert.assertEquals(String.format("%s differs on seed %d, %d events, query %d",
+              engine.getClass().getSimpleName(), seed, numEvents, i), expected.get(i), actual);
+        }
+      }
+      long elapsedNanos = Math.max(System.nanoTime() - start, 1);
+
+      if (numEvents >= 1000) {
+        System.out.println(String.format("%s: seed %d, %d events, %.1f queries/s",
+            engine.getClass().getSimpleName(), seed, numEvents,
+            numQueries * 1e9 / elapsedNanos));
+      }
+    }
+  }
+
+  /**
+   * Runs the harness outside of JUnit with the same system properties.
+   */
+  public static void main(String[] args) throws Exception {
+    run(Long.getLong("harness.seed", 0L), Integer.getInteger("harness.events", 1000000),
+        Integer.getInteger("harness.queries", SMALL_NUM_QUERIES));
+  }
+}
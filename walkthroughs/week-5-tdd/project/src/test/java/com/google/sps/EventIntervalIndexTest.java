@@ -0,0 +1,55 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class EventIntervalIndexTest {
+  @Test
+  public void matchesFullScanOnRandomCalendars() {
+    Random random = new Random(0);
+    for (long seed = 0; seed < 5; seed++) {
+      List<Event> events = new RandomCalendar(seed, 10).events(300);
+      EventIntervalIndex index = new EventIntervalIndex(events);
+
+      for (int i = 0; i < 200; i++) {
+        int start = random.nextInt(TimeRange.WHOLE_DAY.end());
+        int end = start + 1 + random.nextInt(TimeRange.WHOLE_DAY.end() - start);
+
+        List<Event> expected = new ArrayList<>();
+        for (Event event : events) {
+          if (event.getWhen().overlaps(TimeRange.fromStartEnd(start, end, false))) {
+            expected.add(event);
+          }
+        }
+        List<Event> actual = index.overlapping(start, end);
+
+        String window = "[" + start + ", " + end + ") on seed " + seed;
+        Assert.assertEquals(window, expected.size(), actual.size());
+        Assert.assertEquals(window, new HashSet<>(expected), new HashSet<>(actual));
+        Assert.assertEquals(window, !expected.isEmpty(), index.isBusy(start, end));
+      }
+    }
+  }
+}
@@ -565,5 +565,126 @@ public final class FindMeetingQueryTest {
     Collection<TimeRange> expected = new ArrayList<TimeRange>();
 
     Assert.assertEquals(expected, actual);
-  }  
+  }
+
+  @Test
+  public void quorumOfTwoOutOfThree() {
+    // Only two of the three attendees need to be free.
+    //
+    // Events  :       |--A--|
+    //                    |----B----|
+    //                          |--C--|
+    // Day     : |-----------------------------|
+    // Options : |--1--|        |       |--2---|
+    //                    (only B busy: A, C free)
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0830AM, TIME_1030AM, false),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false),
+            Arrays.asList(PERSON_C)));
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B, PERSON_C), DURATION_30_MINUTES, 2);
+
+    Collection<TimeRange> actual;
+    try{
+      actual = query.query(events, request);
+    } catch (Exception e) {
+      String errorMessage = "ERROR: " + e.getMessage();
+      System.err.println(errorMessage);
+      Assert.assertEquals("no exception thrown", errorMessage);
+      return;
+    }
+    // Two people are busy from 8:30 to 9:00 and from 10:00 to 10:30.
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0830AM, false),
+            TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            TimeRange.fromStartEnd(TIME_1030AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void quorumLargerThanAttendees() {
+    // There aren't enough attendees to ever reach the quorum.
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES, 3);
+
+    Collection<TimeRange> actual;
+    try{
+      actual = query.query(NO_EVENTS, request);
+    } catch (Exception e) {
+      String errorMessage = "ERROR: " + e.getMessage();
+      System.err.println(errorMessage);
+      Assert.assertEquals("no exception thrown", errorMessage);
+      return;
+    }
+
+    Assert.assertEquals(NO_TIMERANGES.size(), actual.size());
+  }
+
+  @Test
+  public void quorumMatchesMinuteByMinuteCount() throws Exception {
+    RandomCalendar calendar = new RandomCalendar(0, 8);
+    List<Event> events = Collections.unmodifiableList(calendar.events(60));
+    List<String> attendees = Arrays.asList("Amelia-0", "ava-1", "Emma-2", "isabella-3",
+        "JAMES-4", "Amelia-5");
+
+    for (int quorum = 1; quorum <= attendees.size(); quorum++) {
+      // Count how many attendees are busy in every minute of the day.
+      int[] busy = new int[TimeRange.WHOLE_DAY.duration()];
+      for (String attendee : attendees) {
+        boolean[] attendeeBusy = new boolean[busy.length];
+        for (Event event : events) {
+          if (event.getAttendees().contains(attendee)) {
+            for (int minute = event.getWhen().start(); minute < event.getWhen().end(); minute++) {
+              attendeeBusy[minute] = true;
+            }
+          }
+        }
+        for (int minute = 0; minute < busy.length; minute++) {
+          busy[minute] += attendeeBusy[minute] ? 1 : 0;
+        }
+      }
+      List<TimeRange> expected = new ArrayList<>();
+      int windowStart = -1;
+      for (int minute = 0; minute <= busy.length; minute++) {
+        boolean enoughFree =
+            minute < busy.length && attendees.size() - busy[minute] >= quorum;
+        if (enoughFree && windowStart < 0) {
+          windowStart = minute;
+        } else if (!enoughFree && windowStart >= 0) {
+          if (minute - windowStart >= DURATION_15_MINUTES) {
+            expected.add(TimeRange.fromStartEnd(windowStart, minute, false));
+          }
+          windowStart = -1;
+        }
+      }
+
+      MeetingRequest request = new MeetingRequest(attendees, DURATION_15_MINUTES, quorum);
+      Assert.assertEquals("quorum " + quorum, expected,
+          new ArrayList<TimeRange>(query.query(events, request)));
+      Assert.assertEquals("quorum " + quorum, expected,
+          new ArrayList<TimeRange>(new IndexedMeetingQuery().query(events, request)));
+    }
+  }
+
+  @Test
+  public void indexedQuerySeesEveryNewSnapshotOfAStore() {
+    EventStore store = new EventStore();
+    IndexedMeetingQuery indexed = new IndexedMeetingQuery();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY),
+        new ArrayList<TimeRange>(indexed.query(store.getEvents(), request)));
+
+    store.add(new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_1_HOUR),
+        Arrays.asList(PERSON_A)));
+    Assert.assertEquals(Arrays.asList(
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+        TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true)),
+        new ArrayList<TimeRange>(indexed.query(store.getEvents(), request)));
+  }
 }
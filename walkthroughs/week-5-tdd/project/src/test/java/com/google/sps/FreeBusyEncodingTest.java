@@ -0,0 +1,65 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.sps.FreeBusyEncoding.Format;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class FreeBusyEncodingTest {
+  // Busy from the very first minute to the very last, with gaps in between.
+  private static final List<int[]> BUSY_TIMES = Arrays.asList(
+      new int[] {0, 30}, new int[] {510, 540}, new int[] {600, 1000}, new int[] {1439, 1440});
+
+  @Test
+  public void runLengthRoundTrip() {
+    String encoded = FreeBusyEncoding.encode(BUSY_TIMES, Format.RLE);
+
+    assertSameTimes(BUSY_TIMES, FreeBusyEncoding.decode(encoded, Format.RLE));
+    // Eight varints of at most two bytes each.
+    Assert.assertTrue(encoded.length() <= 24);
+  }
+
+  @Test
+  public void bitmapRoundTrip() {
+    String encoded = FreeBusyEncoding.encode(BUSY_TIMES, Format.BITMAP);
+
+    assertSameTimes(BUSY_TIMES, FreeBusyEncoding.decode(encoded, Format.BITMAP));
+    Assert.assertEquals(240, encoded.length());
+  }
+
+  @Test
+  public void nobodyBusy() {
+    List<int[]> none = Arrays.asList();
+
+    Assert.assertEquals("", FreeBusyEncoding.encode(none, Format.RLE));
+    assertSameTimes(none, FreeBusyEncoding.decode("", Format.RLE));
+    assertSameTimes(none,
+        FreeBusyEncoding.decode(FreeBusyEncoding.encode(none, Format.BITMAP), Format.BITMAP));
+  }
+
+  private static void assertSameTimes(List<int[]> expected, List<int[]> actual) {
+    Assert.assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      Assert.assertArrayEquals(expected.get(i), actual.get(i));
+    }
+  }
+}
@@ -0,0 +1,107 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class IntervalSetTest {
+  // A: |--|  |------|
+  // B:    |--|   |------|
+  private static final IntervalSet A = set(60, 120, 180, 300);
+  private static final IntervalSet B = set(120, 180, 240, 360);
+
+  @Test
+  public void ofMergesOverlappingAndTouchingRanges() {
+    IntervalSet actual = IntervalSet.of(Arrays.asList(
+        TimeRange.fromStartEnd(200, 300, false),
+        TimeRange.fromStartEnd(60, 120, false),
+        TimeRange.fromStartEnd(120, 150, false),
+        TimeRange.fromStartEnd(250, 280, false),
+        TimeRange.fromStartEnd(400, 400, false)));
+
+    Assert.assertEquals(set(60, 150, 200, 300), actual);
+  }
+
+  @Test
+  public void union() {
+    Assert.assertEquals(set(60, 360), A.union(B));
+    Assert.assertEquals(A, A.union(IntervalSet.EMPTY));
+  }
+
+  @Test
+  public void unionOfManySets() {
+    IntervalSet actual = IntervalSet.union(Arrays.asList(
+        set(0, 10, 500, 510), IntervalSet.EMPTY, set(5, 20), set(490, 495, 1430, 1440)));
+
+    Assert.assertEquals(set(0, 20, 490, 495, 500, 510, 1430, 1440), actual);
+    Assert.assertEquals(IntervalSet.EMPTY, IntervalSet.union(Arrays.asList()));
+  }
+
+  @Test
+  public void intersection() {
+    Assert.assertEquals(set(240, 300), A.intersection(B));
+    Assert.assertEquals(IntervalSet.EMPTY, A.intersection(IntervalSet.EMPTY));
+  }
+
+  @Test
+  public void difference() {
+    Assert.assertEquals(set(60, 120, 180, 240), A.difference(B));
+    Assert.assertEquals(set(120, 180, 300, 360), B.difference(A));
+    Assert.assertEquals(set(0, 10, 20, 30), set(0, 30).difference(set(10, 20)));
+  }
+
+  @Test
+  public void complement() {
+    Assert.assertEquals(set(0, 60, 120, 180, 300, 1440), A.complement());
+    Assert.assertEquals(IntervalSet.WHOLE_DAY, IntervalSet.EMPTY.complement());
+    Assert.assertEquals(IntervalSet.EMPTY, IntervalSet.WHOLE_DAY.complement());
+  }
+
+  @Test
+  public void overlaps() {
+    Assert.assertTrue(A.overlaps(100, 200));
+    Assert.assertFalse(A.overlaps(120, 180));
+    Assert.assertFalse(A.overlaps(300, 1440));
+  }
+
+  @Test
+  public void gapsIncludeTheEndOfDay() {
+    Assert.assertEquals(Arrays.asList(
+        TimeRange.fromStartEnd(0, 60, false),
+        TimeRange.fromStartEnd(120, 180, false),
+        TimeRange.fromStartEnd(300, 1440, false)), A.gaps(60));
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(300, 1440, false)), A.gaps(61));
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), IntervalSet.EMPTY.gaps(30));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unsortedTimesAreRejected() {
+    IntervalSet.fromSortedTimes(Arrays.asList(new int[] {100, 200}, new int[] {50, 60}));
+  }
+
+  private static IntervalSet set(int... bounds) {
+    TimeRange[] ranges = new TimeRange[bounds.length / 2];
+    for (int i = 0; i < ranges.length; i++) {
+      ranges[i] = TimeRange.fromStartEnd(bounds[2 * i], bounds[2 * i + 1], false);
+    }
+    return IntervalSet.of(Arrays.asList(ranges));
+  }
+}
@@ -0,0 +1,70 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.sps.algorithms.MergeSort;
+import com.google.sps.comparator.SortEventsByTime;
+import com.google.sps.predicate.IncludeIf;
+import com.google.sps.predicate.IsIntersection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The sort-and-scan algorithm {@code FindMeetingQuery} used before {@code IntervalSet}, kept as
+ *     the reference engine of {@code EngineDifferentialTest}.
+ */
+@SuppressWarnings("deprecation")
+final class LegacyMeetingQuery implements MeetingQueryEngine {
+  private final FindMeetingQuery helpers = new FindMeetingQuery();
+
+  @Override
+  public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request)
+      throws Exception {
+    int durationMeetingMinutes = Math.toIntExact(request.getDuration());
+    if (durationMeetingMinutes > TimeRange.WHOLE_DAY.duration() || durationMeetingMinutes < 0) {
+      return new ArrayList<TimeRange>();
+    }
+
+    if (durationMeetingMinutes == 0) {
+      return new ArrayList<TimeRange>(Arrays.asList(TimeRange.WHOLE_DAY));
+    }
+
+    Event[] eventsArray = events.toArray(new Event[events.size()]);
+    IncludeIf<Event> includeIf = new IncludeIf<Event>();
+    MergeSort<Event> merge = new MergeSort<Event>();
+
+    ArrayList<Event> mandatoryEvents =
+        includeIf.includeIf(eventsArray, new IsIntersection(request.getAttendees()));
+    merge.sort(mandatoryEvents, new SortEventsByTime());
+    ArrayList<int[]> mandatoryTimes = FindMeetingQuery.eventToFilteredTimeMinutes(mandatoryEvents);
+
+    ArrayList<Event> optionalEvents =
+        includeIf.includeIf(eventsArray, new IsIntersection(request.getOptionalAttendees()));
+    merge.sort(optionalEvents, new SortEventsByTime());
+    ArrayList<int[]> optionalTimes = FindMeetingQuery.eventToFilteredTimeMinutes(optionalEvents);
+
+    ArrayList<TimeRange> availableOptionalTimes = helpers.optionalAvailableTimeRanges(
+        optionalEvents, optionalTimes, mandatoryTimes, durationMeetingMinutes);
+    if (availableOptionalTimes.isEmpty() && !mandatoryTimes.isEmpty()) {
+      ArrayList<TimeRange> availableMandatoryTimes =
+          helpers.timeRangeAvailable(mandatoryTimes, durationMeetingMinutes);
+      if (!availableMandatoryTimes.isEmpty()) {
+        return availableMandatoryTimes;
+      }
+    }
+    return availableOptionalTimes;
+  }
+}
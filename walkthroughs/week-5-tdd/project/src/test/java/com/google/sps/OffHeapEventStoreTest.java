@@ -0,0 +1,75 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class OffHeapEventStoreTest {
+  @Test
+  public void storesEveryFieldAcrossGrowth() {
+    // Enough events, and titles long enough, that every column has to grow.
+    List<Event> events = new ArrayList<>(new RandomCalendar(0, 30).events(5000));
+    events.add(new Event(new String(new char[100000]).replace('\0', 'x'),
+        TimeRange.fromStartDuration(0, 30), Arrays.asList("Person A")));
+    events.add(new Event("Nobody é", TimeRange.fromStartDuration(60, 0),
+        Arrays.<String>asList()));
+
+    OffHeapEventStore store = OffHeapEventStore.of(events);
+
+    Assert.assertEquals(events.size(), store.size());
+    Assert.assertEquals(events, store.toEvents());
+  }
+
+  @Test
+  public void viewsOnlySeeEventsAddedBeforeThem() {
+    OffHeapEventStore store = new OffHeapEventStore();
+    store.add(new Event("First", TimeRange.fromStartDuration(0, 30), Arrays.asList("A")));
+    OffHeapEventStore.EventView view = store.view();
+    store.add(new Event("Second", TimeRange.fromStartDuration(30, 30), Arrays.asList("B")));
+
+    Assert.assertEquals(1, view.size());
+    Assert.assertEquals("First", view.moveTo(0).getTitle());
+    Assert.assertEquals(2, store.view().size());
+  }
+
+  @Test
+  public void answersLikeFindMeetingQuery() throws Exception {
+    RandomCalendar calendar = new RandomCalendar(1, 12);
+    List<Event> events = calendar.events(300);
+    OffHeapEventStore store = OffHeapEventStore.of(events);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    for (int i = 0; i < 300; i++) {
+      MeetingRequest request = calendar.request();
+      if (i % 3 == 0) {
+        // Every third request only needs some of its attendees, sometimes more than it has.
+        request = new MeetingRequest(request.getAttendees(), request.getDuration(), 1 + i % 5);
+      }
+      Collection<TimeRange> expected = query.query(events, request);
+      Assert.assertEquals("request " + i, new ArrayList<>(expected),
+          new ArrayList<>(query.query(store, request)));
+    }
+  }
+}
@@ -0,0 +1,80 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class ParallelUnionTest {
+  @Test
+  public void matchesTheSequentialUnion() {
+    List<IntervalSet> sets = randomSets(new Random(48), 2000, 6);
+    IntervalSet expected = IntervalSet.union(sets);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int leafSize : new int[] {1, 3, 64, 1999}) {
+        Assert.assertEquals(expected, ParallelUnion.union(sets, leafSize, 0, pool));
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void smallListsAndEdgeCases() {
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      Assert.assertEquals(IntervalSet.EMPTY,
+          ParallelUnion.union(Collections.<IntervalSet>emptyList(), 1, 0, pool));
+      IntervalSet one = IntervalSet.of(Arrays.asList(TimeRange.fromStartDuration(60, 30)));
+      Assert.assertEquals(one,
+          ParallelUnion.union(Arrays.asList(one, IntervalSet.EMPTY, one), 1, 0, pool));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void leafSizeMustBePositive() {
+    ParallelUnion.union(Collections.<IntervalSet>emptyList(), 0, 0, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Returns {@code numSets} sets of up to {@code maxIntervals} intervals each.
+   */
+  static List<IntervalSet> randomSets(Random random, int numSets, int maxIntervals) {
+    List<IntervalSet> sets = new ArrayList<>(numSets);
+    for (int i = 0; i < numSets; i++) {
+      List<TimeRange> ranges = new ArrayList<>();
+      for (int j = random.nextInt(maxIntervals + 1); j > 0; j--) {
+        int start = random.nextInt(TimeRange.WHOLE_DAY.duration() - 60);
+        ranges.add(TimeRange.fromStartDuration(start, 5 + random.nextInt(55)));
+      }
+      sets.add(IntervalSet.of(ranges));
+    }
+    return sets;
+  }
+}
@@ -0,0 +1,177 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QueryCoalescerTest {
+  private static final Collection<TimeRange> ANSWER = Arrays.asList(TimeRange.WHOLE_DAY);
+  private static final LocalDate MONDAY = LocalDate.of(2026, 1, 12);
+
+  private QueryCoalescer coalescer;
+  private ExecutorService executor;
+  private CountDownLatch release;
+  private AtomicInteger runs;
+  private QueryCoalescer.Computation computation;
+
+  @Before
+  public void setUp() {
+    coalescer = new QueryCoalescer();
+    executor = Executors.newSingleThreadExecutor();
+    release = new CountDownLatch(1);
+    runs = new AtomicInteger();
+    // Blocks until the test releases it, so that later requests find it still running.
+    computation = (request, deadline) -> {
+      runs.incrementAndGet();
+      release.await();
+      deadline.check("answering");
+      return ANSWER;
+    };
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void identicalRequestsShareOneComputation() throws Exception {
+    MeetingRequest request = new MeetingRequest(Arrays.asList("Person A", "Person B"), 30);
+    MeetingRequest sameInOtherOrder =
+        new MeetingRequest(Arrays.asList("Person B", "Person A"), 30);
+
+    QueryCoalescer.Ticket first = join(request, 1);
+    QueryCoalescer.Ticket second = join(sameInOtherOrder, 1);
+    release.countDown();
+
+    Assert.assertSame(first.result(), second.result());
+    Assert.assertEquals(ANSWER, first.result().get(1, TimeUnit.SECONDS));
+    Assert.assertEquals(1, runs.get());
+  }
+
+  @Test
+  public void differentVersionsDontShare() throws Exception {
+    MeetingRequest request = new MeetingRequest(Arrays.asList("Person A"), 30);
+
+    QueryCoalescer.Ticket first = join(request, 1);
+    QueryCoalescer.Ticket second = join(request, 2);
+    release.countDown();
+
+    Assert.assertNotSame(first.result(), second.result());
+    second.result().get(1, TimeUnit.SECONDS);
+    Assert.assertEquals(2, runs.get());
+  }
+
+  @Test
+  public void differentWorkingHoursOrDaysDontShare() throws Exception {
+    MeetingRequest request = new MeetingRequest(Arrays.asList("Person A"), 30);
+
+    QueryCoalescer.Ticket first = join(request, 1, 1, MONDAY);
+    QueryCoalescer.Ticket otherHours = join(request, 1, 2, MONDAY);
+    QueryCoalescer.Ticket otherDay = join(request, 1, 1, MONDAY.plusDays(1));
+    release.countDown();
+
+    Assert.assertNotSame(first.result(), otherHours.result());
+    Assert.assertNotSame(first.result(), otherDay.result());
+    otherDay.result().get(1, TimeUnit.SECONDS);
+    Assert.assertEquals(3, runs.get());
+  }
+
+  @Test
+  public void computationIsCancelledOnceEverybodyLeaves() throws Exception {
+    MeetingRequest request = new MeetingRequest(Arrays.asList("Person A"), 30);
+
+    QueryCoalescer.Ticket first = join(request, 1);
+    QueryCoalescer.Ticket second = join(request, 1);
+    first.leave();
+    second.leave();
+    release.countDown();
+
+    try {
+      first.result().get(1, TimeUnit.SECONDS);
+      Assert.fail("expected the computation to be cancelled");
+    } catch (ExecutionException e) {
+      Assert.assertTrue(e.getCause() instanceof DeadlineExceededException);
+    }
+  }
+
+  @Test
+  public void rejectedComputationFailsEveryWaiter() throws Exception {
+    executor.shutdown();
+
+    QueryCoalescer.Ticket ticket = join(new MeetingRequest(Arrays.asList("Person A"), 30), 1);
+
+    Assert.assertTrue(ticket.result().isCompletedExceptionally());
+    Assert.assertEquals(0, coalescer.numInFlight());
+    try {
+      ticket.result().get();
+      Assert.fail("expected the computation to be rejected");
+    } catch (ExecutionException e) {
+      Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+    }
+  }
+
+  @Test
+  public void queryAnswersStayPrimitiveForTheServlet() throws Exception {
+    // QueryServlet writes whatever the ticket completes with, so a TimeRanges answer has to
+    //     reach it as TimeRanges to be written from its int pairs.
+    EventStore store = new EventStore(Arrays.asList(new Event("Busy",
+        TimeRange.fromStartDuration(600, 60), Arrays.asList("Person A"))));
+    MeetingRequest request = new MeetingRequest(Arrays.asList("Person A"), 30);
+    QueryCoalescer.Ticket ticket = coalescer.join(request, store.getVersion(), 0, MONDAY,
+        Deadline.after(1, TimeUnit.MINUTES), executor,
+        (sharedRequest, deadline) ->
+            new FindMeetingQuery().query(store.getEvents(), sharedRequest, deadline));
+
+    Collection<TimeRange> answer = ticket.result().get(1, TimeUnit.MINUTES);
+    Assert.assertTrue(answer instanceof TimeRanges);
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(0, 600, false),
+        TimeRange.fromStartEnd(660, TimeRange.END_OF_DAY, true)), answer);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void sharedAnswersCantBeChanged() throws Exception {
+    release.countDown();
+    MeetingRequest request = new MeetingRequest(Arrays.asList("Person A"), 30);
+    join(request, 0).result().get(1, TimeUnit.MINUTES).clear();
+  }
+
+  private QueryCoalescer.Ticket join(MeetingRequest request, long version) {
+    return join(request, version, 0, MONDAY);
+  }
+
+  private QueryCoalescer.Ticket join(MeetingRequest request, long version, long profilesVersion,
+      LocalDate date) {
+    return coalescer.join(request, version, profilesVersion, date,
+        Deadline.after(1, TimeUnit.MINUTES), executor, computation);
+  }
+}
@@ -0,0 +1,85 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates seeded random calendars and meeting requests, so a failing run can be reproduced
+ *     from its seed.
+ */
+public final class RandomCalendar {
+  // Names deliberately mix upper and lower case so that attendee lookups are order-sensitive.
+  private static final String[] NAME_PREFIXES = {"Amelia", "ava", "Emma", "isabella", "JAMES"};
+
+  private static final int[] EVENT_DURATIONS = {5, 15, 30, 45, 60, 90, 120, 240};
+  private static final int[] MEETING_DURATIONS = {-5, 0, 15, 30, 60, 90, 120, 1440, 1441};
+
+  private final Random random;
+  private final String[] people;
+
+  /**
+   * Creates a generator.
+   *
+   * @param seed the seed of every random choice
+   * @param numPeople how many different people attend events
+   */
+  public RandomCalendar(long seed, int numPeople) {
+    this.random = new Random(seed);
+    this.people = new String[numPeople];
+    for (int i = 0; i < numPeople; i++) {
+      people[i] = NAME_PREFIXES[i % NAME_PREFIXES.length] + "-" + i;
+    }
+  }
+
+  /**
+   * Returns {@code numEvents} events, each with one to four attendees.
+   */
+  public List<Event> events(int numEvents) {
+    List<Event> events = new ArrayList<>(numEvents);
+    for (int i = 0; i < numEvents; i++) {
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+      int duration = Math.min(EVENT_DURATIONS[random.nextInt(EVENT_DURATIONS.length)],
+          TimeRange.WHOLE_DAY.end() - start);
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+          randomPeople(1 + random.nextInt(4))));
+    }
+    return events;
+  }
+
+  /**
+   * Returns a meeting request with up to four mandatory and up to three optional attendees.
+   */
+  public MeetingRequest request() {
+    int duration = MEETING_DURATIONS[random.nextInt(MEETING_DURATIONS.length)];
+    MeetingRequest request = new MeetingRequest(randomPeople(random.nextInt(5)), duration);
+    for (String person : randomPeople(random.nextInt(4))) {
+      request.addOptionalAttendee(person);
+    }
+    return request;
+  }
+
+  private Set<String> randomPeople(int count) {
+    Set<String> chosen = new HashSet<>();
+    while (chosen.size() < Math.min(count, people.length)) {
+      chosen.add(people[random.nextInt(people.length)]);
+    }
+    return chosen;
+  }
+}
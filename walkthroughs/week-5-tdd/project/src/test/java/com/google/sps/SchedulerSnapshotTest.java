@@ -0,0 +1,115 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class SchedulerSnapshotTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void roundTripsEventsDictionaryAndIndex() throws IOException {
+    List<Event> events = new RandomCalendar(0, 20).events(200);
+    EventStore store = new EventStore(events);
+    Path path = folder.getRoot().toPath().resolve("scheduler.snapshot");
+
+    store.snapshot().writeTo(path);
+    SchedulerSnapshot restored = SchedulerSnapshot.readFrom(path);
+
+    Assert.assertEquals(store.getVersion(), restored.getStoreVersion());
+    Assert.assertEquals(events, restored.getEvents());
+    Assert.assertEquals(store.getAvailabilityIndex().getAttendees(),
+        restored.getIndex().getAttendees());
+    for (String attendee : store.getAvailabilityIndex().getAttendees()) {
+      Assert.assertEquals(store.getAvailabilityIndex().getBusySet(attendee),
+          restored.getIndex().getBusySet(attendee));
+      Assert.assertEquals(attendee,
+          restored.getDictionary().nameOf(restored.getDictionary().lookup(attendee)));
+    }
+  }
+
+  @Test
+  public void restoredStoreAnswersLikeTheOriginal() throws Exception {
+    RandomCalendar calendar = new RandomCalendar(1, 10);
+    EventStore original = new EventStore(calendar.events(100));
+    Path path = folder.getRoot().toPath().resolve("scheduler.snapshot");
+    original.snapshot().writeTo(path);
+
+    EventStore restored = new EventStore();
+    restored.restore(SchedulerSnapshot.readFrom(path));
+
+    IndexedMeetingQuery engine = new IndexedMeetingQuery();
+    for (int i = 0; i < 50; i++) {
+      MeetingRequest request = calendar.request();
+      Assert.assertEquals(new FindMeetingQuery().query(original.getEvents(), request),
+          engine.query(restored.getEvents(), request));
+    }
+  }
+
+  @Test
+  public void damagedFilesAreRejected() throws IOException {
+    EventStore store = new EventStore(new RandomCalendar(2, 5).events(20));
+    Path path = folder.getRoot().toPath().resolve("scheduler.snapshot");
+    store.snapshot().writeTo(path);
+    byte[] bytes = Files.readAllBytes(path);
+
+    // A flipped bit in the payload fails the checksum.
+    byte[] flipped = bytes.clone();
+    flipped[flipped.length - 1] ^= 1;
+    assertUnreadable(path, flipped);
+
+    // So does a file cut short, e.g. by a crash in the middle of a copy.
+    assertUnreadable(path, Arrays.copyOf(bytes, bytes.length - 3));
+    assertUnreadable(path, Arrays.copyOf(bytes, 10));
+  }
+
+  @Test
+  public void saverOnlyWritesChangedStores() throws IOException {
+    EventStore store = new EventStore(new RandomCalendar(3, 5).events(20));
+    Path path = folder.getRoot().toPath().resolve("scheduler.snapshot");
+    SnapshotSaver saver = new SnapshotSaver(store, path);
+
+    Assert.assertTrue(saver.saveIfChanged());
+    Assert.assertFalse(saver.saveIfChanged());
+
+    store.add(new Event("New", TimeRange.fromStartDuration(60, 30), Arrays.asList("Person A")));
+    Assert.assertTrue(saver.saveIfChanged());
+    Assert.assertEquals(store.getEvents(), SchedulerSnapshot.readFrom(path).getEvents());
+  }
+
+  private static void assertUnreadable(Path path, byte[] bytes) throws IOException {
+    Files.write(path, bytes);
+    try {
+      SchedulerSnapshot.readFrom(path);
+      Assert.fail("expected the snapshot to be rejected");
+    } catch (IOException expected) {
+      // Expected.
+    }
+  }
+}
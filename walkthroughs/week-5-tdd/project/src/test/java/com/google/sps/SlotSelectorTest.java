@@ -0,0 +1,171 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import com.google.sps.SlotSelector.ScoredSlot;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class SlotSelectorTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  @Test
+  public void prefersSlotsOptionalAttendeesCanMake() {
+    // A is mandatory and busy until 9:00, B is optional and busy from 9:00 to 10:00:
+    //
+    // A : |--|
+    // B :    |-|
+    // Day : |---------------|
+    Event early = new Event("Early", TimeRange.fromStartEnd(0, 540, false),
+        Arrays.asList(PERSON_A));
+    Event standup = new Event("Standup", TimeRange.fromStartEnd(540, 600, false),
+        Arrays.asList(PERSON_B));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 60);
+    request.addOptionalAttendee(PERSON_B);
+
+    List<ScoredSlot> slots = SlotSelector.suggest(Arrays.asList(early, standup), request, 2, 60,
+        WeightedSlotScorer.DEFAULT);
+
+    // 10:00 is the first slot both can make and it leaves no unusable scraps behind.
+    Assert.assertEquals(2, slots.size());
+    Assert.assertEquals(TimeRange.fromStartDuration(600, 60), slots.get(0).getWhen());
+    Assert.assertEquals(1, slots.get(0).getOptionalAvailable());
+    Assert.assertEquals(TimeRange.fromStartDuration(660, 60), slots.get(1).getWhen());
+  }
+
+  @Test
+  public void slotsOutsideWorkingHoursAreNotSuggested() {
+    // A works from 13:00 to 17:00 and has no events, so the best slots are in the afternoon
+    //     even though the scorer prefers the morning.
+    WorkingHoursProfiles profiles = new WorkingHoursProfiles(ZoneOffset.UTC);
+    profiles.set(PERSON_A, new WorkingHours(ZoneOffset.UTC, LocalTime.of(13, 0),
+        LocalTime.of(17, 0), EnumSet.allOf(DayOfWeek.class)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 60);
+
+    List<ScoredSlot> slots = SlotSelector.suggest(Collections.<Event>emptyList(), request, 10, 60,
+        WeightedSlotScorer.DEFAULT, profiles, LocalDate.of(2026, 1, 14));
+
+    Assert.assertEquals(4, slots.size());
+    for (ScoredSlot slot : slots) {
+      Assert.assertTrue(slot.toString(), slot.getWhen().start() >= 780);
+      Assert.assertTrue(slot.toString(), slot.getWhen().end() <= 1020);
+    }
+  }
+
+  @Test
+  public void slotsFlushWithTheEndOfAGapAreCandidates() {
+    // The only free time is 9:10 to 10:20, too short for a 60 minute slot starting on the
+    //     30 minute grid.
+    IntervalSet busy = IntervalSet.of(Arrays.asList(TimeRange.fromStartEnd(0, 550, false),
+        TimeRange.fromStartEnd(620, TimeRange.WHOLE_DAY.end(), false)));
+    SlotScorer latest = candidate -> candidate.start();
+
+    List<ScoredSlot> slots =
+        SlotSelector.top(busy, Collections.<IntervalSet>emptyList(), 60, 10, 30, latest);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartDuration(560, 60),
+        TimeRange.fromStartDuration(550, 60)), whens(slots));
+  }
+
+  @Test
+  public void durationsBeyondAnIntFitNowhere() {
+    SlotScorer earliest = candidate -> -candidate.start();
+
+    for (long duration : new long[] {3000000000L, -3000000000L, Long.MAX_VALUE}) {
+      MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), duration);
+      Assert.assertTrue(SlotSelector.suggest(Collections.<Event>emptyList(), request, 5, 15,
+          earliest).isEmpty());
+    }
+  }
+
+  @Test
+  public void matchesSortingEveryCandidate() {
+    RandomCalendar calendar = new RandomCalendar(0, 8);
+    List<Event> events = calendar.events(60);
+    AvailabilityIndex index = AvailabilityIndex.build(events);
+    for (int i = 0; i < 200; i++) {
+      MeetingRequest request = calendar.request();
+      int duration = (int) request.getDuration();
+      if (duration <= 0 || duration > TimeRange.WHOLE_DAY.duration()) {
+        continue;
+      }
+      List<IntervalSet> optionalBusy = new ArrayList<>();
+      for (String attendee : request.getOptionalAttendees()) {
+        optionalBusy.add(index.getBusySet(attendee));
+      }
+      IntervalSet mandatoryBusy = index.getBusySet(request.getAttendees());
+
+      List<ScoredSlot> all = sortEveryCandidate(mandatoryBusy, optionalBusy, duration, 15);
+      List<ScoredSlot> expected = all.subList(0, Math.min(5, all.size()));
+
+      List<ScoredSlot> actual = SlotSelector.suggest(events, request, 5, 15,
+          WeightedSlotScorer.DEFAULT);
+      Assert.assertEquals("request " + i, whens(expected), whens(actual));
+    }
+  }
+
+  /**
+   * Scores every slot on the same grid as {@code SlotSelector} and sorts them all.
+   */
+  private static List<ScoredSlot> sortEveryCandidate(IntervalSet mandatoryBusy,
+      List<IntervalSet> optionalBusy, int duration, int step) {
+    List<ScoredSlot> slots = new ArrayList<>();
+    SlotCandidate candidate = new SlotCandidate(optionalBusy.size());
+    for (TimeRange gap : mandatoryBusy.gaps(duration)) {
+      List<Integer> starts = new ArrayList<>();
+      for (int start = gap.start(); start + duration <= gap.end(); start++) {
+        if (start == gap.start() || start % step == 0 || start + duration == gap.end()) {
+          starts.add(start);
+        }
+      }
+      for (int start : starts) {
+        int available = 0;
+        for (IntervalSet busy : optionalBusy) {
+          available += busy.overlaps(start, start + duration) ? 0 : 1;
+        }
+        candidate.moveTo(start, start + duration, gap.start(), gap.end(), available);
+        slots.add(new ScoredSlot(TimeRange.fromStartDuration(start, duration),
+            WeightedSlotScorer.DEFAULT.score(candidate), available));
+      }
+    }
+    slots.sort(Comparator.comparingDouble(ScoredSlot::getScore).reversed()
+        .thenComparingInt(slot -> slot.getWhen().start()));
+    return slots;
+  }
+
+  private static List<TimeRange> whens(List<ScoredSlot> slots) {
+    List<TimeRange> whens = new ArrayList<>();
+    for (ScoredSlot slot : slots) {
+      whens.add(slot.getWhen());
+    }
+    return whens;
+  }
+}
@@ -184,4 +184,18 @@ public final class TimeRangeTest {
     Assert.assertTrue(emptyMiddle.overlaps(range));
     Assert.assertTrue(emptyEnd.overlaps(range));
   }
+
+  @Test
+  public void quarterHourRangesAreShared() {
+    Assert.assertSame(TimeRange.fromStartDuration(540, 60),
+        TimeRange.fromStartEnd(540, 600, false));
+    Assert.assertSame(TimeRange.WHOLE_DAY,
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TimeRange.END_OF_DAY, true));
+
+    // Anything off the grid is still a new, equal range.
+    TimeRange offGrid = TimeRange.fromStartDuration(541, 60);
+    Assert.assertNotSame(offGrid, TimeRange.fromStartDuration(541, 60));
+    Assert.assertEquals(offGrid, TimeRange.fromStartDuration(541, 60));
+    Assert.assertEquals(-15, TimeRange.fromStartDuration(30, -15).duration());
+  }
 }
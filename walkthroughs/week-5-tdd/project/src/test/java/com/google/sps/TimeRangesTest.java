@@ -0,0 +1,91 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class TimeRangesTest {
+  @Test
+  public void behavesLikeAListOfRanges() {
+    List<TimeRange> expected = new ArrayList<>();
+    TimeRanges ranges = new TimeRanges(1);
+    for (int i = 0; i < 50; i++) {
+      expected.add(TimeRange.fromStartDuration(7 * i, 5));
+      ranges.add(7 * i, 7 * i + 5);
+    }
+
+    Assert.assertEquals(expected, ranges);
+    Assert.assertEquals(ranges, expected);
+    Assert.assertEquals(expected.hashCode(), ranges.hashCode());
+    Assert.assertEquals(14, ranges.start(2));
+    Assert.assertEquals(19, ranges.end(2));
+  }
+
+  @Test
+  public void gridRangesAreNotAllocated() {
+    TimeRanges ranges = new TimeRanges();
+    ranges.add(TimeRange.fromStartDuration(600, 30));
+
+    Assert.assertSame(TimeRange.fromStartDuration(600, 30), ranges.get(0));
+  }
+
+  @Test
+  public void readOnlyViewKeepsTheRangesItWasTakenWith() {
+    TimeRanges ranges = new TimeRanges(1);
+    ranges.add(0, 30);
+    TimeRanges view = ranges.readOnly();
+    // Grows the shared array past the end of the view.
+    ranges.add(60, 90);
+    ranges.add(120, 150);
+
+    Assert.assertEquals(1, view.size());
+    Assert.assertEquals(30, view.end(0));
+    Assert.assertSame(view, view.readOnly());
+    try {
+      view.add(200, 230);
+      Assert.fail("expected the view to be read-only");
+    } catch (UnsupportedOperationException e) {
+      // Expected.
+    }
+    Assert.assertEquals(3, ranges.size());
+  }
+
+  @Test
+  public void unmodifiableKeepsTimeRangesPrimitive() {
+    TimeRanges ranges = new TimeRanges();
+    ranges.add(0, 30);
+    List<TimeRange> boxed = Arrays.asList(TimeRange.fromStartDuration(0, 30));
+
+    Assert.assertTrue(TimeRanges.unmodifiable(ranges) instanceof TimeRanges);
+    Assert.assertEquals(boxed, TimeRanges.unmodifiable(ranges));
+    Assert.assertFalse(TimeRanges.unmodifiable(boxed) instanceof TimeRanges);
+    Assert.assertEquals(boxed, TimeRanges.unmodifiable(boxed));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void rejectsIndexesPastTheEnd() {
+    TimeRanges ranges = new TimeRanges(4);
+    ranges.start(0);
+  }
+}
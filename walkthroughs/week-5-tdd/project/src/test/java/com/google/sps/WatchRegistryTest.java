@@ -0,0 +1,150 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class WatchRegistryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  @Test
+  public void onlyChangedResultsAreSent() throws Exception {
+    EventStore store = new EventStore();
+    try (WatchRegistry registry = new WatchRegistry(store)) {
+      BlockingQueue<List<TimeRange>> updates = new LinkedBlockingQueue<>();
+      registry.watch(new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30),
+          available -> updates.add(new ArrayList<>(available)));
+      Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), next(updates));
+
+      // C isn't watched, so nothing is evaluated.
+      store.add(event("C busy", 0, 60, PERSON_C));
+      // A and B leave a 15 minute gap between them, too short for the meeting.
+      store.addAll(Arrays.asList(event("A busy", 600, 60, PERSON_A),
+          event("B busy", 675, 60, PERSON_B)));
+      Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(0, 600, false),
+          TimeRange.fromStartEnd(735, TimeRange.END_OF_DAY, true)), next(updates));
+
+      // An event that closes the 15 minute gap changes no available time either.
+      store.add(event("A again", 660, 15, PERSON_A));
+      store.remove(event("C busy", 0, 60, PERSON_C));
+      store.add(event("B early", 0, 30, PERSON_B));
+      Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(30, 600, false),
+          TimeRange.fromStartEnd(735, TimeRange.END_OF_DAY, true)), next(updates));
+      Assert.assertTrue(updates.isEmpty());
+    }
+  }
+
+  @Test
+  public void updatesStayPrimitiveForTheServlet() throws Exception {
+    // WatchServlet writes each update as it gets it, so TimeRanges have to reach it as such to
+    //     be written from their int pairs.
+    EventStore store = new EventStore();
+    try (WatchRegistry registry = new WatchRegistry(store)) {
+      BlockingQueue<Collection<TimeRange>> updates = new LinkedBlockingQueue<>();
+      registry.watch(new MeetingRequest(Arrays.asList(PERSON_A), 30), updates::add);
+      Assert.assertTrue(next(updates) instanceof TimeRanges);
+
+      store.add(event("A busy", 600, 60, PERSON_A));
+      Collection<TimeRange> update = next(updates);
+      Assert.assertTrue(update instanceof TimeRanges);
+      Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(0, 600, false),
+          TimeRange.fromStartEnd(660, TimeRange.END_OF_DAY, true)), update);
+    }
+  }
+
+  @Test
+  public void cancelledWatchesStopHearingChanges() throws Exception {
+    EventStore store = new EventStore();
+    try (WatchRegistry registry = new WatchRegistry(store)) {
+      BlockingQueue<List<TimeRange>> cancelledUpdates = new LinkedBlockingQueue<>();
+      BlockingQueue<List<TimeRange>> updates = new LinkedBlockingQueue<>();
+      WatchRegistry.Watch cancelled = registry.watch(
+          new MeetingRequest(Arrays.asList(PERSON_A), 30),
+          available -> cancelledUpdates.add(new ArrayList<>(available)));
+      registry.watch(new MeetingRequest(Arrays.asList(PERSON_A), 60),
+          available -> updates.add(new ArrayList<>(available)));
+      next(cancelledUpdates);
+      next(updates);
+      Assert.assertEquals(2, registry.size());
+
+      cancelled.cancel();
+      cancelled.cancel();
+      Assert.assertEquals(1, registry.size());
+
+      store.add(event("A busy", 0, 60, PERSON_A));
+      next(updates);
+      Assert.assertTrue(cancelledUpdates.isEmpty());
+    }
+  }
+
+  @Test
+  public void workingHoursApplyAndTheirChangesAreSent() throws Exception {
+    EventStore store = new EventStore();
+    WorkingHoursProfiles profiles = new WorkingHoursProfiles(ZoneOffset.UTC);
+    profiles.set(PERSON_A, everyDay(9, 17));
+    try (WatchRegistry registry = new WatchRegistry(store, profiles)) {
+      BlockingQueue<List<TimeRange>> updates = new LinkedBlockingQueue<>();
+      registry.watch(new MeetingRequest(Arrays.asList(PERSON_A), 30),
+          available -> updates.add(new ArrayList<>(available)));
+      Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(540, 1020, false)),
+          next(updates));
+
+      profiles.set(PERSON_A, everyDay(10, 12));
+      Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(600, 720, false)),
+          next(updates));
+
+      // B isn't watched, so nothing is evaluated.
+      profiles.set(PERSON_B, everyDay(10, 12));
+      profiles.set(PERSON_A, null);
+      Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), next(updates));
+      Assert.assertTrue(updates.isEmpty());
+    }
+  }
+
+  private static WorkingHours everyDay(int startHour, int endHour) {
+    return new WorkingHours(ZoneOffset.UTC, LocalTime.of(startHour, 0), LocalTime.of(endHour, 0),
+        EnumSet.allOf(DayOfWeek.class));
+  }
+
+  private static Event event(String title, int start, int duration, String attendee) {
+    return new Event(title, TimeRange.fromStartDuration(start, duration),
+        Arrays.asList(attendee));
+  }
+
+  private static <T> T next(BlockingQueue<T> updates) throws InterruptedException {
+    T update = updates.poll(5, TimeUnit.SECONDS);
+    Assert.assertNotNull("no update arrived", update);
+    return update;
+  }
+}
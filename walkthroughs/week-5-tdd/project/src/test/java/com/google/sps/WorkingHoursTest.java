@@ -0,0 +1,117 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.EnumSet;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class WorkingHoursTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final EnumSet<DayOfWeek> WEEKDAYS =
+      EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+  // A Wednesday in winter, and the Sunday European clocks go forward.
+  private static final LocalDate WEDNESDAY = LocalDate.of(2026, 1, 14);
+  private static final LocalDate DST_SUNDAY = LocalDate.of(2026, 3, 29);
+
+  @Test
+  public void hoursInOtherZonesShiftTheMask() {
+    WorkingHours newYork = nineToFive("America/New_York", WEEKDAYS);
+
+    // 9:00 to 17:00 in New York is 14:00 to 22:00 UTC in winter.
+    Assert.assertEquals(busy(0, 840, 1320, 1440), newYork.offHours(WEDNESDAY, ZoneOffset.UTC));
+    // And nobody works on a Saturday.
+    Assert.assertEquals(IntervalSet.WHOLE_DAY,
+        newYork.offHours(WEDNESDAY.plusDays(3), ZoneOffset.UTC));
+  }
+
+  @Test
+  public void daylightSavingMovesTheHours() {
+    WorkingHours paris = nineToFive("Europe/Paris", EnumSet.allOf(DayOfWeek.class));
+
+    // Paris is an hour ahead of UTC on Saturday and two hours ahead from Sunday morning.
+    Assert.assertEquals(busy(0, 480, 960, 1440),
+        paris.offHours(DST_SUNDAY.minusDays(1), ZoneOffset.UTC));
+    Assert.assertEquals(busy(0, 420, 900, 1440), paris.offHours(DST_SUNDAY, ZoneOffset.UTC));
+  }
+
+  @Test
+  public void overnightShiftsRunIntoTheNextDay() {
+    WorkingHours nights = new WorkingHours(ZoneOffset.UTC, LocalTime.of(22, 0),
+        LocalTime.of(6, 0), EnumSet.of(DayOfWeek.TUESDAY));
+
+    // Tuesday's shift ends on Wednesday morning; there is no Wednesday shift.
+    Assert.assertEquals(busy(0, 1320), nights.offHours(WEDNESDAY.minusDays(1), ZoneOffset.UTC));
+    Assert.assertEquals(busy(360, 1440), nights.offHours(WEDNESDAY, ZoneOffset.UTC));
+  }
+
+  @Test
+  public void masksAreCachedUntilTheProfileChanges() {
+    WorkingHoursProfiles profiles = new WorkingHoursProfiles(ZoneOffset.UTC);
+    profiles.set(PERSON_A, nineToFive("UTC", WEEKDAYS));
+
+    IntervalSet mask = profiles.offHours(PERSON_A, WEDNESDAY);
+    Assert.assertSame(mask, profiles.offHours(PERSON_A, WEDNESDAY));
+    Assert.assertEquals(IntervalSet.EMPTY, profiles.offHours(PERSON_B, WEDNESDAY));
+
+    // 9:00 to 17:00 in Tokyo is midnight to 8:00 UTC.
+    profiles.set(PERSON_A, nineToFive("Asia/Tokyo", WEEKDAYS));
+    Assert.assertEquals(busy(480, 1440), profiles.offHours(PERSON_A, WEDNESDAY));
+  }
+
+  @Test
+  public void queriesOnlyFindTimesEveryoneWorks() throws Exception {
+    WorkingHoursProfiles profiles = new WorkingHoursProfiles(ZoneOffset.UTC);
+    profiles.set(PERSON_A, nineToFive("Europe/London", WEEKDAYS));
+    profiles.set(PERSON_B, nineToFive("America/New_York", WEEKDAYS));
+    Event standup = new Event("Standup", TimeRange.fromStartDuration(900, 30),
+        Arrays.asList(PERSON_A));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30);
+
+    // Both work from 14:00 to 17:00 UTC, minus A's standup.
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(840, 900, false),
+        TimeRange.fromStartEnd(930, 1020, false)),
+        new FindMeetingQuery(profiles, WEDNESDAY).query(Arrays.asList(standup), request));
+    // Without profiles the whole day is free again.
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(0, 900, false),
+        TimeRange.fromStartEnd(930, 1440, false)),
+        new FindMeetingQuery().query(Arrays.asList(standup), request));
+  }
+
+  private static WorkingHours nineToFive(String zone, EnumSet<DayOfWeek> days) {
+    return new WorkingHours(ZoneId.of(zone), LocalTime.of(9, 0), LocalTime.of(17, 0), days);
+  }
+
+  private static IntervalSet busy(int... bounds) {
+    TimeRanges ranges = new TimeRanges();
+    for (int i = 0; i < bounds.length; i += 2) {
+      ranges.add(bounds[i], bounds[i + 1]);
+    }
+    return IntervalSet.of(ranges);
+  }
+}
@@ -0,0 +1,90 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmark;
+
+import com.google.sps.AttendeeDictionary;
+import com.google.sps.CompactEvent;
+import com.google.sps.Event;
+import com.google.sps.TimeRange;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Compares the retained heap of a calendar stored as {@code Event}s with the same calendar stored
+ *     as {@code CompactEvent}s, measured with JOL. Attendees are drawn from a fixed set of teams,
+ *     as in a real organisation where the same groups meet again and again. Run it with
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.google.sps.benchmark.EventFootprintBenchmark -Dbenchmark.events=1000000
+ * </pre>
+ *
+ * Titles and time ranges are shared by both layouts and are left out of the totals, so the
+ *     numbers show only the cost of storing attendees.
+ */
+public final class EventFootprintBenchmark {
+  private static final int NUM_PEOPLE = 20000;
+  private static final int NUM_TEAMS = 5000;
+
+  public static void main(String[] args) {
+    int numEvents = Integer.getInteger("benchmark.events", 100000);
+    Random random = new Random(Long.getLong("benchmark.seed", 0L));
+
+    List<Set<String>> teams = new ArrayList<>(NUM_TEAMS);
+    for (int i = 0; i < NUM_TEAMS; i++) {
+      Set<String> team = new HashSet<>();
+      int teamSize = 1 + random.nextInt(8);
+      while (team.size() < teamSize) {
+        team.add("person-" + random.nextInt(NUM_PEOPLE));
+      }
+      teams.add(team);
+    }
+
+    TimeRange when = TimeRange.fromStartDuration(540, 30);
+    List<Event> events = new ArrayList<>(numEvents);
+    for (int i = 0; i < numEvents; i++) {
+      events.add(new Event("", when, teams.get(random.nextInt(NUM_TEAMS))));
+    }
+
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+    List<CompactEvent> compactEvents = new ArrayList<>(numEvents);
+    for (Event event : events) {
+      compactEvents.add(CompactEvent.of(event, dictionary));
+    }
+
+    // The name strings are shared by both layouts as well, so they are subtracted from both.
+    GraphLayout shared = GraphLayout.parseInstance(when, "");
+    for (Set<String> team : teams) {
+      for (String name : team) {
+        shared = shared.add(GraphLayout.parseInstance(name));
+      }
+    }
+
+    long eventBytes = GraphLayout.parseInstance(events).subtract(shared).totalSize();
+    long compactBytes =
+        GraphLayout.parseInstance(compactEvents, dictionary).subtract(shared).totalSize();
+
+    System.out.println(String.format("%d events, %d distinct attendees, %d distinct groups",
+        numEvents, dictionary.size(), dictionary.numGroups()));
+    System.out.println(String.format("Event:        %,14d bytes, %6.1f bytes/event",
+        eventBytes, (double) eventBytes / numEvents));
+    System.out.println(String.format("CompactEvent: %,14d bytes, %6.1f bytes/event",
+        compactBytes, (double) compactBytes / numEvents));
+  }
+}
@@ -0,0 +1,101 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmark;
+
+import com.google.gson.Gson;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import com.google.sps.json.SchedulerJson;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the per-request cost of parsing a {@code MeetingRequest} and writing the answer, the
+ *     way {@code QueryServlet} used to (a new reflective {@code Gson} per request) against the
+ *     shared {@code SchedulerJson} codec. Run it with
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.google.sps.benchmark.JsonCodecBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonCodecBenchmark {
+  // The body script.js sends, durations included as a string.
+  private static final String REQUEST_JSON = "{\"duration\":\"30\","
+      + "\"attendees\":[\"Person A\",\"Person B\",\"Person C\",\"Person D\"],"
+      + "\"optional_attendees\":[\"Person E\",\"Person F\",\"Person G\"]}";
+
+  private final List<TimeRange> answer = new ArrayList<>();
+
+  public JsonCodecBenchmark() {
+    for (int start = 0; start < TimeRange.WHOLE_DAY.end(); start += 120) {
+      answer.add(TimeRange.fromStartDuration(start, 60));
+    }
+  }
+
+  @Benchmark
+  public MeetingRequest parseReflective() {
+    return new Gson().fromJson(REQUEST_JSON, MeetingRequest.class);
+  }
+
+  @Benchmark
+  public MeetingRequest parseShared() {
+    return SchedulerJson.gson().fromJson(REQUEST_JSON, MeetingRequest.class);
+  }
+
+  @Benchmark
+  public String writeReflective() {
+    return new Gson().toJson(answer);
+  }
+
+  @Benchmark
+  public String writeShared() {
+    return SchedulerJson.gson().toJson(answer);
+  }
+
+  @Benchmark
+  public String writeCompact() throws IOException {
+    StringWriter out = new StringWriter();
+    SchedulerJson.writeCompact(answer, out);
+    return out.toString();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(JsonCodecBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
@@ -0,0 +1,78 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmark;
+
+import com.google.sps.Event;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.OffHeapEventStore;
+import com.google.sps.TimeRange;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Shows that the heap used by an {@code OffHeapEventStore} doesn't grow with the number of
+ *     events. Stores of increasing size are filled from the same few hundred attendees and the
+ *     live heap is measured after a full collection, next to the bytes reserved outside the
+ *     heap. Run it with
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.google.sps.benchmark.OffHeapFootprintBenchmark \
+ *     -Dbenchmark.events=10000000
+ * </pre>
+ *
+ * Heap numbers from {@code MemoryMXBean} are approximate, but growth with the event count would
+ *     show up as megabytes.
+ */
+public final class OffHeapFootprintBenchmark {
+  private static final int NUM_PEOPLE = 500;
+
+  public static void main(String[] args) throws Exception {
+    int maxEvents = Integer.getInteger("benchmark.events", 1000000);
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    for (int numEvents = maxEvents / 100; numEvents <= maxEvents; numEvents *= 10) {
+      Random random = new Random(Long.getLong("benchmark.seed", 0L));
+      OffHeapEventStore store = new OffHeapEventStore();
+      for (int i = 0; i < numEvents; i++) {
+        int start = random.nextInt(TimeRange.WHOLE_DAY.duration() - 60);
+        store.add(new Event("Event " + i, TimeRange.fromStartDuration(start, 30),
+            Arrays.asList("person-" + random.nextInt(NUM_PEOPLE),
+                "person-" + random.nextInt(NUM_PEOPLE))));
+      }
+
+      long heap = liveHeap(memory);
+      long queryStart = System.nanoTime();
+      new FindMeetingQuery().query(store,
+          new MeetingRequest(Arrays.asList("person-1", "person-2"), 30));
+      long queryMillis = (System.nanoTime() - queryStart) / 1000000;
+
+      System.out.println(String.format(
+          "%,12d events: live heap %,12d bytes, off-heap %,14d bytes, query %,6d ms",
+          numEvents, heap, store.offHeapBytes(), queryMillis));
+    }
+  }
+
+  private static long liveHeap(MemoryMXBean memory) throws InterruptedException {
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+      Thread.sleep(50);
+    }
+    return memory.getHeapMemoryUsage().getUsed();
+  }
+}
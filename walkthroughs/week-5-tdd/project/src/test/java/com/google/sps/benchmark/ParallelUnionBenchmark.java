@@ -0,0 +1,100 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmark;
+
+import com.google.sps.IntervalSet;
+import com.google.sps.ParallelUnion;
+import com.google.sps.TimeRange;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the union of the busy times of every attendee of a large meeting, merged
+ *     sequentially with {@code IntervalSet.union} and in parallel with {@code ParallelUnion} on
+ *     the common pool, across attendee counts. Run it with
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.google.sps.benchmark.ParallelUnionBenchmark
+ * </pre>
+ *
+ * The parallel merge only pays off with more than one core; with one it falls back to the
+ *     sequential merge.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelUnionBenchmark {
+  // Busy times per attendee, spread over the whole day.
+  private static final int INTERVALS_PER_ATTENDEE = 8;
+
+  @Param({"500", "2000", "10000", "50000"})
+  public int numAttendees;
+
+  @Param({"64"})
+  public int leafSize;
+
+  private List<IntervalSet> sets;
+
+  @Setup
+  public void createSets() {
+    Random random = new Random(0);
+    sets = new ArrayList<>(numAttendees);
+    for (int i = 0; i < numAttendees; i++) {
+      List<TimeRange> ranges = new ArrayList<>(INTERVALS_PER_ATTENDEE);
+      for (int j = 0; j < INTERVALS_PER_ATTENDEE; j++) {
+        int start = random.nextInt(TimeRange.WHOLE_DAY.duration() - 60);
+        ranges.add(TimeRange.fromStartDuration(start, 5 + random.nextInt(25)));
+      }
+      sets.add(IntervalSet.of(ranges));
+    }
+  }
+
+  @Benchmark
+  public IntervalSet sequential() {
+    return IntervalSet.union(sets);
+  }
+
+  @Benchmark
+  public IntervalSet parallel() {
+    return ParallelUnion.union(sets, leafSize, 0, ForkJoinPool.commonPool());
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(ParallelUnionBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
@@ -0,0 +1,154 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.importer;
+
+import com.google.gson.Gson;
+import com.google.sps.Event;
+import com.google.sps.EventStore;
+import com.google.sps.Events;
+import com.google.sps.TimeRange;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CalendarImporterTest {
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1130AM = TimeRange.getTimeInMinutes(11, 30);
+
+  private EventStore store;
+  private CalendarImporter importer;
+
+  @Before
+  public void setUp() {
+    store = new EventStore();
+    // Tiny chunks so that every import is split across several workers.
+    importer = new CalendarImporter(store, 2, 3, 2);
+  }
+
+  @Test
+  public void jsonRoundTripsGetEventsFormat() throws Exception {
+    String json = new Gson().toJson(Events.events);
+
+    CalendarImporter.Result result = importer.importJson(new StringReader(json));
+
+    Assert.assertEquals(Events.events.length, result.getImported());
+    Assert.assertEquals(0, result.getSkipped());
+    Assert.assertEquals(new HashSet<>(Arrays.asList(Events.events)),
+        new HashSet<>(store.getEvents()));
+  }
+
+  @Test
+  public void jsonSkipsMalformedEntries() throws Exception {
+    String json = "[{\"title\":\"Sync\",\"when\":{\"start\":540,\"duration\":30},"
+        + "\"attendees\":[\"Ava\"]}, {\"title\":\"No time\",\"attendees\":[]}]";
+
+    CalendarImporter.Result result = importer.importJson(new StringReader(json));
+
+    Assert.assertEquals(1, result.getImported());
+    Assert.assertEquals(1, result.getSkipped());
+  }
+
+  @Test
+  public void iCalendarEvents() throws Exception {
+    String ics = String.join("\r\n",
+        "BEGIN:VCALENDAR",
+        "BEGIN:VEVENT",
+        "SUMMARY:Hiring Review\\, round 2",
+        "DTSTART:20200101T090000Z",
+        "DTEND:20200101T100000Z",
+        "ATTENDEE;CN=\"Doe: Jane\";ROLE=REQ-PARTICIPANT:mailto:jane@example.com",
+        "ATTENDEE:mailto:ava@exa",
+        " mple.com",
+        "BEGIN:VALARM",
+        "SUMMARY:Reminder",
+        "END:VALARM",
+        "END:VEVENT",
+        "BEGIN:VEVENT",
+        "SUMMARY:Interview",
+        "DTSTART;TZID=America/New_York:20200101T083000",
+        "DURATION:PT3H",
+        "ATTENDEE:mailto:liam@example.com",
+        "END:VEVENT",
+        "BEGIN:VEVENT",
+        "SUMMARY:No start",
+        "END:VEVENT",
+        "END:VCALENDAR");
+
+    CalendarImporter.Result result = importer.importICalendar(new StringReader(ics));
+
+    Assert.assertEquals(2, result.getImported());
+    Assert.assertEquals(1, result.getSkipped());
+    Assert.assertEquals(new HashSet<>(Arrays.asList(
+        new Event("Hiring Review, round 2", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList("Doe: Jane", "ava@example.com")),
+        new Event("Interview", TimeRange.fromStartEnd(TIME_0830AM, TIME_1130AM, false),
+            Arrays.asList("liam@example.com")))),
+        new HashSet<>(store.getEvents()));
+  }
+
+  @Test
+  public void iCalendarTextIsUnescapedInOnePass() throws Exception {
+    String ics = String.join("\r\n",
+        "BEGIN:VEVENT",
+        "SUMMARY:C:\\\\new\\nline\\; done\\N",
+        "DTSTART:20200101T090000Z",
+        "END:VEVENT");
+
+    importer.importICalendar(new StringReader(ics));
+
+    // An escaped backslash followed by an n is a backslash and an n, not a line break.
+    Assert.assertEquals("C:\\new\nline; done\n", store.getEvents().get(0).getTitle());
+  }
+
+  @Test
+  public void iCalendarDurationsInWeeksAndDays() throws Exception {
+    String ics = String.join("\r\n",
+        "BEGIN:VEVENT",
+        "SUMMARY:Offsite",
+        "DTSTART:20200101T090000Z",
+        "DURATION:P1W",
+        "END:VEVENT",
+        "BEGIN:VEVENT",
+        "SUMMARY:Workshop",
+        "DTSTART:20200101T083000Z",
+        "DURATION:+P0DT1H30M",
+        "END:VEVENT",
+        "BEGIN:VEVENT",
+        "SUMMARY:Backwards",
+        "DTSTART:20200101T100000Z",
+        "DURATION:-P2W",
+        "END:VEVENT");
+
+    CalendarImporter.Result result = importer.importICalendar(new StringReader(ics));
+
+    Assert.assertEquals(3, result.getImported());
+    Assert.assertEquals(new HashSet<>(Arrays.asList(
+        new Event("Offsite", TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList()),
+        new Event("Workshop", TimeRange.fromStartEnd(TIME_0830AM, TIME_1000AM, false),
+            Arrays.asList()),
+        new Event("Backwards", TimeRange.fromStartDuration(TIME_1000AM, 0), Arrays.asList()))),
+        new HashSet<>(store.getEvents()));
+  }
+}
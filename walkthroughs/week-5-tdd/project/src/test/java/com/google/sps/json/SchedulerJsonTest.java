@@ -0,0 +1,97 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.json;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import com.google.sps.TimeRanges;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class SchedulerJsonTest {
+  private static final List<TimeRange> RANGES = Arrays.asList(
+      TimeRange.fromStartDuration(0, 30), TimeRange.fromStartEnd(600, 1440, false));
+
+  @Test
+  public void readsTheRequestScriptJsSends() {
+    String json = "{\"duration\":\"30\",\"attendees\":[\"Person A\",\"Person B\"],"
+        + "\"optional_attendees\":[\"Person C\",\"Person A\"],\"unknown\":{\"x\":[1]}}";
+
+    MeetingRequest request = SchedulerJson.gson().fromJson(json, MeetingRequest.class);
+
+    Assert.assertEquals(30, request.getDuration());
+    Assert.assertEquals(new HashSet<>(Arrays.asList("Person A", "Person B")),
+        new HashSet<>(request.getAttendees()));
+    Assert.assertEquals(new HashSet<>(Arrays.asList("Person C")),
+        new HashSet<>(request.getOptionalAttendees()));
+  }
+
+  @Test
+  public void malformedNumbersAreSyntaxErrors() {
+    for (String json : Arrays.asList("{\"duration\":\"thirty\",\"attendees\":[]}",
+        "{\"duration\":30,\"quorum\":\"1e99\",\"attendees\":[]}")) {
+      try {
+        SchedulerJson.gson().fromJson(json, MeetingRequest.class);
+        Assert.fail("expected " + json + " to be rejected");
+      } catch (JsonSyntaxException e) {
+        // Servlets answer 400 for these.
+      }
+    }
+  }
+
+  @Test
+  public void timeRangesMatchReflectiveFormat() {
+    Gson gson = SchedulerJson.gson();
+
+    String json = gson.toJson(RANGES);
+
+    Assert.assertEquals(new Gson().toJson(RANGES), json);
+    Assert.assertEquals(RANGES, Arrays.asList(gson.fromJson(json, TimeRange[].class)));
+  }
+
+  @Test
+  public void writesCompactArray() throws Exception {
+    StringWriter out = new StringWriter();
+
+    SchedulerJson.writeCompact(RANGES, out);
+
+    Assert.assertEquals("[0,30,600,1440]", out.toString());
+  }
+
+  @Test
+  public void primitiveRangesMatchListFormat() throws Exception {
+    TimeRanges primitive = new TimeRanges();
+    primitive.addAll(RANGES);
+    Gson gson = SchedulerJson.gson();
+
+    String json = gson.toJson(primitive);
+    StringWriter compact = new StringWriter();
+    SchedulerJson.writeCompact(primitive, compact);
+
+    Assert.assertEquals(gson.toJson(RANGES), json);
+    Assert.assertEquals(RANGES, gson.fromJson(json, TimeRanges.class));
+    Assert.assertEquals("[0,30,600,1440]", compact.toString());
+  }
+}
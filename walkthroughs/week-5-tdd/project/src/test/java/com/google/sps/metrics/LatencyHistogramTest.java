@@ -0,0 +1,156 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class LatencyHistogramTest {
+  @Test
+  public void bucketsAreBoundedByPowersOfTwo() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(-5);
+    histogram.record(0);
+    histogram.record(1);
+    histogram.record(2);
+    histogram.record(3);
+    histogram.record(4);
+    histogram.record(1023);
+    histogram.record(1024);
+
+    Map<String, Long> expected = new LinkedHashMap<>();
+    expected.put("<2", 3L);
+    expected.put("<4", 2L);
+    expected.put("<8", 1L);
+    expected.put("<1024", 1L);
+    expected.put("<2048", 1L);
+    Assert.assertEquals(expected, histogram.toMap().get("buckets"));
+    Assert.assertEquals(8, histogram.count());
+    // Negative samples count as 0.
+    Assert.assertEquals(2057, histogram.totalNanos());
+  }
+
+  @Test
+  public void longestSamplesHaveNoUpperBound() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record((1L << 61) + 1);
+    histogram.record(1L << 62);
+    histogram.record(Long.MAX_VALUE);
+
+    Map<String, Long> expected = new LinkedHashMap<>();
+    expected.put("<" + (1L << 62), 1L);
+    expected.put("inf", 2L);
+    Assert.assertEquals(expected, histogram.toMap().get("buckets"));
+    Assert.assertEquals(Long.MAX_VALUE, histogram.percentileNanos(100));
+  }
+
+  @Test
+  public void percentilesOfAnEmptyHistogramAreZero() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    Assert.assertEquals(0, histogram.percentileNanos(0));
+    Assert.assertEquals(0, histogram.percentileNanos(50));
+    Assert.assertEquals(0, histogram.percentileNanos(100));
+    Assert.assertEquals(0L, histogram.toMap().get("p99Nanos"));
+  }
+
+  @Test
+  public void percentilesAreTheBoundOfTheirBucket() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    // 90 samples in [64, 128), 9 in [1024, 2048) and 1 in [65536, 131072).
+    for (int i = 0; i < 90; i++) {
+      histogram.record(100);
+    }
+    for (int i = 0; i < 9; i++) {
+      histogram.record(1500);
+    }
+    histogram.record(100000);
+
+    Assert.assertEquals(128, histogram.percentileNanos(0));
+    Assert.assertEquals(128, histogram.percentileNanos(50));
+    Assert.assertEquals(128, histogram.percentileNanos(90));
+    Assert.assertEquals(2048, histogram.percentileNanos(90.5));
+    Assert.assertEquals(2048, histogram.percentileNanos(99));
+    Assert.assertEquals(131072, histogram.percentileNanos(99.5));
+    Assert.assertEquals(131072, histogram.percentileNanos(100));
+  }
+
+  @Test
+  public void resetEmptiesTheHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(100);
+    histogram.reset();
+
+    Assert.assertEquals(0, histogram.count());
+    Assert.assertEquals(0, histogram.totalNanos());
+    Assert.assertEquals(0, histogram.percentileNanos(50));
+    Assert.assertTrue(((Map<?, ?>) histogram.toMap().get("buckets")).isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void percentilesAboveAHundredAreRejected() {
+    new LatencyHistogram().percentileNanos(100.1);
+  }
+
+  @Test
+  public void concurrentSamplesAreAllCounted() throws Exception {
+    int numThreads = 8;
+    int samplesPerThread = 10000;
+    LatencyHistogram histogram = new LatencyHistogram();
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < numThreads; t++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int i = 0; i < samplesPerThread; i++) {
+            // Half of the samples in [2, 4) and half in [1024, 2048).
+            histogram.record(i % 2 == 0 ? 3 : 1500);
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    long total = (long) numThreads * samplesPerThread;
+    Map<String, Long> expected = new LinkedHashMap<>();
+    expected.put("<4", total / 2);
+    expected.put("<2048", total / 2);
+    Assert.assertEquals(expected, histogram.toMap().get("buckets"));
+    Assert.assertEquals(total, histogram.count());
+    Assert.assertEquals(total / 2 * (3 + 1500), histogram.totalNanos());
+    Assert.assertEquals(4, histogram.percentileNanos(50));
+    Assert.assertEquals(2048, histogram.percentileNanos(51));
+  }
+}
@@ -0,0 +1,212 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class SchedulerMetricsTest {
+  private SchedulerMetrics metrics;
+
+  @Before
+  public void setUp() {
+    metrics = SchedulerMetrics.getInstance();
+    metrics.setEnabled(false);
+    metrics.reset();
+  }
+
+  @After
+  public void tearDown() {
+    // The metrics are shared by the whole JVM, so leave them as other tests expect them.
+    metrics.setEnabled(false);
+    metrics.reset();
+  }
+
+  @Test
+  public void nothingIsRecordedWhileDisabled() {
+    long start = metrics.startTimer();
+    metrics.recordPhase(SchedulerMetrics.Phase.SORT, start);
+    metrics.recordQuery(start);
+    metrics.recordEvents(10, 5);
+    metrics.recordCoalescing(true);
+    metrics.recordShard(0, start);
+
+    Assert.assertEquals(0L, start);
+    Map<String, Object> snapshot = metrics.snapshot();
+    Assert.assertEquals(false, snapshot.get("enabled"));
+    Assert.assertEquals(0L, histogram(snapshot, "queries").get("count"));
+    Assert.assertEquals(0L, histogram(phases(snapshot), "sort").get("count"));
+    Assert.assertEquals(0L, snapshot.get("eventsExamined"));
+    Assert.assertEquals(0L, snapshot.get("eventsKept"));
+    Assert.assertEquals(0L, map(snapshot, "coalescing").get("joined"));
+    Assert.assertTrue(map(snapshot, "shards").isEmpty());
+  }
+
+  @Test
+  public void timersStartedWhileDisabledAreIgnoredOnceEnabled() {
+    long start = metrics.startTimer();
+    metrics.setEnabled(true);
+    metrics.recordPhase(SchedulerMetrics.Phase.SCAN, start);
+
+    Assert.assertEquals(0L, histogram(phases(metrics.snapshot()), "scan").get("count"));
+  }
+
+  @Test
+  public void everyPhaseIsRecordedSeparately() {
+    metrics.setEnabled(true);
+    long start = metrics.startTimer();
+    metrics.recordPhase(SchedulerMetrics.Phase.FILTER, start);
+    metrics.recordPhase(SchedulerMetrics.Phase.FILTER, start);
+    metrics.recordPhase(SchedulerMetrics.Phase.SCAN, start);
+    metrics.recordQuery(start);
+    metrics.recordEvents(10, 4);
+    metrics.recordEvents(6, 1);
+
+    Map<String, Object> snapshot = metrics.snapshot();
+    Map<String, Object> phases = phases(snapshot);
+    Assert.assertEquals(Arrays.asList("filter", "sort", "convert", "scan"),
+        new ArrayList<>(phases.keySet()));
+    Assert.assertEquals(2L, histogram(phases, "filter").get("count"));
+    Assert.assertEquals(0L, histogram(phases, "sort").get("count"));
+    Assert.assertEquals(0L, histogram(phases, "convert").get("count"));
+    Assert.assertEquals(1L, histogram(phases, "scan").get("count"));
+    Assert.assertEquals(1L, histogram(snapshot, "queries").get("count"));
+    Assert.assertEquals(16L, snapshot.get("eventsExamined"));
+    Assert.assertEquals(5L, snapshot.get("eventsKept"));
+  }
+
+  @Test
+  public void coalescingRateIsTheShareOfJoinedQueries() {
+    Assert.assertEquals(0.0, map(metrics.snapshot(), "coalescing").get("rate"));
+
+    metrics.setEnabled(true);
+    metrics.recordCoalescing(false);
+    metrics.recordCoalescing(true);
+    metrics.recordCoalescing(true);
+    metrics.recordCoalescing(true);
+
+    Map<String, Object> coalescing = map(metrics.snapshot(), "coalescing");
+    Assert.assertEquals(1L, coalescing.get("started"));
+    Assert.assertEquals(3L, coalescing.get("joined"));
+    Assert.assertEquals(0.75, coalescing.get("rate"));
+  }
+
+  @Test
+  public void shardsAreListedInOrder() {
+    metrics.setEnabled(true);
+    long start = metrics.startTimer();
+    metrics.recordShard(10, start);
+    metrics.recordShard(2, start);
+    metrics.recordShard(2, start);
+
+    Map<String, Object> shards = map(metrics.snapshot(), "shards");
+    Assert.assertEquals(Arrays.asList("2", "10"), new ArrayList<>(shards.keySet()));
+    Assert.assertEquals(2L, histogram(shards, "2").get("count"));
+    Assert.assertEquals(1L, histogram(shards, "10").get("count"));
+  }
+
+  @Test
+  public void resetClearsEverything() {
+    metrics.setEnabled(true);
+    long start = metrics.startTimer();
+    metrics.recordPhase(SchedulerMetrics.Phase.CONVERT, start);
+    metrics.recordQuery(start);
+    metrics.recordEvents(3, 3);
+    metrics.recordCoalescing(true);
+    metrics.recordShard(1, start);
+    metrics.reset();
+
+    Map<String, Object> snapshot = metrics.snapshot();
+    Assert.assertEquals(true, snapshot.get("enabled"));
+    Assert.assertEquals(0L, histogram(snapshot, "queries").get("count"));
+    Assert.assertEquals(0L, histogram(phases(snapshot), "convert").get("count"));
+    Assert.assertEquals(0L, snapshot.get("eventsExamined"));
+    Assert.assertEquals(0L, map(snapshot, "coalescing").get("joined"));
+    Assert.assertTrue(map(snapshot, "shards").isEmpty());
+  }
+
+  @Test
+  public void concurrentRecordingLosesNothing() throws Exception {
+    int numThreads = 8;
+    int queriesPerThread = 5000;
+    metrics.setEnabled(true);
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < numThreads; t++) {
+        int shard = t % 2;
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int i = 0; i < queriesPerThread; i++) {
+            long queryStart = metrics.startTimer();
+            metrics.recordPhase(SchedulerMetrics.Phase.FILTER, queryStart);
+            metrics.recordEvents(3, 1);
+            metrics.recordCoalescing(i % 4 == 0);
+            metrics.recordShard(shard, queryStart);
+            metrics.recordQuery(queryStart);
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    long total = (long) numThreads * queriesPerThread;
+    Map<String, Object> snapshot = metrics.snapshot();
+    Assert.assertEquals(total, histogram(snapshot, "queries").get("count"));
+    Assert.assertEquals(total, histogram(phases(snapshot), "filter").get("count"));
+    Assert.assertEquals(3 * total, snapshot.get("eventsExamined"));
+    Assert.assertEquals(total, snapshot.get("eventsKept"));
+    Map<String, Object> coalescing = map(snapshot, "coalescing");
+    Assert.assertEquals(total / 4, coalescing.get("joined"));
+    Assert.assertEquals(total - total / 4, coalescing.get("started"));
+    Map<String, Object> shards = map(snapshot, "shards");
+    Assert.assertEquals(total / 2, histogram(shards, "0").get("count"));
+    Assert.assertEquals(total / 2, histogram(shards, "1").get("count"));
+  }
+
+  private static Map<String, Object> phases(Map<String, Object> snapshot) {
+    return map(snapshot, "phases");
+  }
+
+  private static Map<String, Object> histogram(Map<String, Object> parent, String name) {
+    return map(parent, name);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> map(Map<String, Object> parent, String name) {
+    return (Map<String, Object>) parent.get(name);
+  }
+}
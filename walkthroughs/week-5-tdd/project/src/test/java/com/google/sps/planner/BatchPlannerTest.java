@@ -0,0 +1,186 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.planner;
+
+import com.google.sps.AvailabilityIndex;
+import com.google.sps.Event;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import com.google.sps.planner.PlannedMeetingRequest.Constraint;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class BatchPlannerTest {
+  // Some people that we can use in our tests.
+  private static final String CANDIDATE = "Candidate";
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+  private static final int TIME_1200PM = TimeRange.getTimeInMinutes(12, 0);
+
+  private static final int DURATION_60_MINUTES = 60;
+
+  private static PlannedMeetingRequest planned(Constraint constraint, String... attendees) {
+    return new PlannedMeetingRequest(
+        new MeetingRequest(Arrays.asList(attendees), DURATION_60_MINUTES), constraint);
+  }
+
+  @Test
+  public void independentMeetingsDontShareAttendeeTime() {
+    // Both meetings include A, so the second one can't reuse the first one's slot.
+    BatchPlanner planner = new BatchPlanner(AvailabilityIndex.build(Collections.emptyList()));
+
+    List<TimeRange> actual = planner.plan(Arrays.asList(
+        planned(Constraint.NONE, PERSON_A), planned(Constraint.NONE, PERSON_A, PERSON_B)));
+
+    List<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartDuration(TimeRange.START_OF_DAY, DURATION_60_MINUTES),
+            TimeRange.fromStartDuration(DURATION_60_MINUTES, DURATION_60_MINUTES));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void adjacentMeetingsBacktrack() {
+    // The first meeting fits at the start of the day, but then B is busy when the adjacent
+    // meeting would start. The planner has to move the first meeting later.
+    //
+    // B       :       |--|
+    // Options : |--C+A--|--C+B--|    (rejected)
+    //               |--C+A--|--C+B--|
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(DURATION_60_MINUTES, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_B)));
+    BatchPlanner planner = new BatchPlanner(AvailabilityIndex.build(events));
+
+    List<TimeRange> actual = planner.plan(Arrays.asList(
+        planned(Constraint.NONE, CANDIDATE, PERSON_A),
+        planned(Constraint.ADJACENT_TO_PREVIOUS, CANDIDATE, PERSON_B)));
+
+    List<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartDuration(DURATION_60_MINUTES, DURATION_60_MINUTES),
+            TimeRange.fromStartDuration(2 * DURATION_60_MINUTES, DURATION_60_MINUTES));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void orderedMeetingStartsAfterPrevious() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1100AM, false),
+            Arrays.asList(PERSON_A)));
+    BatchPlanner planner = new BatchPlanner(AvailabilityIndex.build(events));
+
+    List<TimeRange> actual = planner.plan(Arrays.asList(
+        planned(Constraint.NONE, PERSON_A),
+        planned(Constraint.AFTER_PREVIOUS, PERSON_B)));
+
+    List<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_1100AM, TIME_1200PM, false),
+            TimeRange.fromStartDuration(TIME_1200PM, DURATION_60_MINUTES));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void impossibleBatchLeavesIndexUnchanged() {
+    // A is free for only one hour, so two hour-long meetings with A can't both be placed.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1100AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_1200PM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_A)));
+    AvailabilityIndex index = AvailabilityIndex.build(events);
+    BatchPlanner planner = new BatchPlanner(index);
+
+    List<TimeRange> actual = planner.plan(Arrays.asList(
+        planned(Constraint.NONE, PERSON_A), planned(Constraint.NONE, PERSON_A)));
+
+    Assert.assertEquals(Collections.emptyList(), actual);
+    Assert.assertEquals(2, index.getBusyTimes(PERSON_A).size());
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_1100AM, TIME_1200PM, false)),
+        index.getFreeTimes(Arrays.asList(PERSON_A), DURATION_60_MINUTES));
+  }
+
+  @Test(timeout = 10000)
+  public void meetingThatFitsNowhereFailsWithoutSearching() {
+    // C is busy all day, so the last meeting can't fit however the others are placed.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList(CANDIDATE)));
+    AvailabilityIndex index = AvailabilityIndex.build(events);
+    BatchPlanner planner = new BatchPlanner(index, 1);
+
+    List<TimeRange> actual = planner.plan(Arrays.asList(
+        planned(Constraint.NONE, PERSON_A),
+        planned(Constraint.AFTER_PREVIOUS, PERSON_B),
+        planned(Constraint.AFTER_PREVIOUS, PERSON_A),
+        planned(Constraint.AFTER_PREVIOUS, PERSON_B),
+        planned(Constraint.AFTER_PREVIOUS, CANDIDATE)));
+
+    Assert.assertEquals(Collections.emptyList(), actual);
+    Assert.assertTrue(index.getBusyTimes(PERSON_A).isEmpty());
+  }
+
+  @Test(timeout = 10000)
+  public void longSearchRunsOutOfCandidates() {
+    // A is only free at the start of the day, so the last meeting only fits before the ones it
+    // has to follow, which every ordering of the chain has to find out for itself.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(DURATION_60_MINUTES, TimeRange.END_OF_DAY,
+            true), Arrays.asList(PERSON_A)));
+    AvailabilityIndex index = AvailabilityIndex.build(events);
+    BatchPlanner planner = new BatchPlanner(index, 1, 1000);
+
+    List<TimeRange> actual = planner.plan(Arrays.asList(
+        planned(Constraint.NONE, PERSON_B),
+        planned(Constraint.AFTER_PREVIOUS, CANDIDATE),
+        planned(Constraint.AFTER_PREVIOUS, PERSON_B),
+        planned(Constraint.AFTER_PREVIOUS, CANDIDATE),
+        planned(Constraint.AFTER_PREVIOUS, PERSON_A)));
+
+    Assert.assertEquals(Collections.emptyList(), actual);
+    Assert.assertTrue(index.getBusyTimes(PERSON_B).isEmpty());
+    Assert.assertTrue(index.getBusyTimes(CANDIDATE).isEmpty());
+  }
+
+  @Test
+  public void failedChainReleasesEarlierChains() {
+    // The first chain is placed, then the second can't be, so both are given back.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(DURATION_60_MINUTES, TimeRange.END_OF_DAY,
+            true), Arrays.asList(PERSON_A)));
+    AvailabilityIndex index = AvailabilityIndex.build(events);
+    BatchPlanner planner = new BatchPlanner(index);
+
+    List<TimeRange> actual = planner.plan(Arrays.asList(
+        planned(Constraint.NONE, PERSON_B),
+        planned(Constraint.ADJACENT_TO_PREVIOUS, CANDIDATE),
+        planned(Constraint.NONE, PERSON_A, CANDIDATE),
+        planned(Constraint.AFTER_PREVIOUS, PERSON_A)));
+
+    Assert.assertEquals(Collections.emptyList(), actual);
+    Assert.assertTrue(index.getBusyTimes(PERSON_B).isEmpty());
+    Assert.assertTrue(index.getBusyTimes(CANDIDATE).isEmpty());
+  }
+}
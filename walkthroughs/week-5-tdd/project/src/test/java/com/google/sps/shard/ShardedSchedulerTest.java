@@ -0,0 +1,175 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.shard;
+
+import com.google.sps.Deadline;
+import com.google.sps.Event;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.RandomCalendar;
+import com.google.sps.TimeRange;
+import com.google.sps.WorkingHours;
+import com.google.sps.WorkingHoursProfiles;
+import com.google.sps.json.SchedulerJson;
+import com.google.sps.metrics.SchedulerMetrics;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class ShardedSchedulerTest {
+  private static final int NUM_SHARDS = 3;
+  private static final int NUM_EVENTS = 500;
+  private static final int NUM_QUERIES = 100;
+
+  private ExecutorService executor;
+  private List<Event> events;
+  private List<MeetingRequest> requests;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(NUM_SHARDS);
+    RandomCalendar calendar = new RandomCalendar(0, 60);
+    events = calendar.events(NUM_EVENTS);
+    requests = new ArrayList<>();
+    for (int i = 0; i < NUM_QUERIES; i++) {
+      requests.add(calendar.request());
+    }
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+    SchedulerMetrics.getInstance().setEnabled(false);
+    SchedulerMetrics.getInstance().reset();
+  }
+
+  @Test
+  public void inProcessShardsMatchFindMeetingQuery() throws Exception {
+    ShardedScheduler scheduler = ShardedScheduler.local(events, NUM_SHARDS, executor);
+
+    assertMatchesFindMeetingQuery(scheduler);
+  }
+
+  @Test
+  public void workingHoursAreAppliedAfterTheMerge() throws Exception {
+    ShardedScheduler scheduler = ShardedScheduler.local(events, NUM_SHARDS, executor);
+    WorkingHoursProfiles profiles = new WorkingHoursProfiles(ZoneOffset.UTC);
+    profiles.set("Amelia-0", nineToFive("America/New_York"));
+    profiles.set("ava-1", nineToFive("Asia/Tokyo"));
+    profiles.set("Emma-2", nineToFive("UTC"));
+    LocalDate wednesday = LocalDate.of(2026, 1, 14);
+
+    FindMeetingQuery reference = new FindMeetingQuery(profiles, wednesday);
+    for (int i = 0; i < NUM_QUERIES; i++) {
+      Assert.assertEquals("query " + i,
+          new ArrayList<TimeRange>(reference.query(events, requests.get(i))),
+          new ArrayList<TimeRange>(
+              scheduler.query(requests.get(i), Deadline.NONE, profiles, wednesday)));
+    }
+  }
+
+  @Test
+  public void shardsInOtherProcessesMatchFindMeetingQuery() throws Exception {
+    File eventsFile = File.createTempFile("events", ".json");
+    List<Process> processes = new ArrayList<>();
+    try {
+      try (Writer out = new FileWriter(eventsFile)) {
+        SchedulerJson.gson().toJson(events, out);
+      }
+
+      List<HttpShard> shards = new ArrayList<>();
+      for (int shard = 0; shard < NUM_SHARDS; shard++) {
+        Process process = startShardServer(eventsFile, shard);
+        processes.add(process);
+        shards.add(new HttpShard("http://localhost:" + readPort(process)));
+      }
+      SchedulerMetrics.getInstance().reset();
+      SchedulerMetrics.getInstance().setEnabled(true);
+
+      assertMatchesFindMeetingQuery(new ShardedScheduler(shards, executor));
+
+      // Every shard owns some of the 60 people, so every shard was asked and timed.
+      Map<?, ?> shardLatencies =
+          (Map<?, ?>) SchedulerMetrics.getInstance().snapshot().get("shards");
+      Assert.assertEquals(NUM_SHARDS, shardLatencies.size());
+    } finally {
+      for (Process process : processes) {
+        process.destroy();
+      }
+      eventsFile.delete();
+    }
+  }
+
+  private void assertMatchesFindMeetingQuery(ShardedScheduler scheduler) throws Exception {
+    FindMeetingQuery reference = new FindMeetingQuery();
+    for (int i = 0; i < NUM_QUERIES; i++) {
+      Assert.assertEquals("query " + i,
+          new ArrayList<TimeRange>(reference.query(events, requests.get(i))),
+          new ArrayList<TimeRange>(scheduler.query(requests.get(i), Deadline.NONE)));
+    }
+  }
+
+  private static WorkingHours nineToFive(String zone) {
+    return new WorkingHours(ZoneId.of(zone), LocalTime.of(9, 0), LocalTime.of(17, 0),
+        EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+  }
+
+  private static Process startShardServer(File eventsFile, int shard) throws Exception {
+    String java = System.getProperty("java.home") + File.separator + "bin" + File.separator
+        + "java";
+    return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+        ShardServer.class.getName(), eventsFile.getPath(), String.valueOf(shard),
+        String.valueOf(NUM_SHARDS), "0")
+        .redirectError(ProcessBuilder.Redirect.INHERIT)
+        .start();
+  }
+
+  /**
+   * Waits for the shard server to report the port it listens on.
+   */
+  private static int readPort(Process process) throws Exception {
+    BufferedReader out = new BufferedReader(
+        new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+    String line;
+    while ((line = out.readLine()) != null) {
+      if (line.startsWith("Listening on port ")) {
+        return Integer.parseInt(line.substring("Listening on port ".length()).trim());
+      }
+    }
+    throw new IllegalStateException("shard server exited before listening");
+  }
+}
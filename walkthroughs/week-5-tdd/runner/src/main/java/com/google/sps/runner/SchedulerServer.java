@@ -0,0 +1,130 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.runner;
+
+import com.google.sps.EventStore;
+import com.google.sps.importer.CalendarImporter;
+import com.google.sps.servlets.GetEventsServlet;
+import com.google.sps.servlets.QueryServlet;
+import java.io.FileReader;
+import java.io.Reader;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
+/**
+ * Serves {@code QueryServlet} and {@code GetEventsServlet} from an embedded Jetty instead of the
+ *     App Engine dev server, so the scheduler can run on a current JDK with one virtual thread per
+ *     request. Run it with
+ *
+ * <pre>
+ * java -cp ... com.google.sps.runner.SchedulerServer 8080 virtual events.json
+ * </pre>
+ *
+ * The arguments are the port, where 0 picks a free one, the thread mode, see {@code ThreadMode},
+ *     and optionally a JSON file of events in the format {@code GetEventsServlet} writes to load
+ *     into the {@code EventStore} before serving. Once the server is started it prints
+ *     "Listening on port N" on its own line.
+ */
+public final class SchedulerServer {
+  /**
+   * How requests are run.
+   */
+  public enum ThreadMode {
+    // A new virtual thread for every request; blocking in a servlet doesn't hold a carrier thread.
+    VIRTUAL,
+    // Jetty's usual pool of at most PLATFORM_MAX_THREADS platform threads.
+    PLATFORM
+  }
+
+  /**
+   * The size of the platform thread pool, which is Jetty's default.
+   */
+  public static final int PLATFORM_MAX_THREADS = 200;
+
+  /**
+   * The platform threads Jetty may still use in the virtual mode, for accepting, selecting and
+   *     the little work it does itself between requests.
+   */
+  public static final int VIRTUAL_MAX_PLATFORM_THREADS = 16;
+
+  // Connections the kernel may queue before they are accepted. Linux caps it at somaxconn.
+  private static final int ACCEPT_QUEUE_SIZE = 8192;
+
+  private final Server server;
+  private final ServerConnector connector;
+
+  /**
+   * Starts serving on {@code port} of every interface, or on a free port if {@code port} is 0.
+   */
+  public SchedulerServer(int port, ThreadMode mode) throws Exception {
+    QueuedThreadPool threadPool;
+    if (mode == ThreadMode.VIRTUAL) {
+      // Jetty keeps a few platform threads for selecting and accepting and hands every request
+      //     that may block to this executor.
+      threadPool = new QueuedThreadPool(VIRTUAL_MAX_PLATFORM_THREADS);
+      threadPool.setVirtualThreadsExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    } else {
+      threadPool = new QueuedThreadPool(PLATFORM_MAX_THREADS);
+    }
+    threadPool.setName("scheduler-" + mode.name().toLowerCase(Locale.ROOT));
+
+    server = new Server(threadPool);
+    connector = new ServerConnector(server);
+    connector.setPort(port);
+    connector.setAcceptQueueSize(ACCEPT_QUEUE_SIZE);
+    server.addConnector(connector);
+
+    ServletContextHandler context = new ServletContextHandler();
+    context.setContextPath("/");
+    context.addServlet(new ServletHolder(new GetEventsServlet()), "/get-events");
+    ServletHolder query = new ServletHolder(new QueryServlet());
+    // QueryServlet answers from its own worker pool once the request has gone async.
+    query.setAsyncSupported(true);
+    context.addServlet(query, "/query");
+    server.setHandler(context);
+    server.start();
+  }
+
+  public int getPort() {
+    return connector.getLocalPort();
+  }
+
+  /**
+   * Stops accepting requests and stops the servlets.
+   */
+  public void stop() throws Exception {
+    server.stop();
+  }
+
+  public static void main(String[] args) throws Exception {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+    ThreadMode mode = args.length > 1
+        ? ThreadMode.valueOf(args[1].toUpperCase(Locale.ROOT))
+        : ThreadMode.VIRTUAL;
+    if (args.length > 2) {
+      try (Reader events = new FileReader(args[2])) {
+        new CalendarImporter(EventStore.getInstance()).importJson(events);
+      }
+    }
+    SchedulerServer server = new SchedulerServer(port, mode);
+    System.out.println("Listening on port " + server.getPort());
+    server.server.join();
+  }
+}
@@ -0,0 +1,78 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.runner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class SchedulerServerTest {
+  private static final String REQUEST =
+      "{\"attendees\":[\"A\"],\"optional_attendees\":[],\"duration\":30}";
+
+  @Test
+  public void servesBothServletsWithVirtualThreads() throws Exception {
+    checkServes(SchedulerServer.ThreadMode.VIRTUAL);
+  }
+
+  @Test
+  public void servesBothServletsWithPlatformThreads() throws Exception {
+    checkServes(SchedulerServer.ThreadMode.PLATFORM);
+  }
+
+  private static void checkServes(SchedulerServer.ThreadMode mode) throws Exception {
+    SchedulerServer server = new SchedulerServer(0, mode);
+    try {
+      URL base = new URL("http://localhost:" + server.getPort());
+
+      HttpURLConnection events = (HttpURLConnection) new URL(base, "/get-events").openConnection();
+      Assert.assertEquals(200, events.getResponseCode());
+      Assert.assertTrue(read(events.getInputStream()).trim().startsWith("["));
+
+      HttpURLConnection query = (HttpURLConnection) new URL(base, "/query").openConnection();
+      query.setRequestMethod("POST");
+      query.setRequestProperty("Content-Type", "application/json");
+      query.setDoOutput(true);
+      try (OutputStream out = query.getOutputStream()) {
+        out.write(REQUEST.getBytes(StandardCharsets.UTF_8));
+      }
+      Assert.assertEquals(200, query.getResponseCode());
+      Assert.assertTrue(read(query.getInputStream()).contains("\"start\""));
+    } finally {
+      server.stop();
+    }
+  }
+
+  private static String read(InputStream in) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    byte[] buffer = new byte[4096];
+    int n;
+    while ((n = in.read(buffer)) != -1) {
+      bytes.write(buffer, 0, n);
+    }
+    in.close();
+    return bytes.toString("UTF-8");
+  }
+}
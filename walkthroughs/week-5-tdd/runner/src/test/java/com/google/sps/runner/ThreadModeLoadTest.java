@@ -0,0 +1,359 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.runner;
+
+import com.google.sps.Event;
+import com.google.sps.TimeRange;
+import com.google.sps.json.SchedulerJson;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Compares the virtual and the platform thread modes of {@code SchedulerServer} with many
+ *     concurrent connections. For each mode a server is started in a separate JVM, every client
+ *     connects first, and once all of them are connected they all send one request at the same
+ *     time and read the answer. Most requests fetch the events, the rest post a meeting query for
+ *     their own attendees and duration, so that {@code QueryCoalescer} can't fold the queries into
+ *     one computation. Latencies and throughput are reported for each path on its own: queries
+ *     also run on the servlet's bounded worker pool, which answers 503 once its queue is full.
+ *     Run it with
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.google.sps.runner.ThreadModeLoadTest \
+ *     -Dloadtest.connections=10000
+ * </pre>
+ *
+ * The client and the server each hold one socket per connection, so both need an open file limit
+ *     above the number of connections. The peak number of server threads is sampled from
+ *     /proc and is only reported on Linux; virtual threads don't show up in it.
+ */
+public final class ThreadModeLoadTest {
+  private static final int NUM_PEOPLE = 50;
+  private static final int[] QUERY_DURATIONS = {15, 30, 45, 60, 90};
+  private static final long TIMEOUT_MILLIS = 120000;
+
+  public static void main(String[] args) throws Exception {
+    int numConnections = Integer.getInteger("loadtest.connections", 10000);
+    int numEvents = Integer.getInteger("loadtest.events", 200);
+    int queryPercent = Integer.getInteger("loadtest.queryPercent", 10);
+
+    Path events = Files.createTempFile("load-test-events", ".json");
+    try {
+      writeEvents(events, numEvents);
+      for (SchedulerServer.ThreadMode mode : SchedulerServer.ThreadMode.values()) {
+        run(mode, events, numConnections, queryPercent);
+      }
+    } finally {
+      Files.deleteIfExists(events);
+    }
+  }
+
+  private static void run(SchedulerServer.ThreadMode mode, Path events, int numConnections,
+      int queryPercent) throws Exception {
+    Process server = new ProcessBuilder(javaCommand(), "-cp", classPath(),
+        SchedulerServer.class.getName(), "0", mode.name(), events.toString())
+        .redirectError(ProcessBuilder.Redirect.INHERIT)
+        .start();
+    try {
+      int port = awaitPort(server);
+      ThreadSampler threads = new ThreadSampler(server.pid());
+      threads.start();
+
+      Result result = load(port, numConnections, queryPercent);
+      threads.interrupt();
+      threads.join();
+      result.print(mode, threads.peak);
+    } finally {
+      server.destroy();
+      server.waitFor(10, TimeUnit.SECONDS);
+    }
+  }
+
+  /**
+   * Connects every client, then has all of them send one request at once.
+   */
+  private static Result load(int port, int numConnections, int queryPercent)
+      throws InterruptedException {
+    Result result = new Result(numConnections);
+    CountDownLatch connected = new CountDownLatch(numConnections);
+    CountDownLatch go = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(numConnections);
+
+    long connectStart = System.nanoTime();
+    try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < numConnections; i++) {
+        byte[] request = i % 100 < queryPercent
+            ? queryRequest(port, new Random(i)) : getEventsRequest(port);
+        Endpoint endpoint = i % 100 < queryPercent ? result.queries : result.events;
+        clients.execute(() -> {
+          boolean isConnected = false;
+          try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("localhost", port), (int) TIMEOUT_MILLIS);
+            socket.setSoTimeout((int) TIMEOUT_MILLIS);
+            isConnected = true;
+            connected.countDown();
+            go.await();
+
+            long start = System.nanoTime();
+            socket.getOutputStream().write(request);
+            endpoint.record(readStatus(socket.getInputStream()), start, System.nanoTime());
+          } catch (IOException e) {
+            endpoint.record(e.getClass().getSimpleName(), 0, -1);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          } finally {
+            if (!isConnected) {
+              connected.countDown();
+            }
+            done.countDown();
+          }
+        });
+      }
+      connected.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+      result.connectNanos = System.nanoTime() - connectStart;
+
+      result.goNanos = System.nanoTime();
+      go.countDown();
+      done.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+      result.wallNanos = System.nanoTime() - result.goNanos;
+    }
+    return result;
+  }
+
+  private static byte[] getEventsRequest(int port) {
+    return ("GET /get-events HTTP/1.1\r\nHost: localhost:" + port
+        + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * Returns a query for two to four random people and a random duration.
+   */
+  private static byte[] queryRequest(int port, Random random) {
+    List<String> attendees = new ArrayList<>();
+    int numAttendees = 2 + random.nextInt(3);
+    while (attendees.size() < numAttendees) {
+      String attendee = "\"person-" + random.nextInt(NUM_PEOPLE) + "\"";
+      if (!attendees.contains(attendee)) {
+        attendees.add(attendee);
+      }
+    }
+    String body = "{\"attendees\":[" + String.join(",", attendees)
+        + "],\"optional_attendees\":[],\"duration\":"
+        + QUERY_DURATIONS[random.nextInt(QUERY_DURATIONS.length)] + "}";
+    return ("POST /query HTTP/1.1\r\nHost: localhost:" + port
+        + "\r\nContent-Type: application/json\r\nContent-Length: " + body.length()
+        + "\r\nConnection: close\r\n\r\n" + body).getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * Returns the status code of the response and reads the rest of it until the server closes the
+   *     connection.
+   */
+  private static String readStatus(InputStream in) throws IOException {
+    StringBuilder statusLine = new StringBuilder();
+    int b;
+    while ((b = in.read()) != -1 && b != '\n') {
+      statusLine.append((char) b);
+    }
+    byte[] buffer = new byte[8192];
+    while (in.read(buffer) != -1) {
+      // Drain the headers and the body.
+    }
+    String[] parts = statusLine.toString().split(" ");
+    return parts.length > 1 ? parts[1] : "no response";
+  }
+
+  private static void writeEvents(Path file, int numEvents) throws IOException {
+    Random random = new Random(0);
+    List<Event> events = new ArrayList<>(numEvents);
+    for (int i = 0; i < numEvents; i++) {
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration() - 60);
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, 30),
+          Arrays.asList("person-" + random.nextInt(NUM_PEOPLE),
+              "person-" + random.nextInt(NUM_PEOPLE))));
+    }
+    try (Writer writer = Files.newBufferedWriter(file)) {
+      SchedulerJson.gson().toJson(events, writer);
+    }
+  }
+
+  private static int awaitPort(Process server) throws IOException {
+    BufferedReader out = new BufferedReader(
+        new InputStreamReader(server.getInputStream(), StandardCharsets.UTF_8));
+    String line;
+    while ((line = out.readLine()) != null) {
+      if (line.startsWith("Listening on port ")) {
+        return Integer.parseInt(line.substring("Listening on port ".length()).trim());
+      }
+    }
+    throw new IOException("the server exited before it started listening");
+  }
+
+  private static String javaCommand() {
+    return Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+  }
+
+  /**
+   * Returns the class path this class was loaded from, which under exec:java is the class
+   *     loader's rather than the JVM's.
+   */
+  private static String classPath() {
+    ClassLoader loader = ThreadModeLoadTest.class.getClassLoader();
+    if (!(loader instanceof URLClassLoader)) {
+      return System.getProperty("java.class.path");
+    }
+    List<String> entries = new ArrayList<>();
+    for (URL url : ((URLClassLoader) loader).getURLs()) {
+      entries.add(new File(url.getPath()).getPath());
+    }
+    return String.join(File.pathSeparator, entries);
+  }
+
+  /**
+   * Latencies and outcomes of one run.
+   */
+  private static final class Result {
+    private final Endpoint events;
+    private final Endpoint queries;
+    private long connectNanos;
+    private volatile long goNanos;
+    private long wallNanos;
+
+    Result(int numConnections) {
+      events = new Endpoint(this, numConnections);
+      queries = new Endpoint(this, numConnections);
+    }
+
+    void print(SchedulerServer.ThreadMode mode, int peakThreads) {
+      System.out.printf(Locale.ROOT, "%-8s connect %6d ms  wall %6d ms  server threads %s%n",
+          mode, TimeUnit.NANOSECONDS.toMillis(connectNanos),
+          TimeUnit.NANOSECONDS.toMillis(wallNanos),
+          peakThreads < 0 ? "n/a" : String.valueOf(peakThreads));
+      events.print("/get-events");
+      queries.print("/query");
+    }
+  }
+
+  /**
+   * Latencies and outcomes of the requests to one path. Its throughput is measured from the
+   *     moment every client was let go until its last answer arrived.
+   */
+  private static final class Endpoint {
+    private final Result result;
+    private final AtomicLongArray latencies;
+    private final AtomicInteger count = new AtomicInteger();
+    private final Map<String, AtomicInteger> outcomes = new ConcurrentHashMap<>();
+    private final AtomicLong lastAnswerNanos = new AtomicLong();
+
+    Endpoint(Result result, int numConnections) {
+      this.result = result;
+      latencies = new AtomicLongArray(numConnections);
+    }
+
+    /**
+     * Records one request, or a failure without an answer if {@code endNanos} is negative.
+     */
+    void record(String outcome, long startNanos, long endNanos) {
+      outcomes.computeIfAbsent(outcome, key -> new AtomicInteger()).incrementAndGet();
+      if (endNanos >= 0) {
+        latencies.set(count.getAndIncrement(), endNanos - startNanos);
+        lastAnswerNanos.accumulateAndGet(endNanos, Math::max);
+      }
+    }
+
+    void print(String path) {
+      long[] sorted = new long[count.get()];
+      for (int i = 0; i < sorted.length; i++) {
+        sorted[i] = latencies.get(i);
+      }
+      Arrays.sort(sorted);
+      long elapsedNanos = Math.max(1, lastAnswerNanos.get() - result.goNanos);
+      System.out.printf(Locale.ROOT,
+          "  %-11s %6d requests  %8.0f req/s  p50 %6d ms  p99 %6d ms  max %6d ms  %s%n",
+          path, sorted.length, sorted.length == 0 ? 0 : sorted.length / (elapsedNanos / 1e9),
+          millis(sorted, 0.5), millis(sorted, 0.99), millis(sorted, 1.0),
+          new TreeMap<>(outcomes));
+    }
+
+    private static long millis(long[] sorted, double quantile) {
+      if (sorted.length == 0) {
+        return 0;
+      }
+      int i = Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1);
+      return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(i, 0)]);
+    }
+  }
+
+  /**
+   * Samples the number of native threads of a process from /proc until it is interrupted.
+   */
+  private static final class ThreadSampler extends Thread {
+    private final Path status;
+    private volatile int peak = -1;
+
+    ThreadSampler(long pid) {
+      super("thread-sampler");
+      setDaemon(true);
+      status = Paths.get("/proc", String.valueOf(pid), "status");
+    }
+
+    @Override
+    public void run() {
+      while (!isInterrupted() && Files.isReadable(status)) {
+        try {
+          for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("Threads:")) {
+              peak = Math.max(peak, Integer.parseInt(line.substring(8).trim()));
+            }
+          }
+          Thread.sleep(10);
+        } catch (IOException e) {
+          return;
+        } catch (InterruptedException e) {
+          return;
+        }
+      }
+    }
+  }
+}